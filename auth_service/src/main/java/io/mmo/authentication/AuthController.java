@@ -1,66 +1,136 @@
 package io.mmo.authentication;
 
 import io.mmo.authentication.business.AuthService;
+import io.mmo.authentication.business.AuthTokens;
 import io.mmo.authentication.business.exceptions.InvalidCredentialsException;
 import io.mmo.authentication.business.exceptions.InvalidInputException;
+import io.mmo.authentication.business.exceptions.InvalidTokenException;
+import io.mmo.authentication.business.exceptions.ServiceOverloadedException;
 import io.mmo.authentication.business.exceptions.UserAlreadyExistsException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.PayloadTooLargeException;
 
-import java.util.Map;
-
+/**
+ * Login, token renewal and registration. Bodies are the records below, read and written by {@link AuthJsonCodec};
+ * responses that never change are built once.
+ */
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/auth")
 public class AuthController {
 
+    public record Credentials(String username, String password) {
+    }
+
+    public record RefreshRequest(String refreshToken) {
+    }
+
+    public record Tokens(String jwt, String refreshToken) {
+    }
+
+    public record Message(String message) {
+    }
+
+    public record ErrorBody(String error) {
+    }
+
+    private static final ResponseEntity<Message> REVOKED =
+            ResponseEntity.ok(new Message("Refresh token revoked"));
+    private static final ResponseEntity<Message> REGISTERED =
+            ResponseEntity.status(HttpStatus.CREATED).body(new Message("User registered successfully"));
+    private static final ResponseEntity<ErrorBody> INVALID_CREDENTIALS =
+            ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ErrorBody(new InvalidCredentialsException().getMessage()));
+    private static final ResponseEntity<ErrorBody> INVALID_TOKEN =
+            ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ErrorBody(new InvalidTokenException().getMessage()));
+    private static final ResponseEntity<ErrorBody> USER_EXISTS =
+            ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorBody("Username already exists"));
+    private static final ResponseEntity<ErrorBody> MALFORMED =
+            ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrorBody("Malformed request body"));
+    private static final ResponseEntity<ErrorBody> TOO_LARGE =
+            ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(new ErrorBody("Request body is too large"));
+    private static final ResponseEntity<ErrorBody> UNEXPECTED =
+            ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrorBody("An unexpected error occurred"));
+    private static final ErrorBody OVERLOADED = new ErrorBody(new ServiceOverloadedException(0).getMessage());
+
     private final AuthService authService;
 
     @PostMapping("/login")
-    public ResponseEntity<Map<String, String>> login(@RequestBody Map<String, String> payload) {
-        String username = payload.getOrDefault("username", "").trim();
-        String password = payload.getOrDefault("password", "").trim();
-        String token = authService.login(username, password);
-        return ResponseEntity.status(HttpStatus.OK)
-                             .body(Map.of("jwt", token));
+    public ResponseEntity<Tokens> login(@RequestBody Credentials credentials) {
+        AuthTokens tokens = authService.login(credentials.username().trim(), credentials.password().trim());
+        return ResponseEntity.ok(tokenBody(tokens));
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<Tokens> refresh(@RequestBody RefreshRequest request) {
+        AuthTokens tokens = authService.refresh(request.refreshToken().trim());
+        return ResponseEntity.ok(tokenBody(tokens));
+    }
+
+    @PostMapping("/revoke")
+    public ResponseEntity<Message> revoke(@RequestBody RefreshRequest request) {
+        authService.revoke(request.refreshToken().trim());
+        return REVOKED;
     }
 
     @PostMapping("/register")
-    public ResponseEntity<Map<String, String>> register(@RequestBody Map<String, String> payload) {
-        String username = payload.getOrDefault("username", "").trim();
-        String password = payload.getOrDefault("password", "").trim();
-        authService.register(username, password);
-        return ResponseEntity.status(HttpStatus.CREATED)
-                             .body(Map.of("message", "User registered successfully"));
+    public ResponseEntity<Message> register(@RequestBody Credentials credentials) {
+        authService.register(credentials.username().trim(), credentials.password().trim());
+        return REGISTERED;
     }
 
     @ExceptionHandler(InvalidInputException.class)
-    public ResponseEntity<Map<String, String>> handleInvalidInput(InvalidInputException ex) {
+    public ResponseEntity<ErrorBody> handleInvalidInput(InvalidInputException ex) {
         return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
-                             .body(Map.of("error", ex.getMessage()));
+                             .body(new ErrorBody(ex.getMessage()));
     }
 
     @ExceptionHandler(InvalidCredentialsException.class)
-    public ResponseEntity<Map<String, String>> handleInvalidCredentials(InvalidCredentialsException ex) {
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                             .body(Map.of("error", ex.getMessage()));
+    public ResponseEntity<ErrorBody> handleInvalidCredentials(InvalidCredentialsException ex) {
+        return INVALID_CREDENTIALS;
+    }
+
+    @ExceptionHandler(InvalidTokenException.class)
+    public ResponseEntity<ErrorBody> handleInvalidToken(InvalidTokenException ex) {
+        return INVALID_TOKEN;
     }
 
     @ExceptionHandler(UserAlreadyExistsException.class)
-    public ResponseEntity<Map<String, String>> handleUserAlreadyExists(UserAlreadyExistsException ex) {
-        return ResponseEntity.status(HttpStatus.CONFLICT)
-                             .body(Map.of("error", "Username already exists"));
+    public ResponseEntity<ErrorBody> handleUserAlreadyExists(UserAlreadyExistsException ex) {
+        return USER_EXISTS;
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ErrorBody> handleServiceOverloaded(ServiceOverloadedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                             .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                             .body(OVERLOADED);
+    }
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorBody> handleMalformedBody(HttpMessageNotReadableException ex) {
+        return MALFORMED;
+    }
+
+    @ExceptionHandler(PayloadTooLargeException.class)
+    public ResponseEntity<ErrorBody> handlePayloadTooLarge(PayloadTooLargeException ex) {
+        return TOO_LARGE;
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, String>> handleGeneric(Exception ex) {
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                             .body(Map.of("error", "An unexpected error occurred"));
+    public ResponseEntity<ErrorBody> handleGeneric(Exception ex) {
+        return UNEXPECTED;
+    }
+
+    private static Tokens tokenBody(AuthTokens tokens) {
+        return new Tokens(tokens.accessToken(), tokens.refreshToken());
     }
 }
@@ -0,0 +1,53 @@
+package io.mmo.authentication;
+
+import io.mmo.authentication.database.AuthEvent;
+import io.mmo.authentication.database.AuthEventReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prints the auth event log in {@code directory}, one event per line, and with {@code --follow} keeps printing new
+ * events as they are written. Runs without the application context:
+ *
+ * <pre>
+ * java -cp app.jar io.mmo.authentication.AuthEventTail /var/lib/auth-events --follow
+ * </pre>
+ */
+public final class AuthEventTail {
+
+    private static final long FOLLOW_POLL_MILLIS = 200;
+
+    private AuthEventTail() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            System.err.println("Usage: AuthEventTail <directory> [--follow]");
+            System.exit(2);
+        }
+        boolean follow = args.length > 1 && args[1].equals("--follow");
+
+        try (var reader = new AuthEventReader(Path.of(args[0]))) {
+            while (true) {
+                AuthEvent event = reader.poll();
+                if (event != null) {
+                    System.out.println(format(event));
+                } else if (follow) {
+                    System.out.flush();
+                    TimeUnit.MILLISECONDS.sleep(FOLLOW_POLL_MILLIS);
+                } else {
+                    return;
+                }
+            }
+        }
+    }
+
+    static String format(AuthEvent event) {
+        String subject = event.type() == AuthEvent.Type.EVENTS_DROPPED
+                ? String.valueOf(event.dropped())
+                : event.username();
+        return event.timestamp() + " " + event.type() + " " + subject;
+    }
+}
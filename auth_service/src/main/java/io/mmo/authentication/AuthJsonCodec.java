@@ -0,0 +1,203 @@
+package io.mmo.authentication;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import io.mmo.authentication.AuthController.Credentials;
+import io.mmo.authentication.AuthController.ErrorBody;
+import io.mmo.authentication.AuthController.Message;
+import io.mmo.authentication.AuthController.RefreshRequest;
+import io.mmo.authentication.AuthController.Tokens;
+import io.mmo.authentication.business.exceptions.InvalidInputException;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.PayloadTooLargeException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Set;
+
+/**
+ * Reads and writes the bodies of {@link AuthController} with Jackson's streaming parser and generator instead of data
+ * binding into maps, so a login allocates little beyond its two strings and the records. Bodies are cut off at
+ * {@code max-body-bytes} while they are read, which answers {@code 413 Payload Too Large} without reading the rest, and
+ * every field is checked against its own limit as soon as it is parsed, which answers {@code 422}. The password limit
+ * is in UTF-8 bytes, as BCrypt counts them, so a password that passes it can always be hashed. Missing and null
+ * fields read as empty strings and unknown fields are skipped, as with the maps before.
+ */
+@Component
+public class AuthJsonCodec extends AbstractHttpMessageConverter<Object> {
+
+    private static final Set<Class<?>> READABLE = Set.of(Credentials.class, RefreshRequest.class);
+    private static final Set<Class<?>> WRITABLE = Set.of(Tokens.class, Message.class, ErrorBody.class);
+
+    private final JsonCodecProperties properties;
+    private final JsonFactory jsonFactory = JsonFactory.builder()
+                                                       .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+                                                       .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+                                                       .build();
+
+    public AuthJsonCodec(JsonCodecProperties properties) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return READABLE.contains(clazz) || WRITABLE.contains(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return READABLE.contains(clazz) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return WRITABLE.contains(clazz) && canWrite(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        if (inputMessage.getHeaders().getContentLength() > properties.getMaxBodyBytes()) {
+            throw new PayloadTooLargeException(null);
+        }
+        try {
+            return decode(clazz, new LimitedInputStream(inputMessage.getBody(), properties.getMaxBodyBytes()));
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotReadableException("Malformed JSON body: " + e.getOriginalMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        encode(body, outputMessage.getBody());
+    }
+
+    /**
+     * Reads a {@link Credentials} or {@link RefreshRequest} from the body, which is left open.
+     */
+    public Object decode(Class<?> type, InputStream body) throws IOException {
+        String username = "";
+        String password = "";
+        String refreshToken = "";
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "username" -> username = text(parser, properties.getMaxUsernameLength(), "Username");
+                    case "password" -> password = password(parser, properties.getMaxPasswordBytes());
+                    case "refreshToken" -> refreshToken = text(parser, properties.getMaxTokenLength(), "Refresh token");
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return type == Credentials.class ? new Credentials(username, password) : new RefreshRequest(refreshToken);
+    }
+
+    /**
+     * Writes one of the response records to {@code out}, which is left open.
+     */
+    public void encode(Object body, OutputStream out) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.writeStartObject();
+            switch (body) {
+                case Tokens tokens -> {
+                    generator.writeStringField("jwt", tokens.jwt());
+                    generator.writeStringField("refreshToken", tokens.refreshToken());
+                }
+                case Message message -> generator.writeStringField("message", message.message());
+                case ErrorBody error -> generator.writeStringField("error", error.error());
+                default -> throw new IllegalArgumentException("Not an auth response: " + body.getClass().getName());
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    private static String text(JsonParser parser, int maxLength, String name) throws IOException {
+        JsonToken value = parser.currentToken();
+        if (value == JsonToken.VALUE_NULL) {
+            return "";
+        }
+        if (!value.isScalarValue()) {
+            throw new JsonParseException(parser, name + " must be a string");
+        }
+        if (parser.getTextLength() > maxLength) {
+            throw new InvalidInputException(name + " must be at most " + maxLength + " characters");
+        }
+        return parser.getText();
+    }
+
+    private static String password(JsonParser parser, int maxBytes) throws IOException {
+        // UTF-8 takes at least one byte per UTF-16 char, so the char count rules out long passwords before counting.
+        String password = text(parser, Integer.MAX_VALUE, "Password");
+        if (password.length() > maxBytes || utf8Length(password) > maxBytes) {
+            throw new InvalidInputException("Password must be at most " + maxBytes + " bytes");
+        }
+        return password;
+    }
+
+    private static int utf8Length(String text) {
+        int bytes = text.length();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x800) {
+                // Three bytes, or four for a surrogate pair, which is two chars.
+                bytes += Character.isSurrogate(c) ? 1 : 2;
+            } else if (c >= 0x80) {
+                bytes++;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Fails the read once more than {@code limit} bytes came in, for bodies sent without a length.
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            count(value < 0 ? 0 : 1);
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            // One byte more than allowed tells a body at the limit from one over it.
+            int count = super.read(buffer, offset, (int) Math.min(length, remaining + 1));
+            count(Math.max(count, 0));
+            return count;
+        }
+
+        private void count(int bytes) {
+            remaining -= bytes;
+            if (remaining < 0) {
+                throw new PayloadTooLargeException(null);
+            }
+        }
+    }
+}
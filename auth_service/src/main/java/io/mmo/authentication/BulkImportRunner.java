@@ -0,0 +1,62 @@
+package io.mmo.authentication;
+
+import io.mmo.authentication.business.AccountImporter;
+import io.mmo.authentication.business.ImportProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the service as a one-off account import when {@code auth.import.file} is set, e.g.
+ * <pre>
+ * java -jar auth-service.jar --spring.main.web-application-type=none --auth.import.file=/data/players.csv
+ * </pre>
+ * The process exits when the import is done, with status 1 if it failed. The runner is always registered and
+ * checks the property when it runs, so an image built with ahead-of-time processing, where bean conditions are
+ * fixed at build time, can still run imports.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BulkImportRunner implements ApplicationRunner {
+
+    private final AccountImporter importer;
+    private final ImportProperties properties;
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (properties.getFile() == null) {
+            return;
+        }
+
+        int exitCode = 0;
+        try {
+            var report = importer.importFile(properties.getFile());
+            log.info("Import of {} finished in {} s: {} records read, {} inserted, {} duplicates, {} invalid, "
+                             + "{} skipped from an earlier run, {} records/s",
+                     properties.getFile(),
+                     report.elapsed().toSeconds(),
+                     report.read(),
+                     report.inserted(),
+                     report.duplicates(),
+                     report.invalid(),
+                     report.resumed(),
+                     String.format("%.0f", report.recordsPerSecond()));
+        } catch (Exception e) {
+            log.error("Import of {} failed; rerun to resume from the last checkpoint", properties.getFile(), e);
+            exitCode = 1;
+            if (!properties.isExitOnCompletion()) {
+                throw e;
+            }
+        }
+        if (properties.isExitOnCompletion()) {
+            int status = exitCode;
+            System.exit(SpringApplication.exit(context, () -> status));
+        }
+    }
+}
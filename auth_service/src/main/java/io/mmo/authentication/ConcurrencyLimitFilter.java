@@ -0,0 +1,122 @@
+package io.mmo.authentication;
+
+import io.mmo.authentication.business.AdaptiveConcurrencyLimiter;
+import io.mmo.authentication.business.WaitingRoom;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Admits logins and registrations only while the {@link AdaptiveConcurrencyLimiter} has room and answers the rest
+ * immediately with {@code 503 Service Unavailable}, so excess load is shed in microseconds instead of queueing for
+ * the hashing threads until clients time out.
+ * <p>
+ * With the {@link WaitingRoom} enabled, a login that finds no room, or finds players already in line, gets
+ * {@code 202 Accepted} with a ticket instead, e.g. {@code {"ticket":"...","position":120,"estimatedWaitSeconds":4}},
+ * and a {@code Location} to ask for the ticket's status. Once the ticket is admitted the player sends the login again
+ * with the ticket in {@value #TICKET_HEADER}; that login bypasses the limit, since the waiting room already paces
+ * admissions to what the hashing threads can serve. A login with a ticket still in line gets its status again.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    static final String TICKET_HEADER = "X-Queue-Ticket";
+
+    private static final String LOGIN_PATH = "/auth/login";
+    private static final Set<String> LIMITED_PATHS = Set.of("/auth/login", "/auth/register");
+    private static final byte[] REJECTED_BODY = "{\"error\":\"Service is overloaded, please retry later\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final WaitingRoom waitingRoom;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter, WaitingRoom waitingRoom) {
+        this.limiter = limiter;
+        this.waitingRoom = waitingRoom;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !LIMITED_PATHS.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean queueable = waitingRoom.isEnabled() && LOGIN_PATH.equals(request.getRequestURI());
+        if (queueable) {
+            String ticket = request.getHeader(TICKET_HEADER);
+            var status = ticket != null ? waitingRoom.redeem(ticket) : null;
+            if (status != null && status.state() == WaitingRoom.State.ADMITTED) {
+                chain.doFilter(request, response);
+                return;
+            }
+            if (status != null && status.state() == WaitingRoom.State.WAITING) {
+                queued(response, ticket, status);
+                return;
+            }
+            if (waitingRoom.hasWaiters()) {
+                enqueue(response);
+                return;
+            }
+        }
+
+        var permit = limiter.tryAcquire();
+        if (permit == null) {
+            if (queueable) {
+                enqueue(response);
+            } else {
+                reject(response);
+            }
+            return;
+        }
+
+        boolean completed = false;
+        try {
+            chain.doFilter(request, response);
+            completed = true;
+        } finally {
+            if (completed && response.getStatus() != HttpStatus.SERVICE_UNAVAILABLE.value()) {
+                permit.release();
+            } else {
+                permit.drop();
+            }
+        }
+    }
+
+    private void enqueue(HttpServletResponse response) throws IOException {
+        var ticket = waitingRoom.enqueue();
+        if (ticket == null) {
+            reject(response);
+        } else {
+            queued(response, ticket.id(), ticket.status());
+        }
+    }
+
+    private void queued(HttpServletResponse response, String ticket, WaitingRoom.Status status) throws IOException {
+        byte[] body = new WaitingRoomController.QueuedTicket(ticket, status.position(), status.estimatedWaitSeconds())
+                .toJson();
+        response.setStatus(HttpStatus.ACCEPTED.value());
+        response.setHeader(HttpHeaders.LOCATION, WaitingRoomController.QUEUE_PATH + "/" + ticket);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(waitingRoom.pollAfterSeconds(status)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(limiter.getRetryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(REJECTED_BODY.length);
+        response.getOutputStream().write(REJECTED_BODY);
+    }
+}
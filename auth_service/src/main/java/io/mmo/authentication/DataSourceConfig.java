@@ -0,0 +1,30 @@
+package io.mmo.authentication;
+
+import io.mmo.authentication.database.ReadReplicaPool;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * Sends read-only transactions on the primary data source to the read replicas, when any are configured.
+     */
+    @Bean
+    static BeanPostProcessor readReplicaRoutingPostProcessor(ObjectProvider<ReadReplicaPool> replicaPool) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (beanName.equals("dataSource") && bean instanceof DataSource primary) {
+                    var pool = replicaPool.getObject();
+                    return pool.hasReplicas() ? pool.routing(primary) : primary;
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package io.mmo.authentication;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times how long request bodies take to be read and bound from JSON, the one part of a login that happens before
+ * {@code AuthService} is called and is therefore missing from the {@code auth.phase} timers.
+ */
+@ControllerAdvice
+public class JsonBindingMetricsAdvice extends RequestBodyAdviceAdapter {
+
+    private static final String START_ATTRIBUTE = JsonBindingMetricsAdvice.class.getName() + ".start";
+
+    private final Timer readTimer;
+
+    public JsonBindingMetricsAdvice(MeterRegistry meterRegistry) {
+        this.readTimer = Timer.builder("auth.json.read")
+                              .publishPercentileHistogram()
+                              .register(meterRegistry);
+    }
+
+    @Override
+    public boolean supports(MethodParameter methodParameter,
+                            Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public HttpInputMessage beforeBodyRead(HttpInputMessage inputMessage,
+                                           MethodParameter parameter,
+                                           Type targetType,
+                                           Class<? extends HttpMessageConverter<?>> converterType) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(START_ATTRIBUTE, System.nanoTime(), RequestAttributes.SCOPE_REQUEST);
+        }
+        return inputMessage;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body,
+                                HttpInputMessage inputMessage,
+                                MethodParameter parameter,
+                                Type targetType,
+                                Class<? extends HttpMessageConverter<?>> converterType) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null && attributes.getAttribute(START_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Long start) {
+            readTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,18 @@
+package io.mmo.authentication;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "auth.json")
+public class JsonCodecProperties {
+    private int maxBodyBytes = 4096;
+    private int maxUsernameLength = 255;
+    /**
+     * BCrypt's input limit, which is in UTF-8 bytes.
+     */
+    private int maxPasswordBytes = 72;
+    private int maxTokenLength = 128;
+}
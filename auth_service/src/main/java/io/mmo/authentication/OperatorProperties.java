@@ -0,0 +1,16 @@
+package io.mmo.authentication;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "auth.operator")
+public class OperatorProperties {
+    private String username = "operator";
+    /**
+     * Password of the HTTP Basic user allowed to read operator-only actuator endpoints; without one nobody is.
+     */
+    private String password = "";
+}
@@ -0,0 +1,53 @@
+package io.mmo.authentication;
+
+import io.mmo.authentication.business.PasswordHashPolicy;
+import io.mmo.authentication.database.UserCredentialsJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * {@code /actuator/passwordhashes}: the BCrypt cost new hashes get and how many stored hashes use each cost, to
+ * follow how far rehash-on-login has progressed. Counting scans {@code user_credentials}, so the counts are refreshed
+ * every {@code cost-report-interval} and requests are served the last result. Reading it takes the operator user of
+ * {@link OperatorProperties}, since the counts give away how many accounts exist.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "passwordhashes")
+@RequiredArgsConstructor
+public class PasswordHashCostEndpoint {
+
+    private final PasswordHashPolicy policy;
+    private final UserCredentialsJdbcRepository jdbcRepository;
+    private volatile Map<String, Long> usersByCost = Map.of();
+    private volatile Instant countedAt;
+
+    /**
+     * Users per stored cost as of {@code countedAt}, which is null until the first count has completed.
+     */
+    public record CostDistribution(int targetCost, Map<String, Long> usersByCost, Instant countedAt) {
+    }
+
+    @ReadOperation
+    public CostDistribution costs() {
+        return new CostDistribution(policy.getCost(), usersByCost, countedAt);
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${auth.hashing.cost-report-interval:10m}")
+    public void count() {
+        try {
+            usersByCost = Map.copyOf(jdbcRepository.countByPasswordCost());
+            countedAt = Instant.now();
+        } catch (DataAccessException e) {
+            log.warn("Counting users by password cost failed: {}", e.getMessage());
+        }
+    }
+}
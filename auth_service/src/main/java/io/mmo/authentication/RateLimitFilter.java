@@ -0,0 +1,170 @@
+package io.mmo.authentication;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.mmo.authentication.business.RequestRateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejects auth requests over the per-client or, for logins, the per-username-and-client rate with
+ * {@code 429 Too Many Requests}, before the request reaches the controller and therefore before any database lookup
+ * or password hashing. The login body is read here to find the username and replayed to the controller unchanged;
+ * bodies larger than {@code max-body-bytes} are only limited per client.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String LOGIN_PATH = "/auth/login";
+    private static final byte[] REJECTED_BODY = "{\"error\":\"Too many requests\"}".getBytes(StandardCharsets.UTF_8);
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final RequestRateLimiter rateLimiter;
+    private final int maxBodyBytes;
+
+    public RateLimitFilter(RequestRateLimiter rateLimiter, int maxBodyBytes) {
+        this.rateLimiter = rateLimiter;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !rateLimiter.isEnabled() || !request.getRequestURI().startsWith("/auth/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long wait = rateLimiter.acquireForClient(request.getRemoteAddr());
+        if (wait > 0) {
+            reject(response, wait);
+            return;
+        }
+
+        if (!"POST".equals(request.getMethod()) || !LOGIN_PATH.equals(request.getRequestURI())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        byte[] head = request.getInputStream().readNBytes(maxBodyBytes + 1);
+        var replayed = new ReplayedBodyRequest(request, head);
+        if (head.length <= maxBodyBytes) {
+            String username = username(head);
+            if (username != null && !username.isEmpty()) {
+                wait = rateLimiter.acquireForUsername(username, request.getRemoteAddr());
+                if (wait > 0) {
+                    reject(response, wait);
+                    return;
+                }
+            }
+        }
+        chain.doFilter(replayed, response);
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(REJECTED_BODY.length);
+        response.getOutputStream().write(REJECTED_BODY);
+    }
+
+    /**
+     * Returns the top-level {@code username} string trimmed as the controller does, or {@code null} if the body is
+     * not a JSON object with one.
+     */
+    private static String username(byte[] body) {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("username".equals(field) && value == JsonToken.VALUE_STRING) {
+                    return parser.getText().trim();
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static final class ReplayedBodyRequest extends HttpServletRequestWrapper {
+
+        private final InputStream body;
+
+        ReplayedBodyRequest(HttpServletRequest request, byte[] head) throws IOException {
+            super(request);
+            this.body = new SequenceInputStream(new ByteArrayInputStream(head), request.getInputStream());
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return new ServletInputStream() {
+                private boolean finished;
+
+                @Override
+                public int read() throws IOException {
+                    int value = body.read();
+                    finished = value < 0;
+                    return value;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int count = body.read(buffer, offset, length);
+                    finished = count < 0;
+                    return count;
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return finished;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException("Replayed request bodies are read synchronously");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(body, charset()));
+        }
+
+        private Charset charset() {
+            String encoding = getCharacterEncoding();
+            return encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+        }
+    }
+}
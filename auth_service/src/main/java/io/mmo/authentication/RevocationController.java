@@ -0,0 +1,202 @@
+package io.mmo.authentication;
+
+import io.mmo.authentication.business.RevocationFeed;
+import io.mmo.authentication.business.RevocationProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Serves the revoked sessions to token validators inside the cluster: {@code GET /internal/revocations} returns the
+ * current {@link io.mmo.authentication.business.RevocationSnapshot} with the ETag {@code "epoch:version"}, and
+ * {@code GET /internal/revocations/stream?since=epoch:version} streams the changes after it as server-sent events.
+ * A {@code revoked} event carries the comma-separated session ids of one version; a {@code reset} event tells the
+ * validator to reload the snapshot, and deltas up to the version in its id are already contained in that snapshot.
+ * Every event id is the position to resume from, so reconnecting with {@code Last-Event-ID} continues the stream.
+ * <p>
+ * Writes to a stream are blocking, so each stream sends its events on a virtual thread of its own, and the revocation
+ * poll and the heartbeat schedule only hand events over. A stream that falls {@value #MAX_PENDING_EVENTS} events
+ * behind is closed, and its validator resumes from its last event.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/internal/revocations")
+public class RevocationController implements RevocationFeed.Listener {
+
+    static final int MAX_PENDING_EVENTS = 1024;
+
+    private final RevocationFeed feed;
+    private final long streamTimeoutMillis;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    public RevocationController(RevocationFeed feed, RevocationProperties properties) {
+        this.feed = feed;
+        this.streamTimeoutMillis = properties.getStreamTimeout().toMillis();
+        feed.subscribe(this);
+    }
+
+    @GetMapping
+    public ResponseEntity<byte[]> snapshot(WebRequest request) {
+        var snapshot = feed.snapshot();
+        String etag = '"' + position(snapshot.epoch(), snapshot.version()) + '"';
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                             .cacheControl(CacheControl.noCache())
+                             .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                             .body(snapshot.bytes());
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) String since,
+                             @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        var subscriber = new Subscriber(new SseEmitter(streamTimeoutMillis));
+        subscriber.emitter.onCompletion(subscriber::close);
+        subscriber.emitter.onError(error -> subscriber.close());
+        subscriber.emitter.onTimeout(subscriber.emitter::complete);
+        subscribers.add(subscriber);
+
+        // Subscribed first, so nothing is lost between the catch-up and the first live delta.
+        String resumeFrom = lastEventId != null ? lastEventId : since;
+        long[] position = parsePosition(resumeFrom);
+        var catchup = position == null
+                ? feed.deltaSince(-1, -1)
+                : feed.deltaSince(position[0], position[1]);
+        subscriber.start(catchup);
+        return subscriber.emitter;
+    }
+
+    @Override
+    public void revoked(RevocationFeed.Delta delta) {
+        subscribers.forEach(subscriber -> subscriber.execute(() -> subscriber.send(delta)));
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revocation.heartbeat-interval:15s}")
+    public void heartbeat() {
+        subscribers.forEach(subscriber -> subscriber.execute(subscriber::heartbeat));
+    }
+
+    private static String position(long epoch, long version) {
+        return epoch + ":" + version;
+    }
+
+    private static long[] parsePosition(String position) {
+        if (position == null) {
+            return null;
+        }
+        int separator = position.indexOf(':');
+        try {
+            return new long[]{Long.parseLong(position, 0, separator, 10),
+                              Long.parseLong(position, separator + 1, position.length(), 10)};
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    /**
+     * One open stream and the thread that writes to it. Deltas that arrive before the catch-up is sent are held back
+     * and sent after it, skipping by version those the catch-up already contains.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final ThreadPoolExecutor sender;
+        private final List<RevocationFeed.Delta> early = new ArrayList<>();
+        private long version = -1;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+            this.sender = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+                                                 new ArrayBlockingQueue<>(MAX_PENDING_EVENTS),
+                                                 Thread.ofVirtual().name("revocation-stream").factory());
+            this.sender.allowCoreThreadTimeOut(true);
+        }
+
+        void execute(Runnable event) {
+            try {
+                sender.execute(event);
+            } catch (RejectedExecutionException e) {
+                if (!sender.isShutdown()) {
+                    log.debug("Revocation stream fell {} events behind, closing it", MAX_PENDING_EVENTS);
+                    close();
+                    emitter.completeWithError(e);
+                }
+            }
+        }
+
+        void close() {
+            subscribers.remove(this);
+            sender.shutdownNow();
+        }
+
+        synchronized void start(RevocationFeed.Catchup catchup) {
+            if (catchup.reset()) {
+                emit(SseEmitter.event()
+                               .name("reset")
+                               .id(position(feed.epoch(), catchup.version()))
+                               .data(""));
+            } else {
+                catchup.deltas().forEach(this::emit);
+            }
+            version = catchup.version();
+            early.forEach(this::send);
+            early.clear();
+        }
+
+        synchronized void send(RevocationFeed.Delta delta) {
+            if (version < 0) {
+                early.add(delta);
+            } else if (delta.version() > version) {
+                emit(delta);
+                version = delta.version();
+            }
+        }
+
+        synchronized void heartbeat() {
+            if (version >= 0) {
+                emit(SseEmitter.event().comment("heartbeat"));
+            }
+        }
+
+        private void emit(RevocationFeed.Delta delta) {
+            emit(SseEmitter.event()
+                           .name("revoked")
+                           .id(position(feed.epoch(), delta.version()))
+                           .data(Arrays.stream(delta.sessionIds())
+                                       .mapToObj(Long::toString)
+                                       .collect(Collectors.joining(","))));
+        }
+
+        private void emit(SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Revocation stream closed: {}", e.getMessage());
+                close();
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
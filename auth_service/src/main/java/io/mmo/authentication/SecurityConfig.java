@@ -1,26 +1,62 @@
 package io.mmo.authentication;
 
+import io.mmo.authentication.business.AdaptiveConcurrencyLimiter;
+import io.mmo.authentication.business.PasswordHashPolicy;
+import io.mmo.authentication.business.RateLimitProperties;
+import io.mmo.authentication.business.RequestRateLimiter;
+import io.mmo.authentication.business.WaitingRoom;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCrypt;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.context.SecurityContextHolderFilter;
 
 @Configuration
 public class SecurityConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(PasswordHashPolicy policy) {
+        return new BCryptPasswordEncoder(policy.getCost());
     }
 
+    /**
+     * The operator who may read endpoints like {@code /actuator/passwordhashes}. The password is a configured secret
+     * rather than one a user picked, so it is hashed at the lowest cost; BCrypt checks a hash at the cost stored in
+     * it, not at the one new user hashes get.
+     */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public UserDetailsService operators(OperatorProperties properties) {
+        if (properties.getPassword().isEmpty()) {
+            return new InMemoryUserDetailsManager();
+        }
+        return new InMemoryUserDetailsManager(User.withUsername(properties.getUsername())
+                                                  .password(BCrypt.hashpw(properties.getPassword(), BCrypt.gensalt(4)))
+                                                  .roles("OPERATOR")
+                                                  .build());
+    }
+
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   RequestRateLimiter rateLimiter,
+                                                   RateLimitProperties rateLimitProperties,
+                                                   AdaptiveConcurrencyLimiter concurrencyLimiter,
+                                                   WaitingRoom waitingRoom) throws Exception {
         return http.csrf(AbstractHttpConfigurer::disable)
+                   .addFilterBefore(new RateLimitFilter(rateLimiter, rateLimitProperties.getMaxBodyBytes()),
+                                    SecurityContextHolderFilter.class)
+                   .addFilterAfter(new ConcurrencyLimitFilter(concurrencyLimiter, waitingRoom), RateLimitFilter.class)
+                   .httpBasic(Customizer.withDefaults())
                    .sessionManagement(session -> session
                            .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                    )
@@ -32,6 +68,11 @@ public class SecurityConfig {
                    )
                    .authorizeHttpRequests(auth -> auth
                            .requestMatchers("/auth/*").permitAll()
+                           .requestMatchers(HttpMethod.GET, "/auth/login/queue/*").permitAll()
+                           .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
+                           .requestMatchers("/actuator/passwordhashes").hasRole("OPERATOR")
+                           .requestMatchers("/internal/revocations", "/internal/revocations/stream").permitAll()
+                           .requestMatchers(HttpMethod.POST, "/internal/shards/*/heartbeat").permitAll()
                            .anyRequest().authenticated()
                    ).build();
     }
@@ -0,0 +1,77 @@
+package io.mmo.authentication;
+
+import io.mmo.authentication.business.ShardProperties;
+import io.mmo.authentication.business.ShardRegistry;
+import io.mmo.authentication.business.exceptions.InvalidInputException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+
+/**
+ * Heartbeats of the game servers inside the cluster: {@code POST /internal/shards/{id}/heartbeat} with the players
+ * connected and the most the server takes, e.g. {@code {"load":120,"capacity":500}}. The shard id ends up in signed
+ * access tokens, so a heartbeat has to carry {@code Authorization: Bearer <heartbeat-secret>}; without a configured
+ * secret every heartbeat is refused.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/internal/shards")
+public class ShardController {
+
+    private static final String BEARER = "Bearer ";
+
+    private final ShardRegistry shardRegistry;
+    private final byte[] secret;
+
+    public ShardController(ShardRegistry shardRegistry, ShardProperties properties) {
+        this.shardRegistry = shardRegistry;
+        this.secret = properties.getHeartbeatSecret().getBytes(StandardCharsets.UTF_8);
+        if (properties.isEnabled() && secret.length == 0) {
+            log.warn("auth.shards.heartbeat-secret is not set, game server heartbeats are refused");
+        }
+    }
+
+    public record Heartbeat(int load, int capacity) {
+    }
+
+    @PostMapping("/{id}/heartbeat")
+    public ResponseEntity<?> heartbeat(@PathVariable String id,
+                                       @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                       @RequestBody Heartbeat heartbeat) {
+        if (!authorized(authorization)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                 .body(Map.of("error", "Invalid heartbeat secret"));
+        }
+        if (heartbeat.load() < 0 || heartbeat.capacity() <= 0) {
+            throw new InvalidInputException("Load must not be negative and capacity must be positive");
+        }
+        shardRegistry.heartbeat(id, heartbeat.load(), heartbeat.capacity());
+        return ResponseEntity.noContent().build();
+    }
+
+    @ExceptionHandler(InvalidInputException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidInput(InvalidInputException ex) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                             .body(Map.of("error", ex.getMessage()));
+    }
+
+    private boolean authorized(String authorization) {
+        if (secret.length == 0 || authorization == null || !authorization.startsWith(BEARER)) {
+            return false;
+        }
+        byte[] presented = authorization.substring(BEARER.length()).getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(presented, secret);
+    }
+}
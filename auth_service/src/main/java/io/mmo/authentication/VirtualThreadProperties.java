@@ -0,0 +1,14 @@
+package io.mmo.authentication;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "auth.virtual-threads")
+public class VirtualThreadProperties {
+    private Duration pinningThreshold = Duration.ofMillis(20);
+}
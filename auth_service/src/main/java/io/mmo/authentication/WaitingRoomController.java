@@ -0,0 +1,76 @@
+package io.mmo.authentication;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.mmo.authentication.AuthController.ErrorBody;
+import io.mmo.authentication.business.WaitingRoom;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Status of a waiting-room ticket issued by the {@link ConcurrencyLimitFilter}:
+ * {@code GET /auth/login/queue/{ticket}} answers {@code {"status":"waiting","position":..,"estimatedWaitSeconds":..}}
+ * or {@code {"status":"admitted"}}, and {@code 404 Not Found} for tickets that were used, abandoned or never issued.
+ * With {@code ?wait=seconds} a waiting ticket is answered when it is admitted or the wait is over, whichever comes
+ * first, so a player needs only a few requests for the whole wait. Bodies are the records below.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping(WaitingRoomController.QUEUE_PATH)
+public class WaitingRoomController {
+
+    static final String QUEUE_PATH = "/auth/login/queue";
+
+    private static final ResponseEntity<TicketStatus> ADMITTED =
+            ResponseEntity.ok(new TicketStatus("admitted", null, null));
+    private static final ResponseEntity<ErrorBody> UNKNOWN_TICKET =
+            ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorBody("Unknown or expired queue ticket"));
+
+    /**
+     * The {@code 202 Accepted} body of a login that was queued. {@link ConcurrencyLimitFilter} writes it before any
+     * message converter is reached, so it writes itself; tickets are URL-safe base64 and need no escaping.
+     */
+    public record QueuedTicket(String ticket, long position, long estimatedWaitSeconds) {
+
+        byte[] toJson() {
+            return ("{\"ticket\":\"" + ticket
+                    + "\",\"position\":" + position
+                    + ",\"estimatedWaitSeconds\":" + estimatedWaitSeconds + "}").getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * {@code position} and {@code estimatedWaitSeconds} are only set while the ticket is waiting.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record TicketStatus(String status, Long position, Long estimatedWaitSeconds) {
+    }
+
+    private final WaitingRoom waitingRoom;
+
+    @GetMapping("/{ticket}")
+    public CompletableFuture<ResponseEntity<?>> status(@PathVariable String ticket,
+                                                       @RequestParam(defaultValue = "0") long wait) {
+        return waitingRoom.awaitAdmission(ticket, Duration.ofSeconds(Math.max(0, wait)))
+                          .thenApply(WaitingRoomController::statusBody);
+    }
+
+    private static ResponseEntity<?> statusBody(WaitingRoom.Status status) {
+        return switch (status.state()) {
+            case WAITING -> ResponseEntity.ok(new TicketStatus("waiting",
+                                                               status.position(),
+                                                               status.estimatedWaitSeconds()));
+            case ADMITTED -> ADMITTED;
+            case UNKNOWN -> UNKNOWN_TICKET;
+        };
+    }
+}
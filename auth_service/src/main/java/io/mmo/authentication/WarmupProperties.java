@@ -0,0 +1,16 @@
+package io.mmo.authentication;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "auth.warmup")
+public class WarmupProperties {
+    private boolean enabled = true;
+    private Duration budget = Duration.ofSeconds(10);
+    private int rounds = 2000;
+}
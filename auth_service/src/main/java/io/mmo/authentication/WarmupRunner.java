@@ -0,0 +1,100 @@
+package io.mmo.authentication;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.mmo.authentication.business.ImportProperties;
+import io.mmo.authentication.business.JwtService;
+import io.mmo.authentication.database.UserCredentialsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exercises the login path before the pod takes traffic: opens every pooled database connection, runs the
+ * credential lookup, and repeats token signing, JSON binding of the auth payloads and BCrypt verification until
+ * the JIT has compiled them or {@code auth.warmup.budget} is spent. Application runners finish before Spring Boot
+ * reports the readiness state as accepting traffic, so {@code /actuator/health/readiness} stays down until the
+ * warmup is done. BCrypt is warmed at a cheap cost; the work per round is the same code, only fewer rounds.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final String PASSWORD = "warmup-password";
+    private static final byte[] LOGIN_BODY = ("{\"username\":\"warmup-player\",\"password\":\"" + PASSWORD + "\"}")
+            .getBytes(StandardCharsets.UTF_8);
+    private static final int WARMUP_COST = 4;
+
+    private final WarmupProperties properties;
+    private final ImportProperties importProperties;
+    private final JwtService jwtService;
+    private final PasswordEncoder passwordEncoder;
+    private final AuthJsonCodec jsonCodec;
+    private final DataSource dataSource;
+    private final UserCredentialsRepository userCredentialsRepository;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!properties.isEnabled() || importProperties.getFile() != null) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + properties.getBudget().toNanos();
+        int connections = openConnections();
+        userCredentialsRepository.findPasswordHashByUsername("warmup-player");
+        passwordEncoder.matches(PASSWORD, passwordEncoder.encode(PASSWORD));
+
+        var cheapEncoder = new BCryptPasswordEncoder(WARMUP_COST);
+        String cheapHash = cheapEncoder.encode(PASSWORD);
+        int rounds = 0;
+        while (rounds < properties.getRounds() && System.nanoTime() < deadline) {
+            var credentials = (AuthController.Credentials) jsonCodec.decode(AuthController.Credentials.class,
+                                                                            new ByteArrayInputStream(LOGIN_BODY));
+            cheapEncoder.matches(credentials.password(), cheapHash);
+            String token = jwtService.generateToken(credentials.username(), 0, null);
+            jsonCodec.encode(new AuthController.Tokens(token, token), OutputStream.nullOutputStream());
+            rounds++;
+        }
+
+        log.info("Warmed up in {} ms: {} database connections opened, {} rounds of signing, binding and hashing",
+                 TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), connections, rounds);
+    }
+
+    /**
+     * Borrows as many connections as the pool may hold at the same time, so the pool opens all of them now rather
+     * than on the first requests.
+     */
+    private int openConnections() throws SQLException {
+        int poolSize = dataSource.isWrapperFor(HikariDataSource.class)
+                ? dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize()
+                : 1;
+        List<Connection> borrowed = new ArrayList<>(poolSize);
+        try {
+            for (int i = 0; i < poolSize; i++) {
+                Connection connection = dataSource.getConnection();
+                borrowed.add(connection);
+                connection.isValid(1);
+            }
+        } finally {
+            for (Connection connection : borrowed) {
+                connection.close();
+            }
+        }
+        return borrowed.size();
+    }
+}
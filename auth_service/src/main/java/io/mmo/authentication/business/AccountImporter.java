@@ -0,0 +1,198 @@
+package io.mmo.authentication.business;
+
+import io.mmo.authentication.JsonCodecProperties;
+import io.mmo.authentication.database.UserCredentials;
+import io.mmo.authentication.database.UserCredentialsBulkLoader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Imports accounts from a CSV or NDJSON export in fixed-size chunks, so memory stays constant however large the
+ * file is. Plaintext passwords are hashed in parallel on a dedicated pool, pre-hashed BCrypt values are taken as
+ * they are, and each chunk is loaded in one transaction.
+ * <p>
+ * After every chunk the line number of its last record is written to a checkpoint file; a rerun with the same
+ * file skips everything up to it. Duplicate usernames and invalid lines are written to a CSV report, as are
+ * usernames longer than the column and passwords longer than BCrypt takes, which the API would reject too. If a run
+ * stops between committing a chunk and writing its checkpoint, the rerun reports that chunk's users as
+ * duplicates, since they are already in the table.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccountImporter {
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+
+    private final ImportProperties properties;
+    private final JsonCodecProperties limits;
+    private final PasswordEncoder passwordEncoder;
+    private final UserCredentialsBulkLoader bulkLoader;
+
+    private record Counts(long inserted, long duplicates, long invalid) {
+    }
+
+    public ImportReport importFile(Path file) throws IOException {
+        Path checkpointFile = properties.getCheckpointFile() != null
+                ? properties.getCheckpointFile() : file.resolveSibling(file.getFileName() + ".checkpoint");
+        Path reportFile = properties.getReportFile() != null
+                ? properties.getReportFile() : file.resolveSibling(file.getFileName() + ".rejected.csv");
+        long resumeAfter = readCheckpoint(checkpointFile);
+        if (resumeAfter > 0) {
+            log.info("Resuming import of {} after line {}", file, resumeAfter);
+        }
+
+        long start = System.nanoTime();
+        long read = 0;
+        long resumed = 0;
+        long inserted = 0;
+        long duplicates = 0;
+        long invalid = 0;
+        ForkJoinPool hashPool = new ForkJoinPool(properties.getHashThreads());
+        try (var reader = new ImportRecordReader(file, properties.getFormat());
+             var report = openReport(reportFile, resumeAfter > 0)) {
+            List<ImportRecord> chunk = new ArrayList<>(properties.getChunkSize());
+            ImportRecord record;
+            while (true) {
+                record = reader.next();
+                if (record != null) {
+                    read++;
+                    if (record.line() <= resumeAfter) {
+                        resumed++;
+                        continue;
+                    }
+                    chunk.add(record);
+                }
+                if (chunk.size() == properties.getChunkSize() || (record == null && !chunk.isEmpty())) {
+                    Counts counts = loadChunk(chunk, hashPool, report);
+                    writeCheckpoint(checkpointFile, chunk.getLast().line());
+                    inserted += counts.inserted();
+                    duplicates += counts.duplicates();
+                    invalid += counts.invalid();
+                    chunk.clear();
+                    log.info("Imported {} accounts ({} duplicates, {} invalid) after {} records",
+                             inserted, duplicates, invalid, read);
+                }
+                if (record == null) {
+                    break;
+                }
+            }
+        } finally {
+            hashPool.shutdownNow();
+        }
+
+        Files.deleteIfExists(checkpointFile);
+        return new ImportReport(read, inserted, duplicates, invalid, resumed, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private Counts loadChunk(List<ImportRecord> chunk, ForkJoinPool hashPool, BufferedWriter report) throws IOException {
+        String[] hashes = new String[chunk.size()];
+        String[] errors = new String[chunk.size()];
+        int maxUsernameLength = Math.min(limits.getMaxUsernameLength(), UserCredentials.USERNAME_LENGTH);
+        int maxPasswordBytes = limits.getMaxPasswordBytes();
+        hashPool.submit(() -> IntStream.range(0, chunk.size()).parallel().forEach(i -> {
+            ImportRecord record = chunk.get(i);
+            if (!record.valid()) {
+                errors[i] = record.error();
+            } else if (record.username().length() > maxUsernameLength) {
+                errors[i] = "username longer than " + maxUsernameLength + " characters";
+            } else if (record.password() != null
+                    && record.password().getBytes(StandardCharsets.UTF_8).length > maxPasswordBytes) {
+                errors[i] = "password longer than " + maxPasswordBytes + " bytes";
+            } else if (record.password() != null) {
+                hashes[i] = passwordEncoder.encode(record.password());
+            } else if (BCRYPT_HASH.matcher(record.passwordHash()).matches()) {
+                hashes[i] = record.passwordHash();
+            } else {
+                errors[i] = "not a BCrypt hash";
+            }
+        })).join();
+
+        List<UserCredentials> users = new ArrayList<>(chunk.size());
+        List<ImportRecord> loaded = new ArrayList<>(chunk.size());
+        long invalid = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            if (errors[i] != null) {
+                writeReportLine(report, chunk.get(i), errors[i]);
+                invalid++;
+            } else {
+                users.add(UserCredentials.builder()
+                                         .username(chunk.get(i).username())
+                                         .passwordHash(hashes[i])
+                                         .build());
+                loaded.add(chunk.get(i));
+            }
+        }
+
+        boolean[] inserted = users.isEmpty() ? new boolean[0] : bulkLoader.loadAllIfAbsent(users);
+        long insertedCount = 0;
+        for (int i = 0; i < inserted.length; i++) {
+            if (inserted[i]) {
+                insertedCount++;
+            } else {
+                writeReportLine(report, loaded.get(i), "duplicate username");
+            }
+        }
+        report.flush();
+        return new Counts(insertedCount, inserted.length - insertedCount, invalid);
+    }
+
+    private static BufferedWriter openReport(Path reportFile, boolean append) throws IOException {
+        boolean writeHeader = !append || !Files.exists(reportFile);
+        var writer = Files.newBufferedWriter(reportFile,
+                                             StandardCharsets.UTF_8,
+                                             StandardOpenOption.CREATE,
+                                             append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+        if (writeHeader) {
+            writer.write("line,username,reason\n");
+        }
+        return writer;
+    }
+
+    private static void writeReportLine(BufferedWriter report, ImportRecord record, String reason) throws IOException {
+        report.write(Long.toString(record.line()));
+        report.write(',');
+        report.write(csvField(record.username() != null ? record.username() : ""));
+        report.write(',');
+        report.write(csvField(reason));
+        report.write('\n');
+    }
+
+    private static String csvField(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static long readCheckpoint(Path checkpointFile) throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return 0;
+        }
+        return Long.parseLong(Files.readString(checkpointFile, StandardCharsets.UTF_8).strip());
+    }
+
+    private static void writeCheckpoint(Path checkpointFile, long line) {
+        try {
+            Path temporary = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+            Files.writeString(temporary, Long.toString(line), StandardCharsets.UTF_8);
+            Files.move(temporary, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write import checkpoint " + checkpointFile, e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package io.mmo.authentication.business;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the number of auth requests in flight at a limit that follows measured latency, in the style of a gradient
+ * limiter. A long-term average of response times stands in for the no-load latency and a short-term average for
+ * the current one; while the current latency stays within {@code rtt-tolerance} of the long-term one the limit
+ * grows by roughly its square root per sample, and as queueing pushes the current latency up the limit shrinks in
+ * proportion. Requests that downstream rejected as overloaded back the limit off multiplicatively. The limit only
+ * grows while at least half of it is in use, so an idle service does not drift up to {@code max-limit}.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private final boolean enabled;
+    private final ConcurrencyLimitProperties properties;
+    private final Ticker ticker;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter accepted;
+    private final Counter rejected;
+    private volatile double limit;
+    private double longRttNanos;
+    private double shortRttNanos;
+
+    @Autowired
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Ticker.systemTicker());
+    }
+
+    AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry, Ticker ticker) {
+        this.enabled = properties.isEnabled();
+        this.properties = properties;
+        this.ticker = ticker;
+        this.limit = properties.getInitialLimit();
+        this.accepted = Counter.builder("auth.concurrency-limit.requests")
+                               .tag("result", "accepted")
+                               .register(meterRegistry);
+        this.rejected = Counter.builder("auth.concurrency-limit.requests")
+                               .tag("result", "rejected")
+                               .register(meterRegistry);
+        Gauge.builder("auth.concurrency-limit.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+             .register(meterRegistry);
+        Gauge.builder("auth.concurrency-limit.in-flight", inFlight, AtomicInteger::get)
+             .register(meterRegistry);
+    }
+
+    /**
+     * Admits a request if fewer than the current limit are in flight. Returns {@code null} if it must be rejected;
+     * otherwise the caller has to complete the returned permit exactly once.
+     */
+    public Permit tryAcquire() {
+        if (!enabled) {
+            return new Permit(0, 0);
+        }
+
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.increment();
+                return new Permit(ticker.read(), current + 1);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public long getRetryAfterSeconds() {
+        return properties.getRetryAfterSeconds();
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        double rtt = Math.max(1, rttNanos);
+        if (longRttNanos == 0) {
+            longRttNanos = rtt;
+            shortRttNanos = rtt;
+        } else {
+            longRttNanos += (rtt - longRttNanos) / properties.getLongWindow();
+            shortRttNanos += (rtt - shortRttNanos) / properties.getShortWindow();
+        }
+
+        // after an overload the long-term average is inflated; let it recover towards the current latency
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        if (inFlightAtStart < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, properties.getRttTolerance() * longRttNanos / shortRttNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        setLimit(limit * (1 - properties.getSmoothing()) + target * properties.getSmoothing());
+    }
+
+    private synchronized void onDropped() {
+        setLimit(limit * properties.getBackoffRatio());
+    }
+
+    private void setLimit(double newLimit) {
+        limit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), newLimit));
+    }
+
+    /**
+     * One admitted request. {@link #release()} reports its latency; {@link #drop()} reports that it was shed
+     * further down, for example by a full hashing queue.
+     */
+    public final class Permit {
+
+        private final long startNanos;
+        private final int inFlightAtStart;
+
+        private Permit(long startNanos, int inFlightAtStart) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        public void release() {
+            if (enabled) {
+                inFlight.decrementAndGet();
+                onSample(ticker.read() - startNanos, inFlightAtStart);
+            }
+        }
+
+        public void drop() {
+            if (enabled) {
+                inFlight.decrementAndGet();
+                onDropped();
+            }
+        }
+    }
+}
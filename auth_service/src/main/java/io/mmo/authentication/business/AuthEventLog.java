@@ -0,0 +1,158 @@
+package io.mmo.authentication.business;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.mmo.authentication.database.AuthEvent;
+import io.mmo.authentication.database.AuthEventSegmentWriter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Record of login successes, login failures and registrations for abuse analytics, enabled by setting
+ * {@code auth.event-log.directory}. Request threads only put the event into an {@link AuthEventRing}; a single
+ * writer thread appends the events to memory-mapped segment files, see {@link AuthEventSegmentWriter}. Loss is
+ * bounded: when the writer falls more than {@code buffer-capacity} events behind, new events are dropped and the log
+ * gets an {@code EVENTS_DROPPED} entry with their number instead; a crash of the process loses at most the buffered
+ * events, and a crash of the host additionally what was written since the last {@code force-interval}.
+ */
+@Slf4j
+@Component
+public class AuthEventLog {
+
+    private static final int DRAIN_BATCH = 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FAILURE_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final boolean enabled;
+    private final AuthEventRing ring;
+    private final AuthEventSegmentWriter segmentWriter;
+    private final long forceIntervalNanos;
+    private final AtomicLong written = new AtomicLong();
+    private final Thread writer;
+    private long reportedDrops;
+    private long lastForce = System.nanoTime();
+    private boolean unforced;
+    private volatile boolean running = true;
+
+    @Autowired
+    public AuthEventLog(AuthEventLogProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, true);
+    }
+
+    AuthEventLog(AuthEventLogProperties properties, MeterRegistry meterRegistry, boolean startWriter) {
+        this.enabled = properties.getDirectory() != null;
+        this.ring = new AuthEventRing(enabled ? properties.getBufferCapacity() : 2);
+        this.forceIntervalNanos = properties.getForceInterval().toNanos();
+        try {
+            this.segmentWriter = enabled
+                    ? new AuthEventSegmentWriter(properties.getDirectory(),
+                                                 (int) Math.min(Integer.MAX_VALUE, properties.getSegmentSize().toBytes()),
+                                                 properties.getRetainedSegments())
+                    : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the auth event log in " + properties.getDirectory(), e);
+        }
+
+        FunctionCounter.builder("auth.event-log.events", written, AtomicLong::get)
+                       .tag("result", "written")
+                       .register(meterRegistry);
+        FunctionCounter.builder("auth.event-log.events", ring, AuthEventRing::dropped)
+                       .tag("result", "dropped")
+                       .register(meterRegistry);
+        Gauge.builder("auth.event-log.backlog", ring, AuthEventRing::size)
+             .register(meterRegistry);
+
+        this.writer = enabled && startWriter
+                ? Thread.ofPlatform().name("auth-event-writer").daemon(true).start(this::run)
+                : null;
+    }
+
+    /**
+     * Queues an event for the log without blocking; returns false if it was dropped because the buffer is full or
+     * the log is disabled.
+     */
+    public boolean publish(AuthEvent.Type type, String username) {
+        return enabled && running && ring.offer(AuthEvent.of(type, username));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else if (enabled) {
+            writePending();
+        }
+        if (segmentWriter != null) {
+            try {
+                segmentWriter.close();
+            } catch (IOException e) {
+                log.warn("Closing the auth event log failed", e);
+            }
+        }
+    }
+
+    /**
+     * Appends the buffered events, followed by an {@code EVENTS_DROPPED} entry if events were dropped since the last
+     * call, and forces the segment to disk once {@code force-interval} has passed. Returns the number of events
+     * appended. Called only from the writer thread, or from tests that run without one.
+     */
+    int writePending() {
+        try {
+            int drained = ring.drain(this::append, DRAIN_BATCH);
+            long dropped = ring.dropped();
+            if (dropped > reportedDrops) {
+                int count = (int) Math.min(Integer.MAX_VALUE, dropped - reportedDrops);
+                segmentWriter.append(new AuthEvent(AuthEvent.Type.EVENTS_DROPPED, System.currentTimeMillis(), null, count));
+                reportedDrops += count;
+                unforced = true;
+            }
+            long now = System.nanoTime();
+            if (unforced && now - lastForce >= forceIntervalNanos) {
+                segmentWriter.force();
+                lastForce = now;
+                unforced = false;
+            }
+            return drained;
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Writing the auth event log failed, events are lost until the next segment can be opened", e);
+            LockSupport.parkNanos(FAILURE_BACKOFF_NANOS);
+            return 0;
+        }
+    }
+
+    private void run() {
+        while (running) {
+            if (writePending() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        while (writePending() > 0) {
+            // Drain what was published before the shutdown.
+        }
+    }
+
+    private void append(AuthEvent event) {
+        try {
+            segmentWriter.append(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        written.incrementAndGet();
+        unforced = true;
+    }
+}
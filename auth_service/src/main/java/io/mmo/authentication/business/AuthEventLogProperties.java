@@ -0,0 +1,20 @@
+package io.mmo.authentication.business;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "auth.event-log")
+public class AuthEventLogProperties {
+    private Path directory;
+    private int bufferCapacity = 65_536;
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+    private int retainedSegments = 32;
+    private Duration forceInterval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,88 @@
+package io.mmo.authentication.business;
+
+import io.mmo.authentication.database.AuthEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue of auth events with any number of producers and a single consumer, after Dmitry Vyukov's
+ * bounded MPMC queue. Every slot carries a sequence number that tells producers whether the slot is free for their
+ * position and the consumer whether it has been filled. Producers claim a position with one CAS and never wait:
+ * when the queue is full the event is dropped and counted.
+ */
+final class AuthEventRing {
+
+    private final int mask;
+    private final AuthEvent[] events;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private long head;
+
+    AuthEventRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.events = new AuthEvent[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    boolean offer(AuthEvent event) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long available = sequences.getAcquire(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    events[index] = event;
+                    sequences.setRelease(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (available < 0) {
+                dropped.increment();
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Hands up to {@code limit} events to {@code consumer} in the order their positions were claimed. Only one
+     * thread may drain.
+     */
+    int drain(Consumer<AuthEvent> consumer, int limit) {
+        int drained = 0;
+        while (drained < limit) {
+            int index = (int) (head & mask);
+            if (sequences.getAcquire(index) != head + 1) {
+                break;
+            }
+            var event = events[index];
+            events[index] = null;
+            sequences.setRelease(index, head + events.length);
+            head++;
+            drained++;
+            consumer.accept(event);
+        }
+        return drained;
+    }
+
+    int capacity() {
+        return events.length;
+    }
+
+    long size() {
+        return Math.max(0, tail.get() - head);
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,140 @@
+package io.mmo.authentication.business;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.mmo.authentication.business.exceptions.InvalidCredentialsException;
+import io.mmo.authentication.business.exceptions.InvalidInputException;
+import io.mmo.authentication.business.exceptions.InvalidTokenException;
+import io.mmo.authentication.business.exceptions.ServiceOverloadedException;
+import io.mmo.authentication.business.exceptions.UserAlreadyExistsException;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Per-phase latency timers and per-outcome counters for the auth operations. All meters are registered up front
+ * and looked up through enum maps, so recording on the hot path costs no registry lookup or tag allocation.
+ */
+@Component
+public class AuthMetrics {
+
+    public enum Phase {
+        LOOKUP,
+        VERIFY,
+        HASH,
+        INSERT,
+        SIGN,
+        REFRESH_TOKEN
+    }
+
+    public enum Operation {
+        LOGIN(Phase.LOOKUP, Phase.VERIFY, Phase.SIGN, Phase.REFRESH_TOKEN),
+        REGISTER(Phase.HASH, Phase.INSERT),
+        REFRESH(Phase.REFRESH_TOKEN, Phase.SIGN);
+
+        private final List<Phase> phases;
+
+        Operation(Phase... phases) {
+            this.phases = List.of(phases);
+        }
+    }
+
+    public enum Outcome {
+        SUCCESS,
+        INVALID_CREDENTIALS,
+        USER_EXISTS,
+        INVALID_INPUT,
+        INVALID_TOKEN,
+        OVERLOADED,
+        INTERNAL_ERROR
+    }
+
+    private final Map<Operation, Map<Phase, Timer>> phaseTimers = new EnumMap<>(Operation.class);
+    private final Map<Operation, Map<Outcome, Counter>> outcomeCounters = new EnumMap<>(Operation.class);
+
+    public AuthMetrics(MeterRegistry meterRegistry) {
+        for (Operation operation : Operation.values()) {
+            String operationTag = tag(operation);
+            Map<Phase, Timer> timers = new EnumMap<>(Phase.class);
+            for (Phase phase : operation.phases) {
+                timers.put(phase, Timer.builder("auth.phase")
+                                       .tag("operation", operationTag)
+                                       .tag("phase", tag(phase))
+                                       .publishPercentileHistogram()
+                                       .register(meterRegistry));
+            }
+            phaseTimers.put(operation, timers);
+
+            Map<Outcome, Counter> counters = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                counters.put(outcome, Counter.builder("auth.requests")
+                                             .tag("operation", operationTag)
+                                             .tag("outcome", tag(outcome))
+                                             .register(meterRegistry));
+            }
+            outcomeCounters.put(operation, counters);
+        }
+    }
+
+    public <T> T record(Operation operation, Supplier<T> work) {
+        try {
+            T result = work.get();
+            outcomeCounters.get(operation).get(Outcome.SUCCESS).increment();
+            return result;
+        } catch (RuntimeException e) {
+            outcomeCounters.get(operation).get(outcomeOf(e)).increment();
+            throw e;
+        }
+    }
+
+    public void record(Operation operation, Runnable work) {
+        record(operation, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public <T> T time(Operation operation, Phase phase, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            phaseTimers.get(operation).get(phase).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void time(Operation operation, Phase phase, Runnable work) {
+        time(operation, phase, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    private static Outcome outcomeOf(RuntimeException e) {
+        if (e instanceof InvalidCredentialsException) {
+            return Outcome.INVALID_CREDENTIALS;
+        }
+        if (e instanceof UserAlreadyExistsException) {
+            return Outcome.USER_EXISTS;
+        }
+        if (e instanceof InvalidInputException) {
+            return Outcome.INVALID_INPUT;
+        }
+        if (e instanceof InvalidTokenException) {
+            return Outcome.INVALID_TOKEN;
+        }
+        if (e instanceof ServiceOverloadedException) {
+            return Outcome.OVERLOADED;
+        }
+        return Outcome.INTERNAL_ERROR;
+    }
+
+    private static String tag(Enum<?> value) {
+        return value.name().toLowerCase().replace('_', '-');
+    }
+}
@@ -1,10 +1,12 @@
 package io.mmo.authentication.business;
 
+import io.mmo.authentication.business.AuthMetrics.Operation;
+import io.mmo.authentication.business.AuthMetrics.Phase;
+import io.mmo.authentication.business.PasswordHashingExecutor.Lane;
 import io.mmo.authentication.business.exceptions.InvalidCredentialsException;
 import io.mmo.authentication.business.exceptions.InvalidInputException;
 import io.mmo.authentication.business.exceptions.UserAlreadyExistsException;
-import io.mmo.authentication.database.UserCredentials;
-import io.mmo.authentication.database.UserCredentialsRepository;
+import io.mmo.authentication.database.AuthEvent;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -15,34 +17,128 @@ public class AuthService {
 
     private final JwtService jwtService;
     private final PasswordEncoder passwordEncoder;
-    private final UserCredentialsRepository userCredentialsRepository;
+    private final PasswordHashingExecutor hashingExecutor;
+    private final LoginCoalescer loginCoalescer;
+    private final VerifiedCredentialCache credentialCache;
+    private final UsernameFilter usernameFilter;
+    private final PasswordRehasher passwordRehasher;
+    private final CredentialRowCache credentialRowCache;
+    private final RegistrationBatcher registrationBatcher;
+    private final RefreshTokenService refreshTokenService;
+    private final ShardRegistry shardRegistry;
+    private final AuthEventLog eventLog;
+    private final AuthMetrics metrics;
+    private volatile String dummyPasswordHash;
 
-    public String login(String username, String password) {
+    public AuthTokens login(String username, String password) {
+        return metrics.record(Operation.LOGIN, () -> doLogin(username, password));
+    }
+
+    public AuthTokens refresh(String refreshToken) {
+        return metrics.record(Operation.REFRESH, () -> doRefresh(refreshToken));
+    }
+
+    public void revoke(String refreshToken) {
+        if (refreshToken.isBlank()) {
+            throw new InvalidInputException("Refresh token is required");
+        }
+
+        refreshTokenService.revoke(refreshToken);
+    }
+
+    public void register(String username, String password) {
+        metrics.record(Operation.REGISTER, () -> doRegister(username, password));
+    }
+
+    private AuthTokens doLogin(String username, String password) {
         if (username.isBlank() || password.isBlank()) {
             throw new InvalidInputException("Username and password are required");
         }
 
-        userCredentialsRepository.findByUsername(username)
-                                 .filter(user -> passwordEncoder.matches(password, user.getPasswordHash()))
-                                 .orElseThrow(InvalidCredentialsException::new);
+        if (!loginCoalescer.verify(username, password, () -> verifyCredentials(username, password))) {
+            eventLog.publish(AuthEvent.Type.LOGIN_FAILED, username);
+            throw new InvalidCredentialsException();
+        }
 
-        return jwtService.generateToken(username);
+        var session = metrics.time(Operation.LOGIN, Phase.REFRESH_TOKEN, () -> refreshTokenService.issue(username));
+        String shard = shardRegistry.assign(username);
+        String accessToken = metrics.time(Operation.LOGIN, Phase.SIGN, () ->
+                jwtService.generateToken(username, session.sessionId(), shard));
+        eventLog.publish(AuthEvent.Type.LOGIN_SUCCEEDED, username);
+        return new AuthTokens(accessToken, session.refreshToken());
     }
 
-    public void register(String username, String password) {
+    private AuthTokens doRefresh(String refreshToken) {
+        if (refreshToken.isBlank()) {
+            throw new InvalidInputException("Refresh token is required");
+        }
+
+        var rotated = metrics.time(Operation.REFRESH, Phase.REFRESH_TOKEN, () -> refreshTokenService.rotate(refreshToken));
+        String shard = shardRegistry.assign(rotated.username());
+        String accessToken = metrics.time(Operation.REFRESH, Phase.SIGN, () ->
+                jwtService.generateToken(rotated.username(), rotated.sessionId(), shard));
+        return new AuthTokens(accessToken, rotated.refreshToken());
+    }
+
+    private void doRegister(String username, String password) {
         if (username.isBlank() || password.isBlank()) {
             throw new InvalidInputException("Username and password are required");
         }
 
-        if (userCredentialsRepository.existsByUsername(username)) {
+        String passwordHash = metrics.time(Operation.REGISTER, Phase.HASH, () ->
+                hashingExecutor.execute(Lane.REGISTER, () -> passwordEncoder.encode(password)));
+
+        boolean inserted = metrics.time(Operation.REGISTER, Phase.INSERT, () ->
+                registrationBatcher.insertIfAbsent(username, passwordHash));
+        if (!inserted) {
             throw new UserAlreadyExistsException();
         }
+        credentialCache.invalidate(username);
+        credentialRowCache.put(username, passwordHash);
+        usernameFilter.add(username);
+        eventLog.publish(AuthEvent.Type.REGISTERED, username);
+    }
+
+    private boolean verifyCredentials(String username, String password) {
+        if (!usernameFilter.mightContain(username)) {
+            return rejectUnknownUser(password);
+        }
 
-        var user = UserCredentials.builder()
-                                  .username(username)
-                                  .passwordHash(passwordEncoder.encode(password))
-                                  .build();
+        return metrics.time(Operation.LOGIN, Phase.LOOKUP, () -> credentialRowCache.findPasswordHash(username))
+                      .map(passwordHash -> verifyPassword(username, password, passwordHash))
+                      .orElseGet(() -> rejectUnknownUser(password));
+    }
 
-        userCredentialsRepository.save(user);
+    /**
+     * Spends the same password hash check on an unknown username as on a known one, so response times do not tell
+     * which usernames exist.
+     */
+    private boolean rejectUnknownUser(String password) {
+        metrics.time(Operation.LOGIN, Phase.VERIFY, () ->
+                hashingExecutor.execute(Lane.LOGIN, () -> passwordEncoder.matches(password, dummyPasswordHash())));
+        return false;
+    }
+
+    private String dummyPasswordHash() {
+        String hash = dummyPasswordHash;
+        if (hash == null) {
+            hash = passwordEncoder.encode("unknown-user");
+            dummyPasswordHash = hash;
+        }
+        return hash;
+    }
+
+    private boolean verifyPassword(String username, String password, String passwordHash) {
+        if (credentialCache.isVerified(username, password, passwordHash)) {
+            return true;
+        }
+
+        boolean matches = metrics.time(Operation.LOGIN, Phase.VERIFY, () ->
+                hashingExecutor.execute(Lane.LOGIN, () -> passwordEncoder.matches(password, passwordHash)));
+        if (matches) {
+            credentialCache.remember(username, password, passwordHash);
+            passwordRehasher.rehashIfNeeded(username, password, passwordHash);
+        }
+        return matches;
     }
 }
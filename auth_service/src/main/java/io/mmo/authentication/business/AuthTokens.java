@@ -0,0 +1,4 @@
+package io.mmo.authentication.business;
+
+public record AuthTokens(String accessToken, String refreshToken) {
+}
@@ -0,0 +1,16 @@
+package io.mmo.authentication.business;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "auth.credential-cache")
+public class CredentialCacheProperties {
+    private boolean enabled = false;
+    private long maxSize = 100_000;
+    private Duration ttl = Duration.ofMinutes(1);
+}
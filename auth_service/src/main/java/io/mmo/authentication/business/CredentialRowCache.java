@@ -0,0 +1,214 @@
+package io.mmo.authentication.business;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.mmo.authentication.database.CredentialChangeChannel;
+import io.mmo.authentication.database.ReadReplicaPool;
+import io.mmo.authentication.database.UserCredentialsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Caches the stored password hash of active users, so repeat logins skip the credential lookup. Caffeine bounds the
+ * cache by the estimated heap size of its entries and picks victims with W-TinyLFU, which keeps frequent players
+ * cached through bursts of one-off logins. New users are written through on registration, and a changed hash is
+ * written through locally and announced to the other replicas over {@link CredentialChangeChannel}, which evict the
+ * user. Entries are reloaded after {@code ttl} as a bound on changes made outside the service. When a reload fails
+ * because the database is unavailable, entries up to {@code max-staleness} old are served instead and the database
+ * is not asked again for them for {@code degraded-retry-interval}. Lookups of users not found on a read replica are
+ * repeated on the primary, so a user registered on another instance can log in before the replica has caught up.
+ */
+@Slf4j
+@Component
+public class CredentialRowCache implements CredentialChangeChannel.Listener {
+
+    /**
+     * Heap per entry besides the two strings: Caffeine's node, the hash table node and slot, and the cached row,
+     * as measured by {@code CredentialRowCacheFootprint}.
+     */
+    static final int ENTRY_OVERHEAD_BYTES = 112;
+
+    private final boolean enabled;
+    private final boolean serveStale;
+    private final long ttlNanos;
+    private final long degradedRetryNanos;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final UserCredentialsRepository repository;
+    private final ReadReplicaPool replicaPool;
+    private final CredentialChangeChannel changeChannel;
+    private final Ticker ticker;
+    private final Cache<String, CachedRow> cache;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter staleHits;
+    private final Counter remoteInvalidations;
+    private volatile long degradedUntil;
+
+    @Autowired
+    public CredentialRowCache(CredentialRowCacheProperties properties,
+                              UserCredentialsRepository repository,
+                              ReadReplicaPool replicaPool,
+                              CredentialChangeChannel changeChannel,
+                              MeterRegistry meterRegistry) {
+        this(properties, repository, replicaPool, changeChannel, meterRegistry, Ticker.systemTicker());
+    }
+
+    CredentialRowCache(CredentialRowCacheProperties properties,
+                       UserCredentialsRepository repository,
+                       ReadReplicaPool replicaPool,
+                       CredentialChangeChannel changeChannel,
+                       MeterRegistry meterRegistry,
+                       Ticker ticker) {
+        this.enabled = properties.isEnabled();
+        this.serveStale = properties.isServeStale();
+        this.ttlNanos = properties.getTtl().toNanos();
+        this.degradedRetryNanos = properties.getDegradedRetryInterval().toNanos();
+        this.repository = repository;
+        this.replicaPool = replicaPool;
+        this.changeChannel = changeChannel;
+        this.ticker = ticker;
+        this.cache = Caffeine.newBuilder()
+                             .maximumWeight(properties.getMaxMemory().toBytes())
+                             .weigher((String username, CachedRow row) -> estimatedBytes(username, row.passwordHash()))
+                             .expireAfterWrite(serveStale ? properties.getMaxStaleness() : properties.getTtl())
+                             .ticker(ticker)
+                             .build();
+        this.degradedUntil = ticker.read();
+
+        this.hits = counter(meterRegistry, "hit");
+        this.misses = counter(meterRegistry, "miss");
+        this.staleHits = counter(meterRegistry, "stale");
+        this.remoteInvalidations = Counter.builder("auth.credential-row-cache.invalidations")
+                                          .register(meterRegistry);
+        Gauge.builder("auth.credential-row-cache.size", cache, Cache::estimatedSize)
+             .register(meterRegistry);
+        Gauge.builder("auth.credential-row-cache.memory", this, CredentialRowCache::memoryBytes)
+             .baseUnit("bytes")
+             .register(meterRegistry);
+        Gauge.builder("auth.credential-row-cache.memory.per-entry", this, CredentialRowCache::bytesPerEntry)
+             .baseUnit("bytes")
+             .register(meterRegistry);
+        Gauge.builder("auth.credential-row-cache.hit-ratio", this, CredentialRowCache::hitRatio)
+             .register(meterRegistry);
+
+        if (enabled) {
+            changeChannel.subscribe(this);
+        }
+    }
+
+    public Optional<String> findPasswordHash(String username) {
+        if (!enabled) {
+            return load(username);
+        }
+
+        var row = cache.getIfPresent(username);
+        long now = ticker.read();
+        if (row != null && now - row.loadedAt() < ttlNanos) {
+            hits.increment();
+            return Optional.of(row.passwordHash());
+        }
+        if (row != null && serveStale && now - degradedUntil < 0) {
+            staleHits.increment();
+            return Optional.of(row.passwordHash());
+        }
+
+        try {
+            var passwordHash = load(username);
+            misses.increment();
+            passwordHash.ifPresentOrElse(hash -> put(username, hash), () -> cache.invalidate(username));
+            return passwordHash;
+        } catch (DataAccessException | TransactionException e) {
+            if (row == null || !serveStale) {
+                throw e;
+            }
+            degradedUntil = ticker.read() + degradedRetryNanos;
+            staleHits.increment();
+            log.warn("Credential lookup failed, serving cached credentials for up to {} ms: {}",
+                     degradedRetryNanos / 1_000_000, e.getMessage());
+            return Optional.of(row.passwordHash());
+        }
+    }
+
+    /**
+     * Caches the hash of a user that was just inserted.
+     */
+    public void put(String username, String passwordHash) {
+        if (enabled) {
+            cache.put(username, new CachedRow(passwordHash, ticker.read()));
+        }
+    }
+
+    /**
+     * Caches the new hash of an existing user and evicts the user on all other replicas.
+     */
+    public void replace(String username, String passwordHash) {
+        if (enabled) {
+            put(username, passwordHash);
+            changeChannel.publish(instanceId, username);
+        }
+    }
+
+    @Override
+    public void changed(String origin, String username) {
+        if (!instanceId.equals(origin)) {
+            cache.invalidate(username);
+            remoteInvalidations.increment();
+        }
+    }
+
+    @Override
+    public void missedChanges() {
+        log.info("Credential change notifications may have been missed, clearing the credential cache");
+        cache.invalidateAll();
+    }
+
+    private Optional<String> load(String username) {
+        return replicaPool.readOrPrimary(() -> repository.findPasswordHashByUsername(username));
+    }
+
+    static int estimatedBytes(String username, String passwordHash) {
+        return ENTRY_OVERHEAD_BYTES + stringBytes(username) + stringBytes(passwordHash);
+    }
+
+    /**
+     * A compact (Latin-1) string: the String object plus its byte array, both padded to 8 bytes.
+     */
+    private static int stringBytes(String value) {
+        return 24 + ((16 + value.length() + 7) & ~7);
+    }
+
+    private long memoryBytes() {
+        cache.cleanUp();
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    private double bytesPerEntry() {
+        long entries = cache.estimatedSize();
+        return entries == 0 ? 0 : (double) memoryBytes() / entries;
+    }
+
+    private double hitRatio() {
+        double served = hits.count() + staleHits.count();
+        double total = served + misses.count();
+        return total == 0 ? 0 : served / total;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("auth.credential-row-cache.requests")
+                      .tag("result", result)
+                      .register(meterRegistry);
+    }
+
+    private record CachedRow(String passwordHash, long loadedAt) {
+    }
+}
@@ -0,0 +1,20 @@
+package io.mmo.authentication.business;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "auth.credential-row-cache")
+public class CredentialRowCacheProperties {
+    private boolean enabled = true;
+    private DataSize maxMemory = DataSize.ofMegabytes(64);
+    private Duration ttl = Duration.ofMinutes(5);
+    private boolean serveStale = true;
+    private Duration maxStaleness = Duration.ofHours(1);
+    private Duration degradedRetryInterval = Duration.ofSeconds(5);
+}
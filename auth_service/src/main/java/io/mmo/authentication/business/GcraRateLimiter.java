@@ -0,0 +1,63 @@
+package io.mmo.authentication.business;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket per key, implemented as the generic cell rate algorithm: each key holds only its theoretical arrival
+ * time, advanced with a compare-and-set, so requests for different keys never contend and requests for the same key
+ * never block. Keys live in a size-bounded Caffeine cache and are evicted once idle; an evicted key simply starts
+ * again with a full bucket.
+ */
+public class GcraRateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final Ticker ticker;
+    private final Cache<String, AtomicLong> arrivals;
+
+    public GcraRateLimiter(double ratePerSecond, int burst, long maxKeys, Duration idleTimeout, Ticker ticker) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate must be positive and burst at least 1");
+        }
+        this.emissionIntervalNanos = (long) (1e9 / ratePerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.ticker = ticker;
+        this.arrivals = Caffeine.newBuilder()
+                                .maximumSize(maxKeys)
+                                .expireAfterAccess(idleTimeout)
+                                .ticker(ticker)
+                                .build();
+    }
+
+    /**
+     * Takes one token for {@code key}. Returns {@code 0} if the request is allowed, otherwise how many nanoseconds
+     * to wait until a token is available.
+     */
+    public long tryAcquire(String key) {
+        long now = ticker.read();
+        var arrival = arrivals.get(key, ignored -> new AtomicLong(Long.MIN_VALUE));
+        long theoreticalArrival = arrival.get();
+        while (true) {
+            long base = Math.max(theoreticalArrival, now);
+            long wait = base - now - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            long witness = arrival.compareAndExchange(theoreticalArrival, base + emissionIntervalNanos);
+            if (witness == theoreticalArrival) {
+                return 0;
+            }
+            theoreticalArrival = witness;
+        }
+    }
+
+    public long trackedKeys() {
+        arrivals.cleanUp();
+        return arrivals.estimatedSize();
+    }
+}
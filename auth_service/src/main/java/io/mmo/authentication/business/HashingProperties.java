@@ -0,0 +1,27 @@
+package io.mmo.authentication.business;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "auth.hashing")
+public class HashingProperties {
+    private int bcryptStrength = 12;
+    private Duration latencyTarget;
+    private int minStrength = 10;
+    private int maxStrength = 16;
+    /**
+     * How many steps below a calibrated cost a stored hash may be before it is rehashed, so pods calibrated one step
+     * apart do not all rehash each other's users.
+     */
+    private int rehashTolerance = 1;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int queueCapacity = 64;
+    private long retryAfterSeconds = 1;
+    private int rehashMaxPending = 4;
+    private Duration costReportInterval = Duration.ofMinutes(10);
+}
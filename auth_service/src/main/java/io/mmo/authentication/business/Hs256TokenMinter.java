@@ -0,0 +1,252 @@
+package io.mmo.authentication.business;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Mints HS256 JWTs with the fixed {@code sub}/{@code sid}/{@code shard}/{@code iat}/{@code exp} shape without going
+ * through a generic JWT builder; {@code shard} is left out when there is none. The output is byte-for-byte what
+ * {@code Jwts.builder()} produces for the same claims: the header is pre-encoded, the claims are written directly as
+ * UTF-8 JSON, and the HMAC instance and scratch buffers are reused across calls.
+ */
+public final class Hs256TokenMinter {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_KEY_BYTES = 32;
+    private static final int SIGNATURE_BYTES = 32;
+    private static final byte[] BASE64_URL = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEADER = (Base64.getUrlEncoder()
+                                                .withoutPadding()
+                                                .encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8)) + ".")
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Scratch> platformScratch = ThreadLocal.withInitial(this::newScratch);
+    private final ArrayBlockingQueue<Scratch> virtualScratch = new ArrayBlockingQueue<>(256);
+
+    public Hs256TokenMinter(byte[] secret) {
+        if (secret.length < MIN_KEY_BYTES) {
+            throw new IllegalArgumentException("JWT secret must be at least " + MIN_KEY_BYTES + " bytes for HS256");
+        }
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+    }
+
+    /**
+     * @param sessionId the {@code sid} claim: the session the token was issued for, see {@link RevocationFeed}
+     * @param shard the {@code shard} claim: the game server the player is sent to, see {@link ShardRegistry}, or null
+     */
+    public String mint(String subject, long sessionId, String shard, long issuedAtSeconds, long expiresAtSeconds) {
+        // Thread locals would be rebuilt for every short-lived virtual thread, so those share a small pool instead.
+        boolean virtual = Thread.currentThread().isVirtual();
+        Scratch scratch = virtual ? borrowScratch() : platformScratch.get();
+        try {
+            return scratch.mint(subject, sessionId, shard, issuedAtSeconds, expiresAtSeconds);
+        } finally {
+            if (virtual) {
+                virtualScratch.offer(scratch);
+            }
+        }
+    }
+
+    private Scratch borrowScratch() {
+        Scratch scratch = virtualScratch.poll();
+        return scratch != null ? scratch : newScratch();
+    }
+
+    private Scratch newScratch() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return new Scratch(mac);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static final class Scratch {
+
+        private final Mac mac;
+        private final byte[] signature = new byte[SIGNATURE_BYTES];
+        private byte[] claims = new byte[128];
+        private byte[] token = new byte[256];
+        private int claimsLength;
+        private int tokenLength;
+
+        Scratch(Mac mac) {
+            this.mac = mac;
+        }
+
+        String mint(String subject, long sessionId, String shard, long issuedAtSeconds, long expiresAtSeconds) {
+            claimsLength = 0;
+            writeAscii("{\"sub\":");
+            writeJsonString(subject);
+            writeAscii(",\"sid\":");
+            writeLong(sessionId);
+            if (shard != null) {
+                writeAscii(",\"shard\":");
+                writeJsonString(shard);
+            }
+            writeAscii(",\"iat\":");
+            writeLong(issuedAtSeconds);
+            writeAscii(",\"exp\":");
+            writeLong(expiresAtSeconds);
+            writeByte('}');
+
+            tokenLength = 0;
+            ensureTokenCapacity(HEADER.length + base64Length(claimsLength) + 1 + base64Length(SIGNATURE_BYTES));
+            System.arraycopy(HEADER, 0, token, 0, HEADER.length);
+            tokenLength = HEADER.length;
+            encodeBase64(claims, claimsLength);
+
+            mac.update(token, 0, tokenLength);
+            try {
+                mac.doFinal(signature, 0);
+            } catch (ShortBufferException e) {
+                throw new IllegalStateException(e);
+            }
+            token[tokenLength++] = '.';
+            encodeBase64(signature, SIGNATURE_BYTES);
+
+            return new String(token, 0, tokenLength, StandardCharsets.ISO_8859_1);
+        }
+
+        private void writeJsonString(String value) {
+            writeByte('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    writeByte('\\');
+                    writeByte(c);
+                } else if (c < 0x20) {
+                    writeControlCharacter(c);
+                } else if (c < 0x80) {
+                    writeByte(c);
+                } else if (Character.isSurrogate(c)) {
+                    // jjwt's Jackson serializer escapes supplementary characters as surrogate pairs
+                    writeUnicodeEscape(c);
+                } else {
+                    writeUtf8(c);
+                }
+            }
+            writeByte('"');
+        }
+
+        private void writeControlCharacter(char c) {
+            char shortEscape = switch (c) {
+                case '\b' -> 'b';
+                case '\t' -> 't';
+                case '\n' -> 'n';
+                case '\f' -> 'f';
+                case '\r' -> 'r';
+                default -> 0;
+            };
+            if (shortEscape == 0) {
+                writeUnicodeEscape(c);
+            } else {
+                writeByte('\\');
+                writeByte(shortEscape);
+            }
+        }
+
+        private void writeUnicodeEscape(char c) {
+            writeAscii("\\u");
+            writeByte(HEX[c >> 12]);
+            writeByte(HEX[(c >> 8) & 0xF]);
+            writeByte(HEX[(c >> 4) & 0xF]);
+            writeByte(HEX[c & 0xF]);
+        }
+
+        private void writeUtf8(char c) {
+            if (c < 0x800) {
+                writeByte(0xC0 | (c >> 6));
+                writeByte(0x80 | (c & 0x3F));
+            } else {
+                writeByte(0xE0 | (c >> 12));
+                writeByte(0x80 | ((c >> 6) & 0x3F));
+                writeByte(0x80 | (c & 0x3F));
+            }
+        }
+
+        private void writeLong(long value) {
+            if (value == 0) {
+                writeByte('0');
+                return;
+            }
+            if (value < 0) {
+                writeByte('-');
+                if (value == Long.MIN_VALUE) {
+                    writeAscii("9223372036854775808");
+                    return;
+                }
+                value = -value;
+            }
+            int digits = 0;
+            for (long remaining = value; remaining > 0; remaining /= 10) {
+                digits++;
+            }
+            ensureClaimsCapacity(digits);
+            for (int i = claimsLength + digits - 1; i >= claimsLength; i--) {
+                claims[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            claimsLength += digits;
+        }
+
+        private void writeAscii(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                writeByte(value.charAt(i));
+            }
+        }
+
+        private void writeByte(int b) {
+            ensureClaimsCapacity(1);
+            claims[claimsLength++] = (byte) b;
+        }
+
+        private void ensureClaimsCapacity(int additional) {
+            if (claimsLength + additional > claims.length) {
+                claims = Arrays.copyOf(claims, Math.max(claims.length * 2, claimsLength + additional));
+            }
+        }
+
+        private void ensureTokenCapacity(int required) {
+            if (required > token.length) {
+                token = new byte[Math.max(token.length * 2, required)];
+            }
+        }
+
+        private void encodeBase64(byte[] source, int length) {
+            int i = 0;
+            for (; i + 3 <= length; i += 3) {
+                int bits = (source[i] & 0xFF) << 16 | (source[i + 1] & 0xFF) << 8 | (source[i + 2] & 0xFF);
+                token[tokenLength++] = BASE64_URL[bits >>> 18];
+                token[tokenLength++] = BASE64_URL[(bits >>> 12) & 0x3F];
+                token[tokenLength++] = BASE64_URL[(bits >>> 6) & 0x3F];
+                token[tokenLength++] = BASE64_URL[bits & 0x3F];
+            }
+            int remaining = length - i;
+            if (remaining == 1) {
+                int bits = (source[i] & 0xFF) << 16;
+                token[tokenLength++] = BASE64_URL[bits >>> 18];
+                token[tokenLength++] = BASE64_URL[(bits >>> 12) & 0x3F];
+            } else if (remaining == 2) {
+                int bits = (source[i] & 0xFF) << 16 | (source[i + 1] & 0xFF) << 8;
+                token[tokenLength++] = BASE64_URL[bits >>> 18];
+                token[tokenLength++] = BASE64_URL[(bits >>> 12) & 0x3F];
+                token[tokenLength++] = BASE64_URL[(bits >>> 6) & 0x3F];
+            }
+        }
+
+        private static int base64Length(int length) {
+            return (length * 4 + 2) / 3;
+        }
+    }
+}
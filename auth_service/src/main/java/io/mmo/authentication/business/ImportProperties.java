@@ -0,0 +1,20 @@
+package io.mmo.authentication.business;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "auth.import")
+public class ImportProperties {
+    private Path file;
+    private ImportRecordReader.Format format;
+    private int chunkSize = 10_000;
+    private int hashThreads = Runtime.getRuntime().availableProcessors();
+    private Path checkpointFile;
+    private Path reportFile;
+    private boolean exitOnCompletion = true;
+}
@@ -0,0 +1,16 @@
+package io.mmo.authentication.business;
+
+/**
+ * One account from an import file. Exactly one of {@code password} and {@code passwordHash} is set, unless the
+ * line could not be parsed, in which case {@code error} says why.
+ */
+public record ImportRecord(long line, String username, String password, String passwordHash, String error) {
+
+    static ImportRecord invalid(long line, String username, String error) {
+        return new ImportRecord(line, username, null, null, error);
+    }
+
+    boolean valid() {
+        return error == null;
+    }
+}
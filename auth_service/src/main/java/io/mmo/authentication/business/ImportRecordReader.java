@@ -0,0 +1,183 @@
+package io.mmo.authentication.business;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams {@link ImportRecord}s from a CSV or NDJSON account export one line at a time, so memory use does not
+ * depend on the file size.
+ * <ul>
+ *     <li>CSV starts with a header naming a {@code username} column and either a {@code password} or a
+ *     {@code password_hash} column; fields may be double-quoted.</li>
+ *     <li>NDJSON has one object per line with {@code username} and either {@code password} or
+ *     {@code passwordHash}.</li>
+ * </ul>
+ * Malformed lines are returned as invalid records rather than failing the import.
+ */
+public class ImportRecordReader implements Closeable {
+
+    public enum Format {
+        CSV,
+        NDJSON;
+
+        static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase();
+            return name.endsWith(".ndjson") || name.endsWith(".jsonl") ? NDJSON : CSV;
+        }
+    }
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final BufferedReader reader;
+    private final Format format;
+    private long line;
+    private int usernameColumn = -1;
+    private int passwordColumn = -1;
+    private int passwordHashColumn = -1;
+
+    public ImportRecordReader(Path file, Format format) throws IOException {
+        this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        this.format = format != null ? format : Format.of(file);
+        if (this.format == Format.CSV) {
+            readHeader();
+        }
+    }
+
+    /**
+     * Returns the next record, or {@code null} at the end of the file. Blank lines are skipped.
+     */
+    public ImportRecord next() {
+        try {
+            String text;
+            do {
+                text = reader.readLine();
+                line++;
+                if (text == null) {
+                    return null;
+                }
+            } while (text.isBlank());
+            return format == Format.CSV ? parseCsv(text) : parseJson(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void readHeader() throws IOException {
+        String header = reader.readLine();
+        line++;
+        if (header == null) {
+            throw new IllegalArgumentException("CSV import file is empty");
+        }
+        List<String> columns = splitCsv(header.strip());
+        for (int i = 0; i < columns.size(); i++) {
+            switch (columns.get(i).strip().toLowerCase()) {
+                case "username" -> usernameColumn = i;
+                case "password" -> passwordColumn = i;
+                case "password_hash" -> passwordHashColumn = i;
+                default -> {
+                }
+            }
+        }
+        if (usernameColumn < 0 || (passwordColumn < 0) == (passwordHashColumn < 0)) {
+            throw new IllegalArgumentException(
+                    "CSV header needs a username column and exactly one of password or password_hash: " + header);
+        }
+    }
+
+    private ImportRecord parseCsv(String text) {
+        List<String> fields = splitCsv(text);
+        if (fields == null) {
+            return ImportRecord.invalid(line, null, "unterminated quoted field");
+        }
+        int secretColumn = passwordColumn >= 0 ? passwordColumn : passwordHashColumn;
+        if (fields.size() <= Math.max(usernameColumn, secretColumn)) {
+            return ImportRecord.invalid(line, null, "missing columns");
+        }
+        return toRecord(fields.get(usernameColumn),
+                        passwordColumn >= 0 ? fields.get(passwordColumn) : null,
+                        passwordHashColumn >= 0 ? fields.get(passwordHashColumn) : null);
+    }
+
+    private ImportRecord parseJson(String text) {
+        JsonNode node;
+        try {
+            node = OBJECT_MAPPER.readTree(text);
+        } catch (JsonProcessingException e) {
+            return ImportRecord.invalid(line, null, "malformed JSON");
+        }
+        if (!node.isObject()) {
+            return ImportRecord.invalid(line, null, "not a JSON object");
+        }
+        return toRecord(node.path("username").asText(null),
+                        node.path("password").asText(null),
+                        node.path("passwordHash").asText(null));
+    }
+
+    /**
+     * Trims the username and plaintext password the way {@code AuthController} does before a login, so imported
+     * accounts can log in with what they typed.
+     */
+    private ImportRecord toRecord(String username, String password, String passwordHash) {
+        if (username == null || username.isBlank()) {
+            return ImportRecord.invalid(line, username, "missing username");
+        }
+        username = username.trim();
+        password = password != null ? password.trim() : null;
+        boolean hasPassword = password != null && !password.isEmpty();
+        boolean hasHash = passwordHash != null && !passwordHash.isEmpty();
+        if (hasPassword == hasHash) {
+            return ImportRecord.invalid(line, username, "needs exactly one of password or password hash");
+        }
+        return new ImportRecord(line, username, hasPassword ? password : null, hasHash ? passwordHash : null, null);
+    }
+
+    /**
+     * Splits one CSV line; returns {@code null} if a quoted field is not terminated.
+     */
+    static List<String> splitCsv(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,15 @@
+package io.mmo.authentication.business;
+
+import java.time.Duration;
+
+/**
+ * Outcome of an account import. {@code resumed} counts records skipped because an earlier run had already
+ * committed them.
+ */
+public record ImportReport(long read, long inserted, long duplicates, long invalid, long resumed, Duration elapsed) {
+
+    public double recordsPerSecond() {
+        long processed = read - resumed;
+        return elapsed.isZero() ? 0 : processed / (elapsed.toNanos() / 1e9);
+    }
+}
@@ -1,35 +1,25 @@
 package io.mmo.authentication.business;
 
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
-import java.security.Key;
-import java.util.Date;
 
 @Service
 public class JwtService {
 
-    private final Key key;
+    private final Hs256TokenMinter minter;
     private final long expiration;
 
     public JwtService(JwtProperties properties) {
         this.expiration = properties.getExpiration();
-        this.key = Keys.hmacShaKeyFor(properties.getSecret().getBytes(StandardCharsets.UTF_8)
-        );
+        this.minter = new Hs256TokenMinter(properties.getSecret().getBytes(StandardCharsets.UTF_8));
     }
 
-    public String generateToken(String username) {
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + expiration);
-
-        return Jwts.builder()
-                   .setSubject(username)
-                   .setIssuedAt(now)
-                   .setExpiration(expiryDate)
-                   .signWith(key)
-                   .compact();
+    /**
+     * @param shard the game server assigned to the player, or null to let the client connect through the ingress
+     */
+    public String generateToken(String username, long sessionId, String shard) {
+        long now = System.currentTimeMillis();
+        return minter.mint(username, sessionId, shard, now / 1000, (now + expiration) / 1000);
     }
 }
-
@@ -0,0 +1,79 @@
+package io.mmo.authentication.business;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent verifications of identical credentials, so a burst of client retries costs one lookup and
+ * one hash verification. In-flight attempts are keyed by username and a SHA-256 digest of the password, never the
+ * plaintext, and are forgotten as soon as the verification completes.
+ */
+@Component
+public class LoginCoalescer {
+
+    private final ConcurrentHashMap<CredentialKey, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalescedCounter;
+
+    public LoginCoalescer(MeterRegistry meterRegistry) {
+        this.coalescedCounter = Counter.builder("auth.login.coalesced")
+                                       .description("Login verifications answered by an identical in-flight attempt")
+                                       .register(meterRegistry);
+    }
+
+    public boolean verify(String username, String password, Supplier<Boolean> verification) {
+        var key = new CredentialKey(username, digest(password));
+        var future = new CompletableFuture<Boolean>();
+        var existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalescedCounter.increment();
+            return await(existing);
+        }
+
+        try {
+            boolean verified = verification.get();
+            future.complete(verified);
+            return verified;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private static boolean await(CompletableFuture<Boolean> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static String digest(String password) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(password.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record CredentialKey(String username, String passwordDigest) {
+    }
+}
@@ -0,0 +1,103 @@
+package io.mmo.authentication.business;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides the BCrypt cost new hashes are created with. With a {@code latency-target} the cost is calibrated once
+ * at startup on the hardware the service actually got: one hash at a cheap probe cost is timed and, since every
+ * cost step doubles the work, the highest cost whose extrapolated time stays within the target is chosen, bounded by
+ * {@code min-strength} and {@code max-strength}. Without a target {@code bcrypt-strength} is used as configured.
+ * <p>
+ * Stored hashes are only ever moved up: pods calibrate on their own and may land on different costs, and rehashing
+ * in both directions would flip users between them on every login. A calibrated cost also tolerates hashes up to
+ * {@code rehash-tolerance} steps below it, which one pod getting a faster CPU than the rest should not rehash.
+ */
+@Slf4j
+@Component
+public class PasswordHashPolicy {
+
+    private static final int PROBE_COST = 8;
+    private static final int PROBE_RUNS = 3;
+    private static final long WARMUP_NANOS = TimeUnit.MILLISECONDS.toNanos(300);
+
+    private final int cost;
+    private final int minStoredCost;
+
+    public PasswordHashPolicy(HashingProperties properties, MeterRegistry meterRegistry) {
+        if (properties.getLatencyTarget() == null) {
+            this.cost = properties.getBcryptStrength();
+            this.minStoredCost = cost;
+        } else {
+            this.cost = calibrate(properties.getLatencyTarget(),
+                                  properties.getMinStrength(),
+                                  properties.getMaxStrength());
+            this.minStoredCost = cost - properties.getRehashTolerance();
+        }
+        Gauge.builder("auth.password.target-cost", this, PasswordHashPolicy::getCost)
+             .register(meterRegistry);
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * Whether a stored hash was created with a cost too far below the one new hashes get; never for a higher cost.
+     */
+    public boolean needsRehash(String passwordHash) {
+        int storedCost = costOf(passwordHash);
+        return storedCost > 0 && storedCost < minStoredCost;
+    }
+
+    /**
+     * Cost factor of a {@code $2a$NN$...} hash, or {@code -1} if it is not a BCrypt hash.
+     */
+    public static int costOf(String passwordHash) {
+        if (passwordHash == null || passwordHash.length() < 7 || passwordHash.charAt(0) != '$' || passwordHash.charAt(6) != '$') {
+            return -1;
+        }
+        char tens = passwordHash.charAt(4);
+        char ones = passwordHash.charAt(5);
+        if (!Character.isDigit(tens) || !Character.isDigit(ones)) {
+            return -1;
+        }
+        return (tens - '0') * 10 + (ones - '0');
+    }
+
+    static int calibrate(Duration target, int minCost, int maxCost) {
+        // let the JIT compile the key schedule first; an interpreted probe overestimates the cost several times
+        String warmupSalt = BCrypt.gensalt(4);
+        long warmupEnd = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < warmupEnd) {
+            BCrypt.hashpw("calibration", warmupSalt);
+        }
+
+        String salt = BCrypt.gensalt(PROBE_COST);
+        long probeNanos = Long.MAX_VALUE;
+        for (int i = 0; i < PROBE_RUNS; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration", salt);
+            probeNanos = Math.min(probeNanos, System.nanoTime() - start);
+        }
+
+        int cost = minCost;
+        while (cost < maxCost && estimatedNanos(probeNanos, cost + 1) <= target.toNanos()) {
+            cost++;
+        }
+        log.info("Calibrated BCrypt cost {} for a {} ms target ({} us at cost {}, about {} ms per hash)",
+                 cost, target.toMillis(), TimeUnit.NANOSECONDS.toMicros(probeNanos), PROBE_COST,
+                 (long) (estimatedNanos(probeNanos, cost) / 1e6));
+        return cost;
+    }
+
+    private static double estimatedNanos(long probeNanos, int cost) {
+        return probeNanos * Math.pow(2, cost - PROBE_COST);
+    }
+}
@@ -0,0 +1,203 @@
+package io.mmo.authentication.business;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.mmo.authentication.business.exceptions.ServiceOverloadedException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs CPU-heavy password hashing on a dedicated, core-sized pool instead of on request threads.
+ * Queued work is ordered by {@link Lane} so logins of returning players are picked up before registrations and
+ * background rehashes last, and submissions are rejected with {@link ServiceOverloadedException} once the queue is
+ * full. The pool also measures how long one hash takes, from which {@link #capacityPerSecond()} tells how many
+ * hashes per second it can sustain.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    public enum Lane {
+        LOGIN,
+        REGISTER,
+        REHASH
+    }
+
+    private static final double SERVICE_TIME_SMOOTHING = 0.05;
+
+    private final ThreadPoolExecutor executor;
+    private final int threads;
+    private final int queueCapacity;
+    private final long retryAfterSeconds;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Lane, AtomicInteger> queuedPerLane = new EnumMap<>(Lane.class);
+    private final Map<Lane, Timer> waitTimers = new EnumMap<>(Lane.class);
+    private final Map<Lane, Counter> rejections = new EnumMap<>(Lane.class);
+    private double serviceNanos;
+
+    public PasswordHashingExecutor(HashingProperties properties, MeterRegistry meterRegistry) {
+        this.threads = properties.getThreads();
+        this.queueCapacity = properties.getQueueCapacity();
+        this.retryAfterSeconds = properties.getRetryAfterSeconds();
+        this.executor = new ThreadPoolExecutor(properties.getThreads(),
+                                               properties.getThreads(),
+                                               0L,
+                                               TimeUnit.MILLISECONDS,
+                                               new PriorityBlockingQueue<>(),
+                                               Thread.ofPlatform().name("password-hashing-", 0).daemon(true).factory());
+
+        for (Lane lane : Lane.values()) {
+            String laneTag = lane.name().toLowerCase();
+            AtomicInteger depth = new AtomicInteger();
+            queuedPerLane.put(lane, depth);
+            Gauge.builder("auth.hashing.queue.depth", depth, AtomicInteger::get)
+                 .tag("lane", laneTag)
+                 .register(meterRegistry);
+            waitTimers.put(lane, Timer.builder("auth.hashing.wait")
+                                      .tag("lane", laneTag)
+                                      .publishPercentileHistogram()
+                                      .register(meterRegistry));
+            rejections.put(lane, Counter.builder("auth.hashing.rejected")
+                                        .tag("lane", laneTag)
+                                        .register(meterRegistry));
+        }
+        Gauge.builder("auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+             .register(meterRegistry);
+        Gauge.builder("auth.hashing.capacity", this, PasswordHashingExecutor::capacityPerSecond)
+             .register(meterRegistry);
+    }
+
+    public <T> T execute(Lane lane, Supplier<T> work) {
+        var task = enqueue(lane, work);
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            task.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    /**
+     * Queues the work without waiting for it. The returned future is never completed if the executor shuts down
+     * before the work ran.
+     */
+    public <T> CompletableFuture<T> submit(Lane lane, Supplier<T> work) {
+        var result = new CompletableFuture<T>();
+        enqueue(lane, () -> {
+            try {
+                T value = work.get();
+                result.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
+                throw e;
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Work queued and not yet picked up by a hashing thread, over all lanes.
+     */
+    public int queued() {
+        return queued.get();
+    }
+
+    /**
+     * Hashes per second all threads complete at the recently measured time per hash, or 0 before the first hash.
+     */
+    public synchronized double capacityPerSecond() {
+        return serviceNanos == 0 ? 0 : threads * 1e9 / serviceNanos;
+    }
+
+    private synchronized void recordServiceTime(long nanos) {
+        serviceNanos = serviceNanos == 0 ? nanos : serviceNanos + (nanos - serviceNanos) * SERVICE_TIME_SMOOTHING;
+    }
+
+    private <T> Supplier<T> timed(Supplier<T> work) {
+        return () -> {
+            long start = System.nanoTime();
+            try {
+                return work.get();
+            } finally {
+                recordServiceTime(System.nanoTime() - start);
+            }
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> HashingTask<T> enqueue(Lane lane, Supplier<T> work) {
+        reserveSlot(lane);
+        var task = new HashingTask<>(lane, sequence.getAndIncrement(), timed(work));
+        queuedPerLane.get(lane).incrementAndGet();
+        executor.execute(task);
+        return task;
+    }
+
+    private void reserveSlot(Lane lane) {
+        while (true) {
+            int current = queued.get();
+            if (current >= queueCapacity) {
+                rejections.get(lane).increment();
+                throw new ServiceOverloadedException(retryAfterSeconds);
+            }
+            if (queued.compareAndSet(current, current + 1)) {
+                return;
+            }
+        }
+    }
+
+    private final class HashingTask<T> extends FutureTask<T> implements Comparable<HashingTask<?>> {
+
+        private final Lane lane;
+        private final long sequence;
+        private final long enqueuedAt = System.nanoTime();
+
+        HashingTask(Lane lane, long sequence, Supplier<T> work) {
+            super(work::get);
+            this.lane = lane;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            queued.decrementAndGet();
+            queuedPerLane.get(lane).decrementAndGet();
+            waitTimers.get(lane).record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+            super.run();
+        }
+
+        @Override
+        public int compareTo(HashingTask<?> other) {
+            int byLane = Integer.compare(lane.ordinal(), other.lane.ordinal());
+            return byLane != 0 ? byLane : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package io.mmo.authentication.business;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.mmo.authentication.business.PasswordHashingExecutor.Lane;
+import io.mmo.authentication.business.exceptions.ServiceOverloadedException;
+import io.mmo.authentication.database.UserCredentialsJdbcRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Moves stored hashes up to the current {@link PasswordHashPolicy} cost after a successful login, the only moment the
+ * plaintext password is available. The new hash is computed on the lowest-priority hashing lane and written with a
+ * compare-and-set on the old hash, all after the login has returned. At most {@code rehash-max-pending} rehashes are
+ * outstanding; beyond that they are skipped and retried at the user's next login.
+ */
+@Slf4j
+@Component
+public class PasswordRehasher {
+
+    private final PasswordHashPolicy policy;
+    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor hashingExecutor;
+    private final UserCredentialsJdbcRepository jdbcRepository;
+    private final CredentialRowCache credentialRowCache;
+    private final int maxPending;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final ExecutorService writer = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter rehashed;
+    private final Counter skipped;
+    private final Counter conflicts;
+    private final Counter failures;
+
+    public PasswordRehasher(PasswordHashPolicy policy,
+                            PasswordEncoder passwordEncoder,
+                            PasswordHashingExecutor hashingExecutor,
+                            UserCredentialsJdbcRepository jdbcRepository,
+                            CredentialRowCache credentialRowCache,
+                            HashingProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.policy = policy;
+        this.passwordEncoder = passwordEncoder;
+        this.hashingExecutor = hashingExecutor;
+        this.jdbcRepository = jdbcRepository;
+        this.credentialRowCache = credentialRowCache;
+        this.maxPending = properties.getRehashMaxPending();
+        this.rehashed = counter(meterRegistry, "rehashed");
+        this.skipped = counter(meterRegistry, "skipped");
+        this.conflicts = counter(meterRegistry, "conflict");
+        this.failures = counter(meterRegistry, "failed");
+    }
+
+    /**
+     * Schedules a rehash if {@code passwordHash} was created with too low a cost; never blocks or throws.
+     */
+    public void rehashIfNeeded(String username, String password, String passwordHash) {
+        if (!policy.needsRehash(passwordHash)) {
+            return;
+        }
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            skipped.increment();
+            return;
+        }
+
+        try {
+            hashingExecutor.submit(Lane.REHASH, () -> passwordEncoder.encode(password))
+                           .thenAcceptAsync(newHash -> replace(username, passwordHash, newHash), writer)
+                           .whenComplete((ignored, ex) -> {
+                               pending.decrementAndGet();
+                               if (ex != null) {
+                                   failures.increment();
+                                   log.warn("Rehashing the password of {} failed", username, ex);
+                               }
+                           });
+        } catch (ServiceOverloadedException e) {
+            pending.decrementAndGet();
+            skipped.increment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.close();
+    }
+
+    private void replace(String username, String oldHash, String newHash) {
+        if (jdbcRepository.replacePasswordHash(username, oldHash, newHash)) {
+            credentialRowCache.replace(username, newHash);
+            rehashed.increment();
+        } else {
+            conflicts.increment();
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("auth.password.rehash")
+                      .tag("result", result)
+                      .register(meterRegistry);
+    }
+}
@@ -0,0 +1,34 @@
+package io.mmo.authentication.business;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "auth.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private Bucket client = new Bucket(20, 40);
+    private Bucket username = new Bucket(0.2, 5);
+    private long maxKeys = 1_000_000;
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    private int maxBodyBytes = 16 * 1024;
+
+    @Setter
+    @Getter
+    public static class Bucket {
+        private double ratePerSecond;
+        private int burst;
+
+        public Bucket() {
+        }
+
+        public Bucket(double ratePerSecond, int burst) {
+            this.ratePerSecond = ratePerSecond;
+            this.burst = burst;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package io.mmo.authentication.business;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "auth.refresh-token")
+public class RefreshTokenProperties {
+    private Duration lifetime = Duration.ofDays(7);
+    /**
+     * How long a session can be kept alive by rotating its refresh tokens, counted from login.
+     */
+    private Duration sessionLifetime = Duration.ofDays(30);
+    private Duration cleanupInterval = Duration.ofHours(1);
+}
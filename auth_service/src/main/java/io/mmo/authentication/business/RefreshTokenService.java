@@ -0,0 +1,127 @@
+package io.mmo.authentication.business;
+
+import io.mmo.authentication.business.exceptions.InvalidTokenException;
+import io.mmo.authentication.database.RefreshToken;
+import io.mmo.authentication.database.RefreshTokenRepository;
+import io.mmo.authentication.database.SessionRevocation;
+import io.mmo.authentication.database.SessionRevocationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Issues and rotates opaque refresh tokens. Tokens are 256 random bits, so they are stored and looked up by their
+ * SHA-256 digest and never need password hashing. Every rotation consumes the presented token and issues a new one
+ * in the same family; presenting an already consumed token revokes the whole family. A family is one session, whose
+ * id goes into the access tokens issued with it; revoking the family also records the session as revoked, so the
+ * access tokens still in circulation can be rejected too, see {@link RevocationFeed}.
+ * <p>
+ * A family keeps at most two rows: its live token and the one consumed last, which is what a replayed token usually
+ * is. Tokens consumed before that are deleted on rotation and are then just unknown. No token of a family outlives
+ * {@code sessionLifetime} from login, however often it is rotated.
+ */
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final SessionRevocationRepository sessionRevocationRepository;
+    private final RefreshTokenProperties properties;
+    private final SecureRandom random = new SecureRandom();
+
+    public record IssuedToken(String refreshToken, long sessionId) {
+    }
+
+    public record RotatedToken(String username, String refreshToken, long sessionId) {
+    }
+
+    /**
+     * Starts a new session for the user.
+     */
+    @Transactional
+    public IssuedToken issue(String username) {
+        return issue(username, UUID.randomUUID(), null, Instant.now().plus(properties.getSessionLifetime()));
+    }
+
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public RotatedToken rotate(String refreshToken) {
+        Instant now = Instant.now();
+        var token = refreshTokenRepository.findByTokenHash(digest(refreshToken))
+                                          .filter(candidate -> !candidate.isRevoked())
+                                          .filter(candidate -> candidate.getExpiresAt().isAfter(now))
+                                          .orElseThrow(InvalidTokenException::new);
+
+        if (refreshTokenRepository.markUsed(token.getId(), now) == 0) {
+            revokeSession(token);
+            throw new InvalidTokenException();
+        }
+
+        refreshTokenRepository.deleteUsedInFamilyExcept(token.getFamilyId(), token.getId());
+        Instant familyExpiresAt = token.getFamilyExpiresAt() != null
+                ? token.getFamilyExpiresAt() : now.plus(properties.getSessionLifetime());
+        var issued = issue(token.getUsername(), token.getFamilyId(), token.session(), familyExpiresAt);
+        return new RotatedToken(token.getUsername(), issued.refreshToken(), issued.sessionId());
+    }
+
+    @Transactional
+    public void revoke(String refreshToken) {
+        refreshTokenRepository.findByTokenHash(digest(refreshToken))
+                              .ifPresent(this::revokeSession);
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${auth.refresh-token.cleanup-interval:1h}")
+    public void deleteExpired() {
+        refreshTokenRepository.deleteExpiredBefore(Instant.now());
+    }
+
+    private IssuedToken issue(String username, UUID familyId, Long sessionId, Instant familyExpiresAt) {
+        byte[] secret = new byte[TOKEN_BYTES];
+        random.nextBytes(secret);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+        Instant expiresAt = min(Instant.now().plus(properties.getLifetime()), familyExpiresAt);
+
+        var saved = refreshTokenRepository.save(RefreshToken.builder()
+                                                            .tokenHash(digest(refreshToken))
+                                                            .username(username)
+                                                            .familyId(familyId)
+                                                            .sessionId(sessionId)
+                                                            .expiresAt(expiresAt)
+                                                            .familyExpiresAt(familyExpiresAt)
+                                                            .build());
+        return new IssuedToken(refreshToken, saved.session());
+    }
+
+    private void revokeSession(RefreshToken token) {
+        if (refreshTokenRepository.revokeFamily(token.getFamilyId()) > 0) {
+            sessionRevocationRepository.save(SessionRevocation.builder()
+                                                              .sessionId(token.session())
+                                                              .revokedAt(Instant.now())
+                                                              .build());
+        }
+    }
+
+    private static Instant min(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static String digest(String refreshToken) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(refreshToken.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package io.mmo.authentication.business;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "auth.registration-batch")
+public class RegistrationBatchProperties {
+    private boolean enabled = true;
+    private int batchSize = 50;
+    private Duration flushDeadline = Duration.ofMillis(2);
+}
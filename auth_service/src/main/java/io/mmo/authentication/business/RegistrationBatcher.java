@@ -0,0 +1,155 @@
+package io.mmo.authentication.business;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.mmo.authentication.database.UserCredentials;
+import io.mmo.authentication.database.UserCredentialsJdbcRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group-commits registrations. Callers hand over an already hashed user and block until a single writer thread
+ * has inserted it together with the other users that arrived within the flush deadline, as one JDBC batch in one
+ * transaction. Each caller still learns whether its own username was free.
+ */
+@Component
+public class RegistrationBatcher {
+
+    private record PendingUser(UserCredentials user, CompletableFuture<Boolean> inserted) {
+    }
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushDeadlineNanos;
+    private final UserCredentialsJdbcRepository jdbcRepository;
+    private final BlockingQueue<PendingUser> pending = new LinkedBlockingQueue<>();
+    private final DistributionSummary batchSizes;
+    private final Timer flushTimer;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public RegistrationBatcher(RegistrationBatchProperties properties,
+                               UserCredentialsJdbcRepository jdbcRepository,
+                               MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.batchSize = properties.getBatchSize();
+        this.flushDeadlineNanos = properties.getFlushDeadline().toNanos();
+        this.jdbcRepository = jdbcRepository;
+        this.batchSizes = DistributionSummary.builder("auth.registration.batch.size")
+                                             .register(meterRegistry);
+        this.flushTimer = Timer.builder("auth.registration.batch.flush")
+                               .publishPercentileHistogram()
+                               .register(meterRegistry);
+        this.writer = enabled ? Thread.ofPlatform().name("registration-batcher").daemon(true).start(this::run) : null;
+    }
+
+    /**
+     * Inserts the user unless the username is taken; returns whether it was inserted.
+     */
+    public boolean insertIfAbsent(String username, String passwordHash) {
+        if (!enabled) {
+            return jdbcRepository.insertIfAbsent(username, passwordHash);
+        }
+        if (!running) {
+            throw new IllegalStateException("Registration batcher is shut down");
+        }
+
+        var user = UserCredentials.builder()
+                                  .username(username)
+                                  .passwordHash(passwordHash)
+                                  .build();
+        var pendingUser = new PendingUser(user, new CompletableFuture<>());
+        pending.add(pendingUser);
+        try {
+            return pendingUser.inserted().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        failAll(new ArrayList<>(pending));
+    }
+
+    private void run() {
+        List<PendingUser> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                failAll(batch);
+                return;
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void collect(List<PendingUser> batch) throws InterruptedException {
+        batch.add(pending.take());
+        long deadline = System.nanoTime() + flushDeadlineNanos;
+        while (batch.size() < batchSize) {
+            if (pending.drainTo(batch, batchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            PendingUser next = pending.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Completes every caller of the batch, exceptionally if the insert throws anything at all, so no caller is left
+     * blocked and the writer goes on with the next batch.
+     */
+    private void flush(List<PendingUser> batch) {
+        long start = System.nanoTime();
+        try {
+            batchSizes.record(batch.size());
+            boolean[] inserted = jdbcRepository.insertAllIfAbsent(batch.stream().map(PendingUser::user).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).inserted().complete(inserted[i]);
+            }
+        } catch (Throwable e) {
+            batch.forEach(pendingUser -> pendingUser.inserted().completeExceptionally(e));
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static void failAll(List<PendingUser> users) {
+        var exception = new IllegalStateException("Registration batcher is shut down");
+        users.forEach(pendingUser -> pendingUser.inserted().completeExceptionally(exception));
+    }
+}
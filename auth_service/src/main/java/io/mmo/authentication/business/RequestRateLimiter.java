@@ -0,0 +1,85 @@
+package io.mmo.authentication.business;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rate limits auth requests per client address and login attempts per username, so a single client or a credential
+ * stuffing run against one account cannot keep the hashing threads busy. Login attempts are counted per username and
+ * client address together, so attempts from elsewhere cannot lock the owner of an account out of it.
+ */
+@Component
+public class RequestRateLimiter {
+
+    private final boolean enabled;
+    private final GcraRateLimiter clients;
+    private final GcraRateLimiter usernames;
+    private final Counter rejectedClients;
+    private final Counter rejectedUsernames;
+
+    @Autowired
+    public RequestRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Ticker.systemTicker());
+    }
+
+    RequestRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry, Ticker ticker) {
+        this.enabled = properties.isEnabled();
+        this.clients = limiter(properties, properties.getClient(), ticker);
+        this.usernames = limiter(properties, properties.getUsername(), ticker);
+        this.rejectedClients = Counter.builder("auth.rate-limit.rejected")
+                                      .tag("key", "client")
+                                      .register(meterRegistry);
+        this.rejectedUsernames = Counter.builder("auth.rate-limit.rejected")
+                                        .tag("key", "username")
+                                        .register(meterRegistry);
+        Gauge.builder("auth.rate-limit.keys", clients, GcraRateLimiter::trackedKeys)
+             .tag("key", "client")
+             .register(meterRegistry);
+        Gauge.builder("auth.rate-limit.keys", usernames, GcraRateLimiter::trackedKeys)
+             .tag("key", "username")
+             .register(meterRegistry);
+    }
+
+    /**
+     * Returns {@code 0} if the client may send another request, otherwise the nanoseconds until it may.
+     */
+    public long acquireForClient(String clientAddress) {
+        return acquire(clients, clientAddress, rejectedClients);
+    }
+
+    /**
+     * Returns {@code 0} if the client may make another login attempt for the username, otherwise the nanoseconds
+     * until it may.
+     */
+    public long acquireForUsername(String username, String clientAddress) {
+        // Addresses never contain '|', so the key is unambiguous whatever the username holds.
+        return acquire(usernames, clientAddress + '|' + username, rejectedUsernames);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private long acquire(GcraRateLimiter limiter, String key, Counter rejected) {
+        if (!enabled) {
+            return 0;
+        }
+        long wait = limiter.tryAcquire(key);
+        if (wait > 0) {
+            rejected.increment();
+        }
+        return wait;
+    }
+
+    private static GcraRateLimiter limiter(RateLimitProperties properties, RateLimitProperties.Bucket bucket, Ticker ticker) {
+        return new GcraRateLimiter(bucket.getRatePerSecond(),
+                                   bucket.getBurst(),
+                                   properties.getMaxKeys(),
+                                   properties.getIdleTimeout(),
+                                   ticker);
+    }
+}
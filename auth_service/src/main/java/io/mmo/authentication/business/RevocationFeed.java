@@ -0,0 +1,249 @@
+package io.mmo.authentication.business;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.mmo.authentication.database.SessionRevocation;
+import io.mmo.authentication.database.SessionRevocationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The revoked sessions whose access tokens may still be in circulation, for token validators that check
+ * revocations locally. The feed follows the {@code session_revocations} table, which every instance appends to, and
+ * keeps the sessions revoked within the access token lifetime plus {@code retention-margin}. Validators load a
+ * {@link RevocationSnapshot} once and then apply the deltas that follow it.
+ * <p>
+ * Every change gets the next version of this instance; versions are only comparable under the random epoch the
+ * instance started with, so a validator that reconnects to another instance, or that fell further behind than the
+ * retained deltas reach, is told to reload the snapshot. Identity values become visible out of order when
+ * transactions commit out of order, so ids skipped while reading the table are looked up again on every poll; an id
+ * that is still missing after {@code gap-timeout} belonged to a rolled-back insert and is given up. Reading starts
+ * after the newest revocation that is already past retention or, if cleanup has deleted them all, just before the
+ * first retained one, so the ids of deleted revocations are not taken for gaps.
+ */
+@Slf4j
+@Component
+public class RevocationFeed {
+
+    static final int POLL_BATCH = 10_000;
+    static final int RETAINED_DELTAS = 1024;
+    static final int MAX_MISSING_IDS = 1024;
+
+    /**
+     * Sessions revoked in {@code version}, or none if the version only dropped expired revocations.
+     */
+    public record Delta(long version, long[] sessionIds) {
+    }
+
+    /**
+     * Result of {@link #deltaSince}: the deltas to apply in order to reach {@code version}, or a request to reload
+     * the snapshot.
+     */
+    public record Catchup(boolean reset, long version, List<Delta> deltas) {
+    }
+
+    public record Snapshot(long epoch, long version, byte[] bytes) {
+    }
+
+    public interface Listener {
+
+        void revoked(Delta delta);
+    }
+
+    private final SessionRevocationRepository repository;
+    private final Duration retention;
+    private final long gapTimeoutNanos;
+    private final Ticker ticker;
+    private final long epoch = new SecureRandom().nextLong() & Long.MAX_VALUE;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // Read position, touched only by the polling thread: whether it has been found, the highest id read, and since
+    // when each id below it has been missing, oldest first.
+    private boolean positioned;
+    private long cursor;
+    private final Map<Long, Long> missingSince = new LinkedHashMap<>();
+
+    // Guarded by this.
+    private final Map<Long, Instant> revoked = new HashMap<>();
+    private final ArrayDeque<Delta> deltas = new ArrayDeque<>();
+    private Instant nextExpiry = Instant.MAX;
+    private long version;
+    private Snapshot snapshot;
+
+    @Autowired
+    public RevocationFeed(RevocationProperties properties,
+                          JwtProperties jwtProperties,
+                          SessionRevocationRepository repository,
+                          MeterRegistry meterRegistry) {
+        this(properties, jwtProperties, repository, meterRegistry, Ticker.systemTicker());
+    }
+
+    RevocationFeed(RevocationProperties properties,
+                   JwtProperties jwtProperties,
+                   SessionRevocationRepository repository,
+                   MeterRegistry meterRegistry,
+                   Ticker ticker) {
+        this.repository = repository;
+        this.retention = Duration.ofMillis(jwtProperties.getExpiration()).plus(properties.getRetentionMargin());
+        this.gapTimeoutNanos = properties.getGapTimeout().toNanos();
+        this.ticker = ticker;
+
+        Gauge.builder("auth.revocation.sessions", this, RevocationFeed::size)
+             .register(meterRegistry);
+    }
+
+    public long epoch() {
+        return epoch;
+    }
+
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public synchronized long version() {
+        return version;
+    }
+
+    public synchronized int size() {
+        return revoked.size();
+    }
+
+    /**
+     * The current set, encoded as a {@link RevocationSnapshot}; unchanged between versions, so it is shared.
+     */
+    public synchronized Snapshot snapshot() {
+        if (snapshot == null) {
+            long[] sessionIds = revoked.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            snapshot = new Snapshot(epoch, version, RevocationSnapshot.encode(epoch, version, sessionIds));
+        }
+        return snapshot;
+    }
+
+    /**
+     * What a validator that holds {@code version} of {@code epoch} needs to apply to be current.
+     */
+    public synchronized Catchup deltaSince(long epoch, long version) {
+        long oldest = deltas.isEmpty() ? this.version : deltas.peekFirst().version() - 1;
+        if (epoch != this.epoch || version > this.version || version < oldest) {
+            return new Catchup(true, this.version, List.of());
+        }
+        var missed = new ArrayList<Delta>();
+        for (Delta delta : deltas) {
+            if (delta.version() > version) {
+                missed.add(delta);
+            }
+        }
+        return new Catchup(false, this.version, missed);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revocation.poll-interval:1s}")
+    public void poll() {
+        Instant now = Instant.now();
+        List<SessionRevocation> late;
+        List<SessionRevocation> rows;
+        try {
+            if (!positioned) {
+                Long lastExpired = repository.findMaxIdRevokedAtOrBefore(now.minus(retention));
+                if (lastExpired != null) {
+                    cursor = lastExpired;
+                    positioned = true;
+                }
+            }
+            late = missingSince.isEmpty() ? List.of() : repository.findAllById(missingSince.keySet());
+            rows = repository.findByIdGreaterThanAndRevokedAtAfterOrderByIdAsc(cursor,
+                                                                               now.minus(retention),
+                                                                               Limit.of(POLL_BATCH));
+        } catch (DataAccessException e) {
+            log.warn("Reading session revocations failed: {}", e.getMessage());
+            return;
+        }
+
+        var added = new ArrayList<SessionRevocation>(late.size() + rows.size());
+        for (SessionRevocation row : late) {
+            missingSince.remove(row.getId());
+            added.add(row);
+        }
+        if (!positioned && !rows.isEmpty()) {
+            cursor = rows.getFirst().getId() - 1;
+            positioned = true;
+        }
+        long readAt = ticker.read();
+        for (SessionRevocation row : rows) {
+            for (long id = cursor + 1; id < row.getId() && missingSince.size() < MAX_MISSING_IDS; id++) {
+                missingSince.put(id, readAt);
+            }
+            cursor = row.getId();
+            added.add(row);
+        }
+        missingSince.values().removeIf(since -> readAt - since >= gapTimeoutNanos);
+        apply(added, now);
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${auth.revocation.cleanup-interval:1h}")
+    public void deleteExpired() {
+        repository.deleteRevokedBefore(Instant.now().minus(retention));
+    }
+
+    private void apply(List<SessionRevocation> added, Instant now) {
+        Delta delta;
+        synchronized (this) {
+            var newSessions = new ArrayList<Long>(added.size());
+            for (SessionRevocation row : added) {
+                if (revoked.putIfAbsent(row.getSessionId(), row.getRevokedAt()) == null) {
+                    newSessions.add(row.getSessionId());
+                    nextExpiry = min(nextExpiry, row.getRevokedAt().plus(retention));
+                }
+            }
+            boolean expired = !now.isBefore(nextExpiry) && removeExpired(now);
+            if (newSessions.isEmpty() && !expired) {
+                return;
+            }
+
+            version++;
+            snapshot = null;
+            delta = new Delta(version, newSessions.stream().mapToLong(Long::longValue).toArray());
+            deltas.addLast(delta);
+            if (deltas.size() > RETAINED_DELTAS) {
+                deltas.removeFirst();
+            }
+        }
+        for (Listener listener : listeners) {
+            listener.revoked(delta);
+        }
+    }
+
+    private boolean removeExpired(Instant now) {
+        Instant cutoff = now.minus(retention);
+        boolean removed = revoked.values().removeIf(revokedAt -> revokedAt.isBefore(cutoff));
+        nextExpiry = revoked.values().stream()
+                            .map(revokedAt -> revokedAt.plus(retention))
+                            .reduce(Instant.MAX, RevocationFeed::min);
+        return removed;
+    }
+
+    private static Instant min(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
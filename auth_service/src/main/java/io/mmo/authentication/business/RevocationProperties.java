@@ -0,0 +1,19 @@
+package io.mmo.authentication.business;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "auth.revocation")
+public class RevocationProperties {
+    private Duration pollInterval = Duration.ofSeconds(1);
+    private Duration retentionMargin = Duration.ofMinutes(1);
+    private Duration gapTimeout = Duration.ofSeconds(10);
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+    private Duration streamTimeout = Duration.ofMinutes(30);
+    private Duration cleanupInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,149 @@
+package io.mmo.authentication.business;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Binary form of the revoked sessions served to token validators, a Roaring-style set of session ids. Ids are split
+ * into their upper 48 bits, which key a container, and their lower 16 bits, which the container holds either as a
+ * sorted array of 16-bit values or, above {@value #ARRAY_MAX_CARDINALITY} values, as a 65536-bit bitmap. Session ids
+ * are allocated in order, so revocations cluster in few containers and a set costs about two bytes per id.
+ *
+ * <pre>
+ * snapshot  := magic:u32 'RVK1'  epoch:u64  version:u64  containers:u32  container*   (big-endian)
+ * container := key:u64  kind:u8  cardinality:u32  (value:u16 * cardinality | word:u64 * 1024)
+ * </pre>
+ *
+ * Containers are sorted by key; kind 0 is an array and kind 1 a bitmap.
+ */
+public final class RevocationSnapshot {
+
+    static final int MAGIC = 0x52564B31;
+    static final int ARRAY_MAX_CARDINALITY = 4096;
+    private static final int HEADER_BYTES = 24;
+    private static final int CONTAINER_HEADER_BYTES = 13;
+    private static final int BITMAP_WORDS = 1024;
+    private static final byte ARRAY = 0;
+    private static final byte BITMAP = 1;
+
+    private final long epoch;
+    private final long version;
+    private final long[] keys;
+    private final Object[] containers;
+    private final int cardinality;
+
+    private RevocationSnapshot(long epoch, long version, long[] keys, Object[] containers, int cardinality) {
+        this.epoch = epoch;
+        this.version = version;
+        this.keys = keys;
+        this.containers = containers;
+        this.cardinality = cardinality;
+    }
+
+    public long epoch() {
+        return epoch;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isRevoked(long sessionId) {
+        int index = Arrays.binarySearch(keys, sessionId >>> 16);
+        if (index < 0) {
+            return false;
+        }
+        char low = (char) sessionId;
+        return containers[index] instanceof char[] values
+                ? Arrays.binarySearch(values, low) >= 0
+                : (((long[]) containers[index])[low >>> 6] & (1L << low)) != 0;
+    }
+
+    /**
+     * @param sessionIds the revoked sessions, sorted ascending without duplicates
+     */
+    public static byte[] encode(long epoch, long version, long[] sessionIds) {
+        int size = HEADER_BYTES;
+        int containerCount = 0;
+        for (int start = 0; start < sessionIds.length; ) {
+            int end = containerEnd(sessionIds, start);
+            int count = end - start;
+            size += CONTAINER_HEADER_BYTES
+                    + (count > ARRAY_MAX_CARDINALITY ? BITMAP_WORDS * Long.BYTES : count * Character.BYTES);
+            containerCount++;
+            start = end;
+        }
+
+        var buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putLong(epoch).putLong(version).putInt(containerCount);
+        for (int start = 0; start < sessionIds.length; ) {
+            int end = containerEnd(sessionIds, start);
+            int count = end - start;
+            buffer.putLong(sessionIds[start] >>> 16);
+            if (count > ARRAY_MAX_CARDINALITY) {
+                buffer.put(BITMAP).putInt(count);
+                long[] words = new long[BITMAP_WORDS];
+                for (int i = start; i < end; i++) {
+                    char low = (char) sessionIds[i];
+                    words[low >>> 6] |= 1L << low;
+                }
+                for (long word : words) {
+                    buffer.putLong(word);
+                }
+            } else {
+                buffer.put(ARRAY).putInt(count);
+                for (int i = start; i < end; i++) {
+                    buffer.putChar((char) sessionIds[i]);
+                }
+            }
+            start = end;
+        }
+        return buffer.array();
+    }
+
+    public static RevocationSnapshot decode(byte[] bytes) {
+        var buffer = ByteBuffer.wrap(bytes);
+        if (bytes.length < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a revocation snapshot");
+        }
+        long epoch = buffer.getLong();
+        long version = buffer.getLong();
+        int containerCount = buffer.getInt();
+        long[] keys = new long[containerCount];
+        Object[] containers = new Object[containerCount];
+        int cardinality = 0;
+        for (int i = 0; i < containerCount; i++) {
+            keys[i] = buffer.getLong();
+            byte kind = buffer.get();
+            int count = buffer.getInt();
+            if (kind == ARRAY) {
+                char[] values = new char[count];
+                buffer.asCharBuffer().get(values);
+                buffer.position(buffer.position() + count * Character.BYTES);
+                containers[i] = values;
+            } else if (kind == BITMAP) {
+                long[] words = new long[BITMAP_WORDS];
+                buffer.asLongBuffer().get(words);
+                buffer.position(buffer.position() + BITMAP_WORDS * Long.BYTES);
+                containers[i] = words;
+            } else {
+                throw new IllegalArgumentException("Unknown container kind " + kind);
+            }
+            cardinality += count;
+        }
+        return new RevocationSnapshot(epoch, version, keys, containers, cardinality);
+    }
+
+    private static int containerEnd(long[] sessionIds, int start) {
+        long key = sessionIds[start] >>> 16;
+        int end = start + 1;
+        while (end < sessionIds.length && sessionIds[end] >>> 16 == key) {
+            end++;
+        }
+        return end;
+    }
+}
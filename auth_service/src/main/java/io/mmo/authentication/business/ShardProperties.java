@@ -0,0 +1,22 @@
+package io.mmo.authentication.business;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "auth.shards")
+public class ShardProperties {
+    private boolean enabled = true;
+    /**
+     * Shared with the game servers, which send it with every heartbeat; heartbeats are refused while it is empty.
+     */
+    private String heartbeatSecret = "";
+    private Duration refreshInterval = Duration.ofSeconds(1);
+    private Duration heartbeatTimeout = Duration.ofSeconds(10);
+    private int virtualNodes = 128;
+    private double balanceFactor = 1.25;
+}
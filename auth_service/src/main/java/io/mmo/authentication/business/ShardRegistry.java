@@ -0,0 +1,101 @@
+package io.mmo.authentication.business;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.mmo.authentication.database.GameShard;
+import io.mmo.authentication.database.GameShardRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The live game servers, for sending each player to one of them at login. Game servers report their load with a
+ * heartbeat to any auth instance, which stores it in {@code game_shards}; every instance reloads the servers that sent
+ * a heartbeat within {@code heartbeat-timeout} each {@code refresh-interval} and assigns players on a
+ * {@link ShardRing}. Without live servers players get no assignment and connect through the ingress as before.
+ * While assignment is disabled the table is not read.
+ */
+@Slf4j
+@Component
+public class ShardRegistry {
+
+    private final GameShardRepository repository;
+    private final ShardProperties properties;
+    private final Counter assigned;
+    private final Counter unassigned;
+    private volatile ShardRing ring;
+
+    public ShardRegistry(GameShardRepository repository, ShardProperties properties, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.properties = properties;
+        this.ring = new ShardRing(List.of(), properties.getVirtualNodes(), properties.getBalanceFactor());
+
+        this.assigned = assignmentCounter(meterRegistry, "assigned");
+        this.unassigned = assignmentCounter(meterRegistry, "unassigned");
+        Gauge.builder("auth.shards.live", this, registry -> registry.ring.size())
+             .register(meterRegistry);
+    }
+
+    @Transactional
+    public void heartbeat(String id, int load, int capacity) {
+        repository.save(GameShard.builder()
+                                 .id(id)
+                                 .load(load)
+                                 .capacity(capacity)
+                                 .lastHeartbeat(Instant.now())
+                                 .build());
+    }
+
+    /**
+     * The game server for the player, or null if no server is live or all are full.
+     */
+    public String assign(String username) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        String shard = ring.assign(username);
+        (shard != null ? assigned : unassigned).increment();
+        return shard;
+    }
+
+    @Scheduled(fixedDelayString = "${auth.shards.refresh-interval:1s}")
+    public void refresh() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(properties.getHeartbeatTimeout());
+        List<ShardRing.Member> members;
+        try {
+            members = repository.findByLastHeartbeatAfterOrderByIdAsc(cutoff)
+                                .stream()
+                                .map(shard -> new ShardRing.Member(shard.getId(),
+                                                                   shard.getLoad(),
+                                                                   shard.getCapacity(),
+                                                                   shard.getLastHeartbeat().toEpochMilli()))
+                                .toList();
+        } catch (DataAccessException e) {
+            log.warn("Reading game server heartbeats failed, keeping the last known servers: {}", e.getMessage());
+            return;
+        }
+
+        ShardRing current = ring;
+        if (current.hasSameMembers(members)) {
+            ring = current.withReports(members);
+        } else {
+            log.info("Game servers changed to {}", members.stream().map(ShardRing.Member::id).toList());
+            ring = new ShardRing(members, properties.getVirtualNodes(), properties.getBalanceFactor());
+        }
+    }
+
+    private static Counter assignmentCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("auth.shards.assignments")
+                      .tag("result", result)
+                      .register(meterRegistry);
+    }
+}
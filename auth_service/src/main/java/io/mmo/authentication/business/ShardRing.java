@@ -0,0 +1,143 @@
+package io.mmo.authentication.business;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Consistent hashing with bounded loads over the live game servers. Every server owns {@code virtualNodes} points on
+ * a 64-bit ring, and a player hashes to the next point clockwise; servers whose load has reached
+ * {@code balanceFactor} times the average, or their own capacity, are passed over for the next point. A player
+ * therefore lands on the same server for as long as it is up and not overloaded, and only the players of a server
+ * that leaves, or that is over the bound, move. Points depend on nothing but the server and player names, so
+ * assignments survive restarts of both sides.
+ * <p>
+ * A ring is immutable apart from the assignments counted since the last load report, and is replaced when the reports
+ * change; {@link #assign} only reads arrays and increments counters. Concurrent assignments may overshoot the bound by
+ * the number of racing threads.
+ */
+public final class ShardRing {
+
+    /**
+     * A live game server and its last report.
+     */
+    public record Member(String id, int load, int capacity, long reportedAt) {
+    }
+
+    private final Member[] members;
+    private final long[] points;
+    private final int[] owners;
+    private final double balanceFactor;
+    private final long reportedLoad;
+    private final AtomicIntegerArray assigned;
+    private final AtomicLong assignedTotal;
+
+    public ShardRing(List<Member> members, int virtualNodes, double balanceFactor) {
+        this.members = members.toArray(Member[]::new);
+        this.balanceFactor = balanceFactor;
+        this.reportedLoad = members.stream().mapToLong(Member::load).sum();
+        this.assigned = new AtomicIntegerArray(this.members.length);
+        this.assignedTotal = new AtomicLong();
+
+        long[] keyed = new long[this.members.length * virtualNodes];
+        for (int member = 0; member < this.members.length; member++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                keyed[member * virtualNodes + node] = hash(this.members[member].id() + '#' + node);
+            }
+        }
+        Integer[] order = new Integer[keyed.length];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, (a, b) -> Long.compare(keyed[a], keyed[b]));
+        this.points = new long[keyed.length];
+        this.owners = new int[keyed.length];
+        for (int i = 0; i < order.length; i++) {
+            points[i] = keyed[order[i]];
+            owners[i] = order[i] / virtualNodes;
+        }
+    }
+
+    private ShardRing(ShardRing previous, Member[] members) {
+        this.members = members;
+        this.points = previous.points;
+        this.owners = previous.owners;
+        this.balanceFactor = previous.balanceFactor;
+        this.reportedLoad = Arrays.stream(members).mapToLong(Member::load).sum();
+        this.assigned = new AtomicIntegerArray(members.length);
+        long carried = 0;
+        for (int i = 0; i < members.length; i++) {
+            // Players assigned since a server's last report are not in its load yet.
+            if (members[i].reportedAt() == previous.members[i].reportedAt()) {
+                assigned.set(i, previous.assigned.get(i));
+                carried += previous.assigned.get(i);
+            }
+        }
+        this.assignedTotal = new AtomicLong(carried);
+    }
+
+    /**
+     * The ring for new reports of the same servers keeps its points; other servers need a new ring.
+     *
+     * @param members the servers, in the order of this ring
+     */
+    public ShardRing withReports(List<Member> members) {
+        return new ShardRing(this, members.toArray(Member[]::new));
+    }
+
+    public boolean hasSameMembers(List<Member> members) {
+        if (members.size() != this.members.length) {
+            return false;
+        }
+        for (int i = 0; i < this.members.length; i++) {
+            if (!this.members[i].id().equals(members.get(i).id())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        return members.length;
+    }
+
+    /**
+     * The server for the player, counted towards its load, or null if every server is full.
+     */
+    public String assign(String username) {
+        if (members.length == 0) {
+            return null;
+        }
+        long total = reportedLoad + assignedTotal.get();
+        double bound = balanceFactor * (total + 1) / members.length;
+        int start = Arrays.binarySearch(points, hash(username));
+        start = start >= 0 ? start : -start - 1;
+        for (int i = 0; i < points.length; i++) {
+            int member = owners[(start + i) % points.length];
+            int load = members[member].load() + assigned.get(member);
+            if (load < bound && load < members[member].capacity()) {
+                assigned.incrementAndGet(member);
+                assignedTotal.incrementAndGet();
+                return members[member].id();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * FNV-1a over the UTF-16 code units, finished with the MurmurHash3 mixer so short, similar names spread over the
+     * whole ring.
+     */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
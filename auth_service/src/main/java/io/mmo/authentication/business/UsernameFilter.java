@@ -0,0 +1,163 @@
+package io.mmo.authentication.business;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.mmo.authentication.database.CredentialChangeChannel;
+import io.mmo.authentication.database.UserCredentialsJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bloom filter of every existing username, so logins for names that were never registered are rejected without a
+ * database round trip. It is built by streaming {@code user_credentials} once the application starts and rebuilt on
+ * {@code rebuild-interval} to pick up users inserted by the bulk importer. Registrations are added as they commit and
+ * announced to the other replicas over {@link CredentialChangeChannel}, which add them too. Until the first build
+ * completes, and after announcements may have been missed until the next build completes, every name is reported as
+ * possibly present.
+ */
+@Slf4j
+@Component
+public class UsernameFilter implements CredentialChangeChannel.Listener {
+
+    private final boolean enabled;
+    private final UsernameFilterProperties properties;
+    private final UserCredentialsJdbcRepository jdbcRepository;
+    private final CredentialChangeChannel changeChannel;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Counter definiteMisses;
+    private final Counter possibleHits;
+    private volatile BloomFilter current;
+    private volatile BloomFilter building;
+    private volatile long missedGeneration;
+    private volatile long builtGeneration;
+
+    public UsernameFilter(UsernameFilterProperties properties,
+                          UserCredentialsJdbcRepository jdbcRepository,
+                          CredentialChangeChannel changeChannel,
+                          MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.properties = properties;
+        this.jdbcRepository = jdbcRepository;
+        this.changeChannel = changeChannel;
+        this.definiteMisses = Counter.builder("auth.username-filter.requests")
+                                     .tag("result", "definite-miss")
+                                     .register(meterRegistry);
+        this.possibleHits = Counter.builder("auth.username-filter.requests")
+                                   .tag("result", "possible-hit")
+                                   .register(meterRegistry);
+        Gauge.builder("auth.username-filter.memory", this, filter -> filter.current == null ? 0 : filter.current.sizeInBytes())
+             .baseUnit("bytes")
+             .register(meterRegistry);
+        Gauge.builder("auth.username-filter.memory.per-million-users", this, UsernameFilter::bytesPerMillionUsers)
+             .baseUnit("bytes")
+             .register(meterRegistry);
+        Gauge.builder("auth.username-filter.false-positive-rate", this,
+                      filter -> filter.current == null ? 1 : filter.current.expectedFalsePositiveRate())
+             .register(meterRegistry);
+
+        if (enabled) {
+            changeChannel.subscribe(this);
+        }
+    }
+
+    /**
+     * Returns {@code false} only if the username definitely does not exist.
+     */
+    public boolean mightContain(String username) {
+        var filter = current;
+        if (!enabled || filter == null || builtGeneration != missedGeneration) {
+            return true;
+        }
+        if (filter.mightContain(username)) {
+            possibleHits.increment();
+            return true;
+        }
+        definiteMisses.increment();
+        return false;
+    }
+
+    /**
+     * Records a username whose insert has committed, here and on all other replicas. If the announcement fails, the
+     * other replicas pick the user up on their next rebuild.
+     */
+    public void add(String username) {
+        if (!enabled) {
+            return;
+        }
+        addLocally(username);
+        try {
+            changeChannel.publishRegistration(instanceId, username);
+        } catch (DataAccessException e) {
+            log.warn("Could not announce the registration of {} to other replicas: {}", username, e.getMessage());
+        }
+    }
+
+    @Override
+    public void registered(String origin, String username) {
+        if (!instanceId.equals(origin)) {
+            addLocally(username);
+        }
+    }
+
+    @Override
+    public void changed(String origin, String username) {
+    }
+
+    @Override
+    public void missedChanges() {
+        log.info("Registrations on other replicas may have been missed, "
+                 + "not filtering usernames until the next rebuild");
+        missedGeneration++;
+    }
+
+    private void addLocally(String username) {
+        var next = building;
+        if (next != null) {
+            next.add(username);
+        }
+        var filter = current;
+        if (filter != null) {
+            filter.add(username);
+        }
+    }
+
+    /**
+     * Builds a fresh filter and swaps it in. Users added while the build streams are written to both filters, and
+     * {@link #add} checks the building filter first, so an insert that commits after the scan's snapshot still
+     * reaches the filter that gets published.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${auth.username-filter.rebuild-interval:10m}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        long generation = missedGeneration;
+        long users = jdbcRepository.countUsers();
+        long capacity = Math.max(properties.getExpectedUsers(), (long) (users * properties.getHeadroom()));
+        var next = new BloomFilter(capacity, properties.getFalsePositiveRate());
+        building = next;
+        try {
+            jdbcRepository.forEachUsername(next::add);
+            current = next;
+            builtGeneration = generation;
+        } finally {
+            building = null;
+        }
+        log.info("Built username filter for {} users ({} KiB, {} hash functions) in {} ms",
+                 users, next.sizeInBytes() / 1024, next.hashFunctions(),
+                 TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private double bytesPerMillionUsers() {
+        var filter = current;
+        return filter == null ? 0 : filter.sizeInBytes() * 1_000_000.0 / filter.expectedEntries();
+    }
+}
@@ -0,0 +1,18 @@
+package io.mmo.authentication.business;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "auth.username-filter")
+public class UsernameFilterProperties {
+    private boolean enabled = false;
+    private long expectedUsers = 1_000_000;
+    private double falsePositiveRate = 0.01;
+    private double headroom = 2.0;
+    private Duration rebuildInterval = Duration.ofMinutes(10);
+}
@@ -0,0 +1,120 @@
+package io.mmo.authentication.business;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Remembers recently verified credentials so repeat logins within the TTL skip the full password hash check.
+ * Entries hold an HMAC of the password under a random per-process key, never the plaintext, and are bound to the
+ * stored password hash they were verified against, so any change of the stored hash invalidates them.
+ * The HMAC is far cheaper to brute-force than the stored hash, which is why the cache is opt-in.
+ */
+@Component
+public class VerifiedCredentialCache {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final boolean enabled;
+    private final Cache<String, VerifiedCredential> cache;
+    private final SecretKeySpec digestKey;
+    private final ThreadLocal<Mac> platformMac = ThreadLocal.withInitial(this::newMac);
+    private final ArrayBlockingQueue<Mac> virtualMacs = new ArrayBlockingQueue<>(256);
+    private final Counter hits;
+    private final Counter misses;
+
+    public VerifiedCredentialCache(CredentialCacheProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                             .maximumSize(properties.getMaxSize())
+                             .expireAfterWrite(properties.getTtl())
+                             .build();
+
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.digestKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+
+        this.hits = Counter.builder("auth.credential-cache.requests")
+                           .tag("result", "hit")
+                           .register(meterRegistry);
+        this.misses = Counter.builder("auth.credential-cache.requests")
+                             .tag("result", "miss")
+                             .register(meterRegistry);
+        Gauge.builder("auth.credential-cache.size", cache, Cache::estimatedSize)
+             .register(meterRegistry);
+    }
+
+    public boolean isVerified(String username, String password, String passwordHash) {
+        if (!enabled) {
+            return false;
+        }
+
+        var entry = cache.getIfPresent(username);
+        if (entry == null || !entry.passwordHash().equals(passwordHash)) {
+            misses.increment();
+            return false;
+        }
+
+        if (!MessageDigest.isEqual(entry.passwordDigest(), digest(username, password))) {
+            misses.increment();
+            return false;
+        }
+
+        hits.increment();
+        return true;
+    }
+
+    public void remember(String username, String password, String passwordHash) {
+        if (enabled) {
+            cache.put(username, new VerifiedCredential(passwordHash, digest(username, password)));
+        }
+    }
+
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+
+    private byte[] digest(String username, String password) {
+        // Logins run on virtual threads, which would each build a Mac of their own, so those share a small pool.
+        boolean virtual = Thread.currentThread().isVirtual();
+        Mac instance = virtual ? borrowMac() : platformMac.get();
+        try {
+            instance.update(username.getBytes(StandardCharsets.UTF_8));
+            instance.update((byte) 0);
+            return instance.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            if (virtual) {
+                virtualMacs.offer(instance);
+            }
+        }
+    }
+
+    private Mac borrowMac() {
+        Mac instance = virtualMacs.poll();
+        return instance != null ? instance : newMac();
+    }
+
+    private Mac newMac() {
+        try {
+            var instance = Mac.getInstance(HMAC_ALGORITHM);
+            instance.init(digestKey);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private record VerifiedCredential(String passwordHash, byte[] passwordDigest) {
+    }
+}
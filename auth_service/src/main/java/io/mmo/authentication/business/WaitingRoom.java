@@ -0,0 +1,345 @@
+package io.mmo.authentication.business;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First-come, first-served line for logins that arrive while the service is saturated. A player in line holds a
+ * ticket and asks for its status until the ticket is admitted, then logs in once with it; tickets are admitted in the
+ * order they were issued, at {@code capacity-share} of the hashes per second the {@link PasswordHashingExecutor}
+ * measures, so the line moves exactly as fast as logins can be served and nobody has to retry.
+ * <p>
+ * Tickets are numbered in sequence and live in a ring of {@code max-waiters} slots holding a random tag, which makes
+ * the ticket unguessable, and a deadline; that is 12 bytes per waiter. A waiting ticket that is not asked about within
+ * {@code poll-timeout} is abandoned and skipped without using up admissions, and an admitted ticket that is not used
+ * within {@code admission-timeout} expires. The line is per instance, so with several replicas a player has to keep
+ * talking to the instance that issued the ticket.
+ * <p>
+ * Admission rounds run every {@code admission-interval} on a thread of their own rather than on the shared scheduler,
+ * whose database work slows down exactly when the line is in use.
+ */
+@Slf4j
+@Component
+public class WaitingRoom {
+
+    private static final Base64.Encoder TICKET_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder TICKET_DECODER = Base64.getUrlDecoder();
+    private static final int TICKET_BYTES = 2 * Long.BYTES;
+
+    public enum State {
+        WAITING,
+        ADMITTED,
+        UNKNOWN
+    }
+
+    /**
+     * Where a ticket stands: while waiting, its place in line counting from 1 and the expected wait.
+     */
+    public record Status(State state, long position, long estimatedWaitSeconds) {
+    }
+
+    public record Ticket(String id, Status status) {
+    }
+
+    private static final Status ADMITTED = new Status(State.ADMITTED, 0, 0);
+    private static final Status UNKNOWN = new Status(State.UNKNOWN, 0, 0);
+
+    private final boolean enabled;
+    private final WaitingRoomProperties properties;
+    private final PasswordHashingExecutor hashingExecutor;
+    private final Ticker ticker;
+    private final SecureRandom random = new SecureRandom();
+    private final int capacity;
+    private final int pollTimeoutMillis;
+    private final int admissionTimeoutMillis;
+    private final Counter issued;
+    private final Counter admitted;
+    private final Counter abandoned;
+    private final Counter redeemed;
+    private final Counter rejected;
+
+    // Guarded by this. Tickets numbered below head have been admitted or abandoned, and those from head up to tail
+    // are in line. Ticket n lives in slot n % capacity until the tail is capacity tickets past it; a tag of 0 marks a
+    // ticket that was used or abandoned. Deadlines are milliseconds of the ticker, compared with wrap-around.
+    private final long[] tags;
+    private final int[] deadlines;
+    private final TreeMap<Long, CompletableFuture<Status>> parked = new TreeMap<>();
+    private volatile long head;
+    private volatile long tail;
+    private volatile double rate;
+    private double credit;
+    private long lastAdmission;
+    private ScheduledExecutorService admitter;
+
+    @Autowired
+    public WaitingRoom(WaitingRoomProperties properties,
+                       PasswordHashingExecutor hashingExecutor,
+                       MeterRegistry meterRegistry) {
+        this(properties, hashingExecutor, meterRegistry, Ticker.systemTicker());
+    }
+
+    WaitingRoom(WaitingRoomProperties properties,
+                PasswordHashingExecutor hashingExecutor,
+                MeterRegistry meterRegistry,
+                Ticker ticker) {
+        this.enabled = properties.isEnabled();
+        this.properties = properties;
+        this.hashingExecutor = hashingExecutor;
+        this.ticker = ticker;
+        this.capacity = enabled ? properties.getMaxWaiters() : 0;
+        this.pollTimeoutMillis = (int) properties.getPollTimeout().toMillis();
+        this.admissionTimeoutMillis = (int) properties.getAdmissionTimeout().toMillis();
+        this.tags = new long[capacity];
+        this.deadlines = new int[capacity];
+        this.rate = properties.getInitialRate();
+        this.lastAdmission = ticker.read();
+
+        this.issued = ticketCounter(meterRegistry, "issued");
+        this.admitted = ticketCounter(meterRegistry, "admitted");
+        this.abandoned = ticketCounter(meterRegistry, "abandoned");
+        this.redeemed = ticketCounter(meterRegistry, "redeemed");
+        this.rejected = ticketCounter(meterRegistry, "rejected");
+        Gauge.builder("auth.waiting-room.waiting", this, WaitingRoom::waiting)
+             .register(meterRegistry);
+        Gauge.builder("auth.waiting-room.admission-rate", this, room -> room.rate)
+             .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        long intervalNanos = properties.getAdmissionInterval().toNanos();
+        admitter = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("waiting-room-admission").daemon(true).factory());
+        admitter.scheduleWithFixedDelay(() -> {
+            try {
+                admit();
+            } catch (RuntimeException e) {
+                log.warn("Waiting room admission round failed", e);
+            }
+        }, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (admitter != null) {
+            admitter.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether tickets are in line; new logins then queue behind them even if the service has room.
+     */
+    public boolean hasWaiters() {
+        return head < tail;
+    }
+
+    public long waiting() {
+        return tail - head;
+    }
+
+    /**
+     * Puts a player at the end of the line, or returns null if the line is full.
+     */
+    public synchronized Ticket enqueue() {
+        if (tail - head >= capacity) {
+            rejected.increment();
+            return null;
+        }
+        long sequence = tail;
+        int slot = slot(sequence);
+        long tag = random.nextLong();
+        tags[slot] = tag != 0 ? tag : 1;
+        deadlines[slot] = nowMillis() + pollTimeoutMillis;
+        tail = sequence + 1;
+        issued.increment();
+        return new Ticket(encode(sequence, tags[slot]), waitingStatus(sequence));
+    }
+
+    /**
+     * The ticket's status; asking for it keeps a waiting ticket in line for another {@code poll-timeout}.
+     */
+    public synchronized Status status(String ticket) {
+        return lookup(ticket, false);
+    }
+
+    /**
+     * Uses an admitted ticket up, so it lets exactly one login through. Tickets that are not admitted are left as
+     * they are.
+     */
+    public synchronized Status redeem(String ticket) {
+        return lookup(ticket, true);
+    }
+
+    /**
+     * The ticket's status once it is admitted, or after at most {@code wait}, capped at {@code max-wait}. A ticket
+     * stays in line while its caller waits; a newer wait for the same ticket ends the older one.
+     */
+    public CompletableFuture<Status> awaitAdmission(String ticket, Duration wait) {
+        long waitMillis = Math.min(wait.toMillis(), properties.getMaxWait().toMillis());
+        var admission = new CompletableFuture<Status>();
+        CompletableFuture<Status> replaced;
+        long sequence;
+        synchronized (this) {
+            Status status = lookup(ticket, false);
+            if (status.state() != State.WAITING || waitMillis <= 0) {
+                return CompletableFuture.completedFuture(status);
+            }
+            sequence = ByteBuffer.wrap(TICKET_DECODER.decode(ticket)).getLong();
+            deadlines[slot(sequence)] = nowMillis() + (int) waitMillis + pollTimeoutMillis;
+            replaced = parked.put(sequence, admission);
+        }
+        if (replaced != null) {
+            replaced.complete(status(ticket));
+        }
+        return admission.completeOnTimeout(null, waitMillis, TimeUnit.MILLISECONDS)
+                        .thenApply(status -> {
+                            if (status != null) {
+                                return status;
+                            }
+                            synchronized (this) {
+                                parked.remove(sequence, admission);
+                            }
+                            return status(ticket);
+                        });
+    }
+
+    /**
+     * How long a player who asks again without waiting should pause: the expected wait, but well within the poll
+     * timeout.
+     */
+    public long pollAfterSeconds(Status status) {
+        long limit = Math.max(1, properties.getPollTimeout().toSeconds() / 3);
+        return Math.max(1, Math.min(status.estimatedWaitSeconds(), limit));
+    }
+
+    /**
+     * Admits the tickets at the front of the line that the hashing threads can serve since the last round, skipping
+     * abandoned ones. Hashing work still queued counts against the round, and at most half a second of admissions is
+     * saved up while players are slow to come back.
+     */
+    public void admit() {
+        if (!enabled) {
+            return;
+        }
+        List<CompletableFuture<Status>> woken = new ArrayList<>();
+        synchronized (this) {
+            long now = ticker.read();
+            double elapsedSeconds = (now - lastAdmission) / 1e9;
+            lastAdmission = now;
+            double measured = hashingExecutor.capacityPerSecond();
+            rate = measured > 0 ? measured * properties.getCapacityShare() : properties.getInitialRate();
+            credit = Math.min(credit + rate * elapsedSeconds, Math.max(1, rate / 2));
+
+            double allowance = credit - hashingExecutor.queued();
+            int nowMillis = nowMillis();
+            while (head < tail) {
+                int slot = slot(head);
+                if (tags[slot] != 0 && !expired(slot, nowMillis)) {
+                    if (allowance < 1) {
+                        break;
+                    }
+                    deadlines[slot] = nowMillis + admissionTimeoutMillis;
+                    allowance--;
+                    credit--;
+                    admitted.increment();
+                } else {
+                    tags[slot] = 0;
+                    abandoned.increment();
+                }
+                head++;
+            }
+            var ready = parked.headMap(head);
+            woken.addAll(ready.values());
+            ready.clear();
+        }
+        woken.forEach(admission -> admission.complete(ADMITTED));
+    }
+
+    private Status lookup(String ticket, boolean redeem) {
+        if (!enabled) {
+            return UNKNOWN;
+        }
+        byte[] bytes;
+        try {
+            bytes = TICKET_DECODER.decode(ticket);
+        } catch (IllegalArgumentException e) {
+            return UNKNOWN;
+        }
+        if (bytes.length != TICKET_BYTES) {
+            return UNKNOWN;
+        }
+        var buffer = ByteBuffer.wrap(bytes);
+        long sequence = buffer.getLong();
+        long tag = buffer.getLong();
+        if (sequence < 0 || sequence >= tail || sequence < tail - capacity) {
+            return UNKNOWN;
+        }
+        int slot = slot(sequence);
+        int now = nowMillis();
+        if (tag == 0 || tags[slot] != tag || expired(slot, now)) {
+            return UNKNOWN;
+        }
+        if (sequence < head) {
+            if (redeem) {
+                tags[slot] = 0;
+                redeemed.increment();
+            }
+            return ADMITTED;
+        }
+        deadlines[slot] = Math.max(deadlines[slot] - now, pollTimeoutMillis) + now;
+        return waitingStatus(sequence);
+    }
+
+    private Status waitingStatus(long sequence) {
+        long position = sequence - head + 1;
+        return new Status(State.WAITING, position, (long) Math.ceil(position / rate));
+    }
+
+    private boolean expired(int slot, int nowMillis) {
+        return nowMillis - deadlines[slot] > 0;
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % capacity);
+    }
+
+    private int nowMillis() {
+        return (int) TimeUnit.NANOSECONDS.toMillis(ticker.read());
+    }
+
+    private static String encode(long sequence, long tag) {
+        return TICKET_ENCODER.encodeToString(ByteBuffer.allocate(TICKET_BYTES).putLong(sequence).putLong(tag).array());
+    }
+
+    private static Counter ticketCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("auth.waiting-room.tickets")
+                      .tag("result", result)
+                      .register(meterRegistry);
+    }
+}
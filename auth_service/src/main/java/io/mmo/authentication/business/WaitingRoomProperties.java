@@ -0,0 +1,21 @@
+package io.mmo.authentication.business;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "auth.waiting-room")
+public class WaitingRoomProperties {
+    private boolean enabled = false;
+    private int maxWaiters = 500_000;
+    private Duration pollTimeout = Duration.ofSeconds(30);
+    private Duration admissionTimeout = Duration.ofSeconds(30);
+    private Duration admissionInterval = Duration.ofMillis(100);
+    private Duration maxWait = Duration.ofSeconds(20);
+    private double capacityShare = 0.9;
+    private double initialRate = 10;
+}
@@ -0,0 +1,7 @@
+package io.mmo.authentication.business.exceptions;
+
+public class InvalidTokenException extends RuntimeException {
+    public InvalidTokenException() {
+        super("Invalid or expired refresh token");
+    }
+}
@@ -0,0 +1,14 @@
+package io.mmo.authentication.business.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(long retryAfterSeconds) {
+        super("Service is overloaded, please retry later");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
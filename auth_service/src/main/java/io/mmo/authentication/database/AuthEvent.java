@@ -0,0 +1,44 @@
+package io.mmo.authentication.database;
+
+import java.time.Instant;
+
+/**
+ * One entry of the auth event log. {@code username} is null and {@code dropped} counts the events lost to a full
+ * buffer since the previous entry for {@link Type#EVENTS_DROPPED}; for all other types {@code dropped} is 0.
+ */
+public record AuthEvent(Type type, long timestampMillis, String username, int dropped) {
+
+    public enum Type {
+        LOGIN_SUCCEEDED(1),
+        LOGIN_FAILED(2),
+        REGISTERED(3),
+        EVENTS_DROPPED(4);
+
+        private static final Type[] BY_CODE = {null, LOGIN_SUCCEEDED, LOGIN_FAILED, REGISTERED, EVENTS_DROPPED};
+
+        private final byte code;
+
+        Type(int code) {
+            this.code = (byte) code;
+        }
+
+        byte code() {
+            return code;
+        }
+
+        static Type ofCode(byte code) {
+            if (code <= 0 || code >= BY_CODE.length) {
+                throw new IllegalArgumentException("Unknown auth event type " + code);
+            }
+            return BY_CODE[code];
+        }
+    }
+
+    public static AuthEvent of(Type type, String username) {
+        return new AuthEvent(type, System.currentTimeMillis(), username, 0);
+    }
+
+    public Instant timestamp() {
+        return Instant.ofEpochMilli(timestampMillis);
+    }
+}
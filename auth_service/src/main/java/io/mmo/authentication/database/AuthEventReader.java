@@ -0,0 +1,129 @@
+package io.mmo.authentication.database;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Reads the segments written by {@link AuthEventSegmentWriter} in order, including the one still being written.
+ * {@link #poll()} returns null when no further event has been written yet, so a caller can poll again later to
+ * follow the log. Segments deleted by retention before the reader got to them are skipped.
+ */
+public class AuthEventReader implements Closeable {
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("auth-events-(\\d{12})\\.seg");
+
+    private final Path directory;
+    private long segmentIndex;
+    private MappedByteBuffer buffer;
+    private long baseTimestamp;
+
+    public AuthEventReader(Path directory) {
+        this.directory = directory;
+    }
+
+    public AuthEvent poll() throws IOException {
+        while (true) {
+            if (buffer == null && !openNextSegment()) {
+                return null;
+            }
+            var event = read();
+            if (event != null) {
+                return event;
+            }
+            if (!hasNewerSegment()) {
+                return null;
+            }
+            // The writer finishes a segment before it creates the next one.
+            event = read();
+            if (event != null) {
+                return event;
+            }
+            buffer = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        buffer = null;
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> SEGMENT_NAME.matcher(file.getFileName().toString()).matches())
+                        .sorted()
+                        .toList();
+        }
+    }
+
+    static long segmentIndex(Path segment) {
+        var matcher = SEGMENT_NAME.matcher(segment.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Not an auth event segment: " + segment);
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    static String segmentName(long index) {
+        return "auth-events-%012d.seg".formatted(index);
+    }
+
+    private AuthEvent read() {
+        int position = buffer.position();
+        if (position >= buffer.limit() || buffer.get(position) == 0) {
+            return null;
+        }
+        var type = AuthEvent.Type.ofCode(buffer.get(position));
+        long timestamp = baseTimestamp + buffer.getInt(position + 1);
+        if (type == AuthEvent.Type.EVENTS_DROPPED) {
+            buffer.position(position + AuthEventSegmentWriter.DROPPED_RECORD_BYTES);
+            return new AuthEvent(type, timestamp, null, buffer.getInt(position + 5));
+        }
+        int length = Short.toUnsignedInt(buffer.getShort(position + 5));
+        byte[] username = new byte[length];
+        buffer.get(position + AuthEventSegmentWriter.RECORD_HEADER_BYTES, username);
+        buffer.position(position + AuthEventSegmentWriter.RECORD_HEADER_BYTES + length);
+        return new AuthEvent(type, timestamp, new String(username, StandardCharsets.UTF_8), 0);
+    }
+
+    private boolean openNextSegment() throws IOException {
+        for (Path segment : segments(directory)) {
+            long index = segmentIndex(segment);
+            if (index <= segmentIndex) {
+                continue;
+            }
+            MappedByteBuffer mapped;
+            try (var channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (NoSuchFileException e) {
+                continue;
+            }
+            if (mapped.limit() < AuthEventSegmentWriter.HEADER_BYTES || mapped.getInt(0) == 0) {
+                // Created, but its header is not written yet.
+                return false;
+            }
+            if (mapped.getInt() != AuthEventSegmentWriter.MAGIC || mapped.getInt() != AuthEventSegmentWriter.VERSION) {
+                throw new IOException("Not an auth event segment of version "
+                                      + AuthEventSegmentWriter.VERSION + ": " + segment);
+            }
+            segmentIndex = index;
+            baseTimestamp = mapped.getLong();
+            buffer = mapped;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean hasNewerSegment() throws IOException {
+        return segments(directory).stream().anyMatch(segment -> segmentIndex(segment) > segmentIndex);
+    }
+}
@@ -0,0 +1,123 @@
+package io.mmo.authentication.database;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends auth events to memory-mapped segment files of a fixed size, {@code auth-events-<index>.seg}. Each segment
+ * starts with a 16-byte header (magic, format version, base timestamp in epoch milliseconds) followed by records:
+ *
+ * <pre>
+ * type:1  timestamp delta to the base, ms:4  username length:2  username, UTF-8
+ * type:1  timestamp delta to the base, ms:4  dropped events:4                   (EVENTS_DROPPED)
+ * </pre>
+ *
+ * The type byte of a record is written after its body, and the unwritten rest of a segment is zero, so a reader
+ * stops at the first zero type. A segment is never reopened for writing: a full segment, and every restart, starts
+ * a new one, and only the newest {@code retainedSegments} are kept. Written events survive a crash of the process;
+ * {@link #force()} makes them survive a crash of the host.
+ */
+public class AuthEventSegmentWriter implements Closeable {
+
+    static final int MAGIC = 0x41455654;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int MAX_USERNAME_BYTES = 0xFFFF;
+    static final int RECORD_HEADER_BYTES = 7;
+    static final int DROPPED_RECORD_BYTES = 9;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int retainedSegments;
+    private long segmentIndex;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long baseTimestamp;
+
+    public AuthEventSegmentWriter(Path directory, int segmentBytes, int retainedSegments) throws IOException {
+        if (segmentBytes < HEADER_BYTES + RECORD_HEADER_BYTES + MAX_USERNAME_BYTES) {
+            throw new IllegalArgumentException("Segments must hold at least one record of the longest username");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.retainedSegments = Math.max(1, retainedSegments);
+        Files.createDirectories(directory);
+        List<Path> existing = AuthEventReader.segments(directory);
+        this.segmentIndex = existing.isEmpty() ? 0 : AuthEventReader.segmentIndex(existing.getLast());
+        openNextSegment(System.currentTimeMillis());
+    }
+
+    public void append(AuthEvent event) throws IOException {
+        byte[] username = event.type() == AuthEvent.Type.EVENTS_DROPPED ? null : encode(event.username());
+        int size = username == null ? DROPPED_RECORD_BYTES : RECORD_HEADER_BYTES + username.length;
+        long delta = event.timestampMillis() - baseTimestamp;
+        if (buffer.remaining() < size || delta != (int) delta) {
+            openNextSegment(event.timestampMillis());
+            delta = 0;
+        }
+
+        int position = buffer.position();
+        buffer.putInt(position + 1, (int) delta);
+        if (username == null) {
+            buffer.putInt(position + 5, event.dropped());
+        } else {
+            buffer.putShort(position + 5, (short) username.length);
+            buffer.put(position + RECORD_HEADER_BYTES, username);
+        }
+        buffer.put(position, event.type().code());
+        buffer.position(position + size);
+    }
+
+    public void force() {
+        buffer.force();
+    }
+
+    public Path currentSegment() {
+        return segmentPath(segmentIndex);
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private void openNextSegment(long baseTimestamp) throws IOException {
+        if (channel != null) {
+            close();
+        }
+        segmentIndex++;
+        this.channel = FileChannel.open(segmentPath(segmentIndex),
+                                        StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        this.baseTimestamp = baseTimestamp;
+        buffer.putLong(8, baseTimestamp).putInt(4, VERSION).putInt(0, MAGIC).position(HEADER_BYTES);
+        deleteExpiredSegments();
+    }
+
+    private void deleteExpiredSegments() throws IOException {
+        List<Path> segments = AuthEventReader.segments(directory);
+        for (int i = 0; i < segments.size() - retainedSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(AuthEventReader.segmentName(index));
+    }
+
+    private static byte[] encode(String username) {
+        byte[] bytes = username.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_USERNAME_BYTES) {
+            return bytes;
+        }
+        return new String(bytes, 0, MAX_USERNAME_BYTES, StandardCharsets.UTF_8).getBytes(StandardCharsets.UTF_8);
+    }
+}
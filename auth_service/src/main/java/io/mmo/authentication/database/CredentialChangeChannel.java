@@ -0,0 +1,163 @@
+package io.mmo.authentication.database;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tells every auth replica that the stored credentials of a user changed. On Postgres changes travel over
+ * {@code NOTIFY} on the {@value #CHANNEL} channel, and a background thread {@code LISTEN}s on a connection of its
+ * own, taken from the pool for as long as there are listeners. Other databases have no cross-process channel, so
+ * changes are only delivered to listeners in the same process, which stands in for several replicas in tests.
+ * Each change names the replica it came from, so a replica can ignore its own. Registrations travel on the same
+ * channel, marked with a leading {@value #REGISTRATION_MARK}, so replicas that only know about changes treat them
+ * as a change to a user they have not cached.
+ */
+@Slf4j
+@Component
+public class CredentialChangeChannel {
+
+    static final String CHANNEL = "auth_credential_changes";
+    private static final char REGISTRATION_MARK = '+';
+    private static final String NOTIFY_SQL = "select pg_notify('" + CHANNEL + "', ?)";
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+    private static final long RECONNECT_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    /**
+     * Receives changes from all replicas, including the one that sent them.
+     */
+    public interface Listener {
+
+        void changed(String origin, String username);
+
+        /**
+         * Called when a user was registered.
+         */
+        default void registered(String origin, String username) {
+        }
+
+        /**
+         * Called after the connection to the channel was lost and restored; changes in between were not delivered.
+         */
+        void missedChanges();
+    }
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private Thread receiver;
+    private volatile boolean running = true;
+
+    public CredentialChangeChannel(DataSource dataSource, JdbcTemplate jdbcTemplate) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public synchronized void subscribe(Listener listener) {
+        listeners.add(listener);
+        if (receiver == null) {
+            receiver = Thread.ofPlatform().name("credential-change-receiver").daemon(true).start(this::receive);
+        }
+    }
+
+    public void publish(String origin, String username) {
+        send(origin + ':' + username);
+    }
+
+    public void publishRegistration(String origin, String username) {
+        send(REGISTRATION_MARK + origin + ':' + username);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        running = false;
+        if (receiver != null) {
+            receiver.interrupt();
+        }
+    }
+
+    private void receive() {
+        boolean reconnect = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                if (!connection.isWrapperFor(PGConnection.class)) {
+                    return;
+                }
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("listen " + CHANNEL);
+                }
+                if (reconnect) {
+                    listeners.forEach(Listener::missedChanges);
+                }
+                var pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        deliver(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Listening for credential changes failed, retrying in {} ms", RECONNECT_DELAY_MILLIS, e);
+                reconnect = true;
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void send(String payload) {
+        boolean sent = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!connection.isWrapperFor(PGConnection.class)) {
+                return false;
+            }
+            try (PreparedStatement statement = connection.prepareStatement(NOTIFY_SQL)) {
+                statement.setString(1, payload);
+                statement.execute();
+            }
+            return true;
+        });
+        if (!sent) {
+            deliver(payload);
+        }
+    }
+
+    private void deliver(String payload) {
+        boolean registration = payload.charAt(0) == REGISTRATION_MARK;
+        int separator = payload.indexOf(':');
+        String origin = payload.substring(registration ? 1 : 0, separator);
+        String username = payload.substring(separator + 1);
+        for (Listener listener : listeners) {
+            try {
+                if (registration) {
+                    listener.registered(origin, username);
+                } else {
+                    listener.changed(origin, username);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Credential change listener failed for {}", username, e);
+            }
+        }
+    }
+}
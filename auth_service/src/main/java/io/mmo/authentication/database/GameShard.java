@@ -0,0 +1,37 @@
+package io.mmo.authentication.database;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * The last heartbeat of a game server. The id is the server's stable name, which players are sent to.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "game_shards")
+public class GameShard {
+
+    @Id
+    @Column(length = 253)
+    private String id;
+
+    private int load;
+
+    private int capacity;
+
+    @Column(nullable = false)
+    private Instant lastHeartbeat;
+}
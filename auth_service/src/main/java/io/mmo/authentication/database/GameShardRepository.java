@@ -0,0 +1,11 @@
+package io.mmo.authentication.database;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface GameShardRepository extends JpaRepository<GameShard, String> {
+
+    List<GameShard> findByLastHeartbeatAfterOrderByIdAsc(Instant cutoff);
+}
@@ -0,0 +1,116 @@
+package io.mmo.authentication.database;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out IDs from a database sequence that is incremented by {@code allocationSize}, so a single
+ * {@code nextval} round trip covers a whole block of rows. Each fetched value is the upper end of its block,
+ * which matches Hibernate's pooled optimizer, so IDs allocated here never collide with IDs Hibernate assigns from
+ * the same sequence.
+ * <p>
+ * The first block fetched is checked against the highest ID in {@code table}; if they overlap, as on a database whose
+ * IDs were assigned before the sequence existed, the sequence is moved past that ID. The check runs on first use
+ * rather than at startup, so the application context can start without a database. Callers waiting for a block hold a
+ * {@link ReentrantLock} rather than a monitor, which does not pin a virtual thread's carrier across the round trip.
+ */
+@Slf4j
+public class PooledSequence {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String sequenceName;
+    private final String table;
+    private final String nextValueSql;
+    private final String nextValuesSql;
+    private final int allocationSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private boolean aligned;
+    private long next;
+    private long high = -1;
+
+    public PooledSequence(JdbcTemplate jdbcTemplate, String sequenceName, int allocationSize, String table) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sequenceName = sequenceName;
+        this.table = table;
+        this.nextValueSql = "select nextval('" + sequenceName + "')";
+        this.nextValuesSql = "select nextval('" + sequenceName + "') from generate_series(1, ?)";
+        this.allocationSize = allocationSize;
+    }
+
+    /**
+     * Allocates {@code count} IDs in ascending order, fetching all missing blocks in one round trip.
+     * Uses {@code generate_series}, so this is for Postgres only.
+     */
+    public long[] next(int count) {
+        lock.lock();
+        try {
+            alignOnFirstUse();
+            long[] ids = new long[count];
+            int i = 0;
+            while (i < count && next <= high) {
+                ids[i++] = next++;
+            }
+            if (i < count) {
+                int blocks = (count - i + allocationSize - 1) / allocationSize;
+                List<Long> highs = new ArrayList<>(jdbcTemplate.queryForList(nextValuesSql, Long.class, blocks));
+                Collections.sort(highs);
+                for (long value : highs) {
+                    startBlock(value);
+                    while (i < count && next <= high) {
+                        ids[i++] = next++;
+                    }
+                }
+            }
+            return ids;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long next() {
+        lock.lock();
+        try {
+            alignOnFirstUse();
+            if (next > high) {
+                startBlock(fetch());
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void alignOnFirstUse() {
+        if (aligned) {
+            return;
+        }
+        long value = fetch();
+        Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+        if (maxId != null && maxId >= Math.max(1, value - allocationSize + 1)) {
+            long restart = maxId + allocationSize;
+            jdbcTemplate.execute("alter sequence " + sequenceName + " restart with " + restart);
+            log.warn("Moved sequence {} from {} to {}, past the highest ID in {}", sequenceName, value, restart, table);
+            value = fetch();
+        }
+        startBlock(value);
+        aligned = true;
+    }
+
+    private long fetch() {
+        Long value = jdbcTemplate.queryForObject(nextValueSql, Long.class);
+        if (value == null) {
+            throw new IllegalStateException("Sequence returned no value");
+        }
+        return value;
+    }
+
+    private void startBlock(long value) {
+        high = value;
+        next = Math.max(1, high - allocationSize + 1);
+    }
+}
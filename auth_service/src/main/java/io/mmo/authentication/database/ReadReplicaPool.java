@@ -0,0 +1,236 @@
+package io.mmo.authentication.database;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Connection pools for the Postgres read replicas listed in {@code auth.read-replicas.urls}. Wrapped around the
+ * primary data source, the pool receives the connections of read-only transactions, e.g. the credential lookups of
+ * logins, round-robin across the replicas that passed their last health check; everything else, and every read while
+ * no replica is healthy, stays on the primary. A replica is taken out of rotation as soon as it refuses a connection,
+ * or when its health check fails or finds it more than {@code max-lag} behind, and put back once a check passes.
+ * A replica only lags, so a lookup that finds nothing there is repeated on the primary with
+ * {@link #readOrPrimary(Supplier)}, which lets users log in right after registering on any instance.
+ */
+@Slf4j
+@Component
+public class ReadReplicaPool {
+
+    private static final String LAG_SQL = "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() "
+            + "then 0 else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) end";
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = ThreadLocal.withInitial(() -> false);
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final int healthCheckTimeoutSeconds;
+    private final double maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+    private final Counter primaryFallbacks;
+
+    public ReadReplicaPool(ReadReplicaProperties properties,
+                           DataSourceProperties dataSourceProperties,
+                           MeterRegistry meterRegistry) {
+        for (String url : properties.getUrls()) {
+            var dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + replicas.size());
+            dataSource.setJdbcUrl(url);
+            dataSource.setUsername(dataSourceProperties.determineUsername());
+            dataSource.setPassword(dataSourceProperties.determinePassword());
+            dataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            dataSource.setMaximumPoolSize(properties.getPoolSize());
+            dataSource.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+            dataSource.setInitializationFailTimeout(-1);
+            dataSource.setReadOnly(true);
+            dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new Replica(url, dataSource));
+        }
+        this.healthCheckTimeoutSeconds = (int) Math.max(1, properties.getConnectionTimeout().toSeconds());
+        this.maxLagSeconds = properties.getMaxLag().toMillis() / 1000.0;
+
+        this.replicaReads = readCounter(meterRegistry, "replica");
+        this.primaryReads = readCounter(meterRegistry, "primary");
+        this.primaryFallbacks = Counter.builder("auth.datasource.read-your-writes.fallbacks")
+                                       .register(meterRegistry);
+        Gauge.builder("auth.datasource.replicas.healthy", this, pool -> pool.healthyReplicas().size())
+             .register(meterRegistry);
+    }
+
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    /**
+     * Routes read-only transactions of {@code primary} to the replicas. Connections are fetched when the first
+     * statement runs, after the transaction has declared itself read-only.
+     */
+    public DataSource routing(DataSource primary) {
+        var proxy = new LazyConnectionDataSourceProxy();
+        proxy.setTargetDataSource(primary);
+        proxy.setReadOnlyDataSource(new ReplicaDataSource(primary));
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        proxy.afterPropertiesSet();
+        return proxy;
+    }
+
+    /**
+     * Runs the query on a replica and, if it finds nothing, once more on the primary, where a row written moments
+     * ago by any instance is already visible.
+     */
+    public <T> Optional<T> readOrPrimary(Supplier<Optional<T>> query) {
+        var result = query.get();
+        if (result.isPresent() || replicas.isEmpty()) {
+            return result;
+        }
+        primaryFallbacks.increment();
+        PRIMARY_PINNED.set(true);
+        try {
+            return query.get();
+        } finally {
+            PRIMARY_PINNED.set(false);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.read-replicas.health-check-interval:5s}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean healthy = false;
+            try (Connection connection = replica.dataSource().getConnection()) {
+                if (!connection.isValid(healthCheckTimeoutSeconds)) {
+                    replica.dataSource().evictConnection(connection);
+                } else {
+                    healthy = lagSeconds(connection) <= maxLagSeconds;
+                }
+            } catch (SQLException e) {
+                log.debug("Health check of read replica {} failed", replica.url(), e);
+            }
+            replica.setHealthy(healthy);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource().close());
+    }
+
+    private double lagSeconds(Connection connection) throws SQLException {
+        if (!connection.isWrapperFor(PGConnection.class)) {
+            return 0;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(LAG_SQL)) {
+            result.next();
+            return result.getDouble(1);
+        }
+    }
+
+    private List<Replica> healthyReplicas() {
+        return replicas.stream().filter(Replica::isHealthy).toList();
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("auth.datasource.reads")
+                      .tag("target", target)
+                      .register(meterRegistry);
+    }
+
+    private static final class Replica {
+
+        private final String url;
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy = true;
+
+        Replica(String url, HikariDataSource dataSource) {
+            this.url = url;
+            this.dataSource = dataSource;
+        }
+
+        String url() {
+            return url;
+        }
+
+        HikariDataSource dataSource() {
+            return dataSource;
+        }
+
+        boolean isHealthy() {
+            return healthy;
+        }
+
+        void setHealthy(boolean healthy) {
+            if (this.healthy != healthy) {
+                if (healthy) {
+                    log.info("Read replica {} is back in rotation", url);
+                } else {
+                    log.warn("Read replica {} is out of rotation, reads go to the remaining replicas or the primary", url);
+                    var pool = dataSource.getHikariPoolMXBean();
+                    if (pool != null) {
+                        pool.softEvictConnections();
+                    }
+                }
+            }
+            this.healthy = healthy;
+        }
+    }
+
+    /**
+     * Hands out connections of a healthy replica, or of the primary when the current thread is pinned to it or no
+     * replica can serve.
+     */
+    private final class ReplicaDataSource extends AbstractDataSource {
+
+        private final DataSource primary;
+
+        ReplicaDataSource(DataSource primary) {
+            this.primary = primary;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (!PRIMARY_PINNED.get()) {
+                List<Replica> healthy = healthyReplicas();
+                int start = Math.floorMod(next.getAndIncrement(), Math.max(1, healthy.size()));
+                for (int i = 0; i < healthy.size(); i++) {
+                    Replica replica = healthy.get((start + i) % healthy.size());
+                    try {
+                        Connection connection = replica.dataSource().getConnection();
+                        replicaReads.increment();
+                        return connection;
+                    } catch (SQLException e) {
+                        replica.setHealthy(false);
+                    }
+                }
+            }
+            primaryReads.increment();
+            return primary.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new UnsupportedOperationException("Replica connections use the configured credentials");
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package io.mmo.authentication.database;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "auth.read-replicas")
+public class ReadReplicaProperties {
+    private List<String> urls = new ArrayList<>();
+    private int poolSize = 10;
+    private Duration connectionTimeout = Duration.ofSeconds(2);
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+    private Duration maxLag = Duration.ofSeconds(10);
+}
@@ -0,0 +1,42 @@
+package io.mmo.authentication.database;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * A revoked session, whose access tokens stay valid by signature until they expire. Rows are only appended, so their
+ * ids order them for the instances that follow the table.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "session_revocations", indexes = {
+        @Index(name = "idx_session_revocations_revoked_at", columnList = "revokedAt")
+})
+public class SessionRevocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private long sessionId;
+
+    @Column(nullable = false)
+    private Instant revokedAt;
+}
@@ -0,0 +1,22 @@
+package io.mmo.authentication.database;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface SessionRevocationRepository extends JpaRepository<SessionRevocation, Long> {
+
+    List<SessionRevocation> findByIdGreaterThanAndRevokedAtAfterOrderByIdAsc(long id, Instant revokedAfter, Limit limit);
+
+    @Query("select max(r.id) from SessionRevocation r where r.revokedAt <= :cutoff")
+    Long findMaxIdRevokedAtOrBefore(@Param("cutoff") Instant cutoff);
+
+    @Modifying
+    @Query("delete from SessionRevocation r where r.revokedAt < :cutoff")
+    int deleteRevokedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,104 @@
+package io.mmo.authentication.database;
+
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Loads large numbers of users for account imports. On Postgres each chunk is streamed with {@code COPY} into a
+ * session-local staging table and moved into {@code user_credentials} with a single
+ * {@code insert ... select ... on conflict (username) do nothing}; other databases fall back to a JDBC batch.
+ * Either way the chunk is one transaction and the result reports, per user, whether it was inserted. Only taken
+ * usernames are skipped; an ID colliding with an existing row fails the whole chunk.
+ */
+@Repository
+public class UserCredentialsBulkLoader {
+
+    private static final String CREATE_STAGING_SQL = "create temporary table if not exists user_credentials_import "
+            + "(id bigint, username varchar(255), password_hash varchar(255)) on commit delete rows";
+    private static final String COPY_SQL = "copy user_credentials_import (id, username, password_hash) "
+            + "from stdin with (format csv)";
+    private static final String MOVE_SQL = "insert into user_credentials (id, username, password_hash) "
+            + "select id, username, password_hash from user_credentials_import order by id "
+            + "on conflict (username) do nothing returning id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserCredentialsJdbcRepository jdbcRepository;
+    private final PooledSequence ids;
+
+    public UserCredentialsBulkLoader(JdbcTemplate jdbcTemplate, UserCredentialsJdbcRepository jdbcRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jdbcRepository = jdbcRepository;
+        this.ids = new PooledSequence(jdbcTemplate, UserCredentials.ID_SEQUENCE, UserCredentials.ID_ALLOCATION_SIZE,
+                                      "user_credentials");
+    }
+
+    /**
+     * Returns, for each user in order, whether it was inserted ({@code false} if the username already existed,
+     * in the table or earlier in the same chunk).
+     */
+    @Transactional
+    public boolean[] loadAllIfAbsent(List<UserCredentials> users) {
+        return jdbcTemplate.execute((ConnectionCallback<boolean[]>) connection -> {
+            if (!connection.isWrapperFor(PGConnection.class)) {
+                return jdbcRepository.insertAllIfAbsent(users);
+            }
+            return copy(connection, users);
+        });
+    }
+
+    private boolean[] copy(Connection connection, List<UserCredentials> users) throws SQLException {
+        long[] userIds = ids.next(users.size());
+        StringBuilder csv = new StringBuilder(users.size() * 96);
+        for (int i = 0; i < users.size(); i++) {
+            csv.append(userIds[i]).append(',');
+            appendCsvField(csv, users.get(i).getUsername());
+            csv.append(',');
+            appendCsvField(csv, users.get(i).getPasswordHash());
+            csv.append('\n');
+        }
+
+        Set<Long> insertedIds = new HashSet<>();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING_SQL);
+            connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL, new StringReader(csv.toString()));
+            try (ResultSet inserted = statement.executeQuery(MOVE_SQL)) {
+                while (inserted.next()) {
+                    insertedIds.add(inserted.getLong(1));
+                }
+            }
+        } catch (IOException e) {
+            throw new SQLException("COPY into staging table failed", e);
+        }
+
+        boolean[] result = new boolean[users.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = insertedIds.contains(userIds[i]);
+        }
+        return result;
+    }
+
+    private static void appendCsvField(StringBuilder csv, String value) {
+        csv.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        csv.append('"');
+    }
+}
@@ -0,0 +1,142 @@
+package io.mmo.authentication.database;
+
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Inserts new users with plain JDBC, either one at a time or many in one batch and one transaction. Conflicting
+ * usernames are skipped by the database and reported per row, so callers learn which users were inserted without a
+ * separate existence check; any other conflict, such as a colliding ID, fails the statement. IDs come from the
+ * entity's sequence through {@link PooledSequence}, which is moved past the existing IDs on first use. The database
+ * is first touched by the first insert, so the application context starts without one. Batches rely on the driver
+ * reporting a row count per statement, which rules out Postgres' {@code reWriteBatchedInserts}.
+ */
+@Repository
+public class UserCredentialsJdbcRepository {
+
+    private static final String POSTGRES_INSERT_SQL = "insert into user_credentials (id, username, password_hash) "
+            + "values (?, ?, ?) on conflict (username) do nothing";
+    // Databases without a targeted on conflict, such as H2 in the tests.
+    private static final String MERGE_INSERT_SQL = "merge into user_credentials target "
+            + "using (values (cast(? as bigint), cast(? as varchar(255)), cast(? as varchar(255)))) "
+            + "as source (id, username, password_hash) on target.username = source.username "
+            + "when not matched then insert (id, username, password_hash) "
+            + "values (source.id, source.username, source.password_hash)";
+    private static final int USERNAME_FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PooledSequence ids;
+    private volatile String insertSql;
+
+    public UserCredentialsJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ids = new PooledSequence(jdbcTemplate, UserCredentials.ID_SEQUENCE, UserCredentials.ID_ALLOCATION_SIZE,
+                                      "user_credentials");
+    }
+
+    /**
+     * Inserts the user in a single statement unless the username is taken; returns whether it was inserted.
+     */
+    public boolean insertIfAbsent(String username, String passwordHash) {
+        return jdbcTemplate.update(insertSql(), ids.next(), username, passwordHash) > 0;
+    }
+
+    /**
+     * Returns, for each user in order, whether it was inserted ({@code false} if the username already existed).
+     */
+    @Transactional
+    public boolean[] insertAllIfAbsent(List<UserCredentials> users) {
+        long[] userIds = new long[users.size()];
+        for (int i = 0; i < userIds.length; i++) {
+            userIds[i] = ids.next();
+        }
+
+        int[] counts = jdbcTemplate.batchUpdate(insertSql(), new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                var user = users.get(i);
+                statement.setLong(1, userIds[i]);
+                statement.setString(2, user.getUsername());
+                statement.setString(3, user.getPasswordHash());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return users.size();
+            }
+        });
+
+        boolean[] inserted = new boolean[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                throw new IllegalStateException("JDBC driver did not report per-row insert counts");
+            }
+            inserted[i] = counts[i] > 0;
+        }
+        return inserted;
+    }
+
+    public long countUsers() {
+        Long count = jdbcTemplate.queryForObject("select count(*) from user_credentials", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Streams every username through {@code consumer} without materializing them. Postgres only uses a cursor for
+     * the fetch size inside a transaction, hence the transaction around the query. It is not marked read-only, which
+     * keeps the scan on the primary: a replica that has not yet replayed a recent registration would leave that user
+     * out of the username filter until its next rebuild.
+     */
+    @Transactional
+    public void forEachUsername(Consumer<String> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("select username from user_credentials");
+            statement.setFetchSize(USERNAME_FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) resultSet -> consumer.accept(resultSet.getString(1)));
+    }
+
+    /**
+     * Replaces the password hash only if it is still {@code expectedHash}, so a concurrent password change is never
+     * overwritten; returns whether it was replaced.
+     */
+    public boolean replacePasswordHash(String username, String expectedHash, String newHash) {
+        return jdbcTemplate.update("update user_credentials set password_hash = ? where username = ? and password_hash = ?",
+                                   newHash, username, expectedHash) > 0;
+    }
+
+    /**
+     * Number of users per BCrypt cost factor, read from the {@code $2a$NN$} prefix of the stored hashes.
+     */
+    public Map<String, Long> countByPasswordCost() {
+        Map<String, Long> counts = new TreeMap<>();
+        jdbcTemplate.query("select substring(password_hash, 5, 2) as cost, count(*) as users from user_credentials "
+                                   + "group by substring(password_hash, 5, 2)",
+                           (RowCallbackHandler) resultSet -> counts.put(resultSet.getString("cost"), resultSet.getLong("users")));
+        return counts;
+    }
+
+    private String insertSql() {
+        String sql = insertSql;
+        if (sql == null) {
+            Boolean postgres = jdbcTemplate.execute(
+                    (ConnectionCallback<Boolean>) connection -> connection.isWrapperFor(PGConnection.class));
+            sql = Boolean.TRUE.equals(postgres) ? POSTGRES_INSERT_SQL : MERGE_INSERT_SQL;
+            insertSql = sql;
+        }
+        return sql;
+    }
+}
@@ -1,12 +1,27 @@
 package io.mmo.authentication.database;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
+/**
+ * Lookups are read-only transactions, which go to a read replica when {@code auth.read-replicas.urls} is set.
+ */
 public interface UserCredentialsRepository extends JpaRepository<UserCredentials, Long> {
 
+    @Transactional(readOnly = true)
     Optional<UserCredentials> findByUsername(String username);
 
+    @Transactional(readOnly = true)
     boolean existsByUsername(String username);
+
+    /**
+     * Reads only the password hash, without loading a managed {@link UserCredentials} into the persistence context.
+     */
+    @Transactional(readOnly = true)
+    @Query("select u.passwordHash from UserCredentials u where u.username = :username")
+    Optional<String> findPasswordHashByUsername(@Param("username") String username);
 }
@@ -2,8 +2,11 @@ package io.mmo.authentication;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.mmo.authentication.business.AuthService;
+import io.mmo.authentication.business.AuthTokens;
 import io.mmo.authentication.business.exceptions.InvalidCredentialsException;
 import io.mmo.authentication.business.exceptions.InvalidInputException;
+import io.mmo.authentication.business.exceptions.InvalidTokenException;
+import io.mmo.authentication.business.exceptions.ServiceOverloadedException;
 import io.mmo.authentication.business.exceptions.UserAlreadyExistsException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,8 +21,10 @@ import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -37,6 +42,7 @@ class AuthControllerTest {
 
         mockMvc = MockMvcBuilders.standaloneSetup(authController)
                                  .setControllerAdvice(authController) // use controller itself for exception handlers
+                                 .setMessageConverters(new AuthJsonCodec(new JsonCodecProperties()))
                                  .build();
     }
 
@@ -46,7 +52,7 @@ class AuthControllerTest {
         String password = "secret";
         String token = "jwt-token";
 
-        when(authService.login(username, password)).thenReturn(token);
+        when(authService.login(username, password)).thenReturn(new AuthTokens(token, "refresh-token"));
 
         mockMvc.perform(post("/auth/login")
                        .contentType(MediaType.APPLICATION_JSON)
@@ -55,7 +61,8 @@ class AuthControllerTest {
                                "password", password
                        ))))
                .andExpect(status().isOk())
-               .andExpect(jsonPath("$.jwt").value(token));
+               .andExpect(jsonPath("$.jwt").value(token))
+               .andExpect(jsonPath("$.refreshToken").value("refresh-token"));
 
         verify(authService).login(username, password);
     }
@@ -108,6 +115,67 @@ class AuthControllerTest {
         verify(authService).login(username, password);
     }
 
+    @Test
+    void testLoginServiceOverloaded() throws Exception {
+        String username = "player1";
+        String password = "secret";
+
+        when(authService.login(username, password))
+                .thenThrow(new ServiceOverloadedException(2));
+
+        mockMvc.perform(post("/auth/login")
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content(objectMapper.writeValueAsString(Map.of(
+                               "username", username,
+                               "password", password
+                       ))))
+               .andExpect(status().isServiceUnavailable())
+               .andExpect(header().string("Retry-After", "2"))
+               .andExpect(jsonPath("$.error").exists());
+    }
+
+    @Test
+    void testRefreshSuccess() throws Exception {
+        when(authService.refresh("refresh-token")).thenReturn(new AuthTokens("jwt-token", "next-refresh-token"));
+
+        mockMvc.perform(post("/auth/refresh")
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content(objectMapper.writeValueAsString(Map.of(
+                               "refreshToken", "refresh-token"
+                       ))))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.jwt").value("jwt-token"))
+               .andExpect(jsonPath("$.refreshToken").value("next-refresh-token"));
+    }
+
+    @Test
+    void testRefreshInvalidToken() throws Exception {
+        when(authService.refresh("stale")).thenThrow(new InvalidTokenException());
+
+        mockMvc.perform(post("/auth/refresh")
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content(objectMapper.writeValueAsString(Map.of(
+                               "refreshToken", "stale"
+                       ))))
+               .andExpect(status().isUnauthorized())
+               .andExpect(jsonPath("$.error").exists());
+    }
+
+    @Test
+    void testRevokeSuccess() throws Exception {
+        doNothing().when(authService).revoke("refresh-token");
+
+        mockMvc.perform(post("/auth/revoke")
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content(objectMapper.writeValueAsString(Map.of(
+                               "refreshToken", "refresh-token"
+                       ))))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.message").value("Refresh token revoked"));
+
+        verify(authService).revoke("refresh-token");
+    }
+
     @Test
     void testRegisterSuccess() throws Exception {
         String username = "player1";
@@ -164,4 +232,59 @@ class AuthControllerTest {
 
         verify(authService).register(username, password);
     }
+
+    @Test
+    void testLoginMissingFieldsReachServiceEmpty() throws Exception {
+        when(authService.login("", "")).thenThrow(new InvalidInputException("Username and password are required"));
+
+        mockMvc.perform(post("/auth/login")
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content("{\"username\":null,\"level\":{\"zone\":3}}"))
+               .andExpect(status().isUnprocessableEntity())
+               .andExpect(jsonPath("$.error").value("Username and password are required"));
+    }
+
+    @Test
+    void testLoginOversizedFieldIsRejected() throws Exception {
+        mockMvc.perform(post("/auth/login")
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content("{\"username\":\"player1\",\"password\":\"" + "x".repeat(73) + "\"}"))
+               .andExpect(status().isUnprocessableEntity())
+               .andExpect(jsonPath("$.error").value("Password must be at most 72 bytes"));
+
+        verifyNoInteractions(authService);
+    }
+
+    @Test
+    void testRegisterMultiBytePasswordOverBcryptLimitIsRejected() throws Exception {
+        mockMvc.perform(post("/auth/register")
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content("{\"username\":\"player1\",\"password\":\"" + "é".repeat(37) + "\"}"))
+               .andExpect(status().isUnprocessableEntity())
+               .andExpect(jsonPath("$.error").value("Password must be at most 72 bytes"));
+
+        verifyNoInteractions(authService);
+    }
+
+    @Test
+    void testOversizedBodyIsRejected() throws Exception {
+        mockMvc.perform(post("/auth/register")
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content("{\"padding\":\"" + "x".repeat(5000) + "\"}"))
+               .andExpect(status().isPayloadTooLarge())
+               .andExpect(jsonPath("$.error").value("Request body is too large"));
+
+        verifyNoInteractions(authService);
+    }
+
+    @Test
+    void testMalformedBodyIsBadRequest() throws Exception {
+        mockMvc.perform(post("/auth/login")
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content("{\"username\":\"player1\","))
+               .andExpect(status().isBadRequest())
+               .andExpect(jsonPath("$.error").value("Malformed request body"));
+
+        verifyNoInteractions(authService);
+    }
 }
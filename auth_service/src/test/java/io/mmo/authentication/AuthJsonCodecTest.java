@@ -0,0 +1,119 @@
+package io.mmo.authentication;
+
+import io.mmo.authentication.AuthController.Credentials;
+import io.mmo.authentication.AuthController.ErrorBody;
+import io.mmo.authentication.AuthController.RefreshRequest;
+import io.mmo.authentication.AuthController.Tokens;
+import io.mmo.authentication.business.exceptions.InvalidInputException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.web.server.PayloadTooLargeException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuthJsonCodecTest {
+
+    private final AuthJsonCodec subject = new AuthJsonCodec(new JsonCodecProperties());
+
+    @Test
+    void testReadsCredentialsSkippingUnknownFields() throws Exception {
+        var credentials = subject.read(Credentials.class, input(
+                "{\"client\":{\"version\":[1,2]},\"password\":\"secret\",\"username\":\" player1 \"}"));
+
+        assertThat(credentials).isEqualTo(new Credentials(" player1 ", "secret"));
+    }
+
+    @Test
+    void testMissingAndNullFieldsReadAsEmpty() throws Exception {
+        assertThat(subject.read(Credentials.class, input("{\"username\":null}")))
+                .isEqualTo(new Credentials("", ""));
+        assertThat(subject.read(RefreshRequest.class, input("{}")))
+                .isEqualTo(new RefreshRequest(""));
+    }
+
+    @Test
+    void testFieldOverLimitIsRejected() {
+        assertThatThrownBy(() -> subject.read(Credentials.class, input("{\"username\":\"" + "x".repeat(256) + "\"}")))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessage("Username must be at most 255 characters");
+    }
+
+    @Test
+    void testPasswordLimitCountsUtf8Bytes() throws Exception {
+        String fits = "ü".repeat(36);
+        String tooLong = "ü".repeat(37);
+
+        assertThat(subject.read(Credentials.class, input("{\"password\":\"" + fits + "\"}")))
+                .isEqualTo(new Credentials("", fits));
+        assertThat(new BCryptPasswordEncoder(4).encode(fits)).isNotEmpty();
+        assertThatThrownBy(() -> subject.read(Credentials.class, input("{\"password\":\"" + tooLong + "\"}")))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessage("Password must be at most 72 bytes");
+        String keys = "\uD83D\uDD11".repeat(19);
+        assertThatThrownBy(() -> subject.read(Credentials.class, input("{\"password\":\"" + keys + "\"}")))
+                .isInstanceOf(InvalidInputException.class);
+        assertThatThrownBy(() -> new BCryptPasswordEncoder(4).encode(tooLong))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testBodyWithoutLengthIsCutOffAtLimit() {
+        var message = new MockHttpInputMessage(new ByteArrayInputStream(
+                ("{\"username\":\"player1\",\"padding\":\"" + "x".repeat(10_000) + "\"}").getBytes(StandardCharsets.UTF_8)));
+
+        assertThatThrownBy(() -> subject.read(Credentials.class, message))
+                .isInstanceOf(PayloadTooLargeException.class);
+    }
+
+    @Test
+    void testBodyWithLargeLengthIsRejectedUnread() {
+        var message = new MockHttpInputMessage(InputStream.nullInputStream());
+        message.getHeaders().setContentLength(1_000_000);
+
+        assertThatThrownBy(() -> subject.read(Credentials.class, message))
+                .isInstanceOf(PayloadTooLargeException.class);
+    }
+
+    @Test
+    void testStructuredValueIsMalformed() {
+        assertThatThrownBy(() -> subject.read(Credentials.class, input("{\"username\":{\"name\":\"player1\"}}")))
+                .isInstanceOf(HttpMessageNotReadableException.class);
+        assertThatThrownBy(() -> subject.read(Credentials.class, input("[\"player1\"]")))
+                .isInstanceOf(HttpMessageNotReadableException.class);
+    }
+
+    @Test
+    void testWritesResponseRecords() throws Exception {
+        var output = new MockHttpOutputMessage();
+        subject.write(new Tokens("jwt-token", "refresh \"token\""), MediaType.APPLICATION_JSON, output);
+
+        assertThat(output.getBodyAsString()).isEqualTo("{\"jwt\":\"jwt-token\",\"refreshToken\":\"refresh \\\"token\\\"\"}");
+        assertThat(output.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+    }
+
+    @Test
+    void testOnlyHandlesAuthBodies() {
+        assertThat(subject.canRead(Credentials.class, MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(subject.canWrite(Credentials.class, MediaType.APPLICATION_JSON)).isFalse();
+        assertThat(subject.canWrite(ErrorBody.class, MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(subject.canRead(Map.class, MediaType.APPLICATION_JSON)).isFalse();
+        assertThat(subject.canRead(Credentials.class, MediaType.TEXT_PLAIN)).isFalse();
+    }
+
+    private static MockHttpInputMessage input(String json) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        var message = new MockHttpInputMessage(bytes);
+        message.getHeaders().setContentLength(bytes.length);
+        return message;
+    }
+}
@@ -0,0 +1,165 @@
+package io.mmo.authentication;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mmo.authentication.business.AdaptiveConcurrencyLimiter;
+import io.mmo.authentication.business.AuthService;
+import io.mmo.authentication.business.AuthTokens;
+import io.mmo.authentication.business.ConcurrencyLimitProperties;
+import io.mmo.authentication.business.PasswordHashingExecutor;
+import io.mmo.authentication.business.WaitingRoom;
+import io.mmo.authentication.business.WaitingRoomProperties;
+import io.mmo.authentication.business.exceptions.ServiceOverloadedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ConcurrencyLimitFilterTest {
+
+    private AuthService authService;
+    private AdaptiveConcurrencyLimiter limiter;
+    private WaitingRoom waitingRoom;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        authService = mock(AuthService.class);
+        var properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(1);
+        properties.setMinLimit(1);
+        limiter = new AdaptiveConcurrencyLimiter(properties, new SimpleMeterRegistry());
+        build(new WaitingRoomProperties());
+    }
+
+    private void build(WaitingRoomProperties waitingRoomProperties) {
+        var hashingExecutor = mock(PasswordHashingExecutor.class);
+        when(hashingExecutor.capacityPerSecond()).thenReturn(100.0);
+        waitingRoom = new WaitingRoom(waitingRoomProperties, hashingExecutor, new SimpleMeterRegistry());
+        var controller = new AuthController(authService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                                 .setControllerAdvice(controller)
+                                 .addFilters(new ConcurrencyLimitFilter(limiter, waitingRoom))
+                                 .build();
+    }
+
+    @Test
+    void testRequestsOverLimitAreShedWithoutReachingService() throws Exception {
+        var heldPermit = limiter.tryAcquire();
+
+        login().andExpect(status().isServiceUnavailable())
+               .andExpect(header().string("Retry-After", "1"))
+               .andExpect(jsonPath("$.error").value("Service is overloaded, please retry later"));
+
+        verifyNoInteractions(authService);
+        heldPermit.release();
+    }
+
+    @Test
+    void testPermitIsReturnedAfterResponse() throws Exception {
+        when(authService.login(anyString(), anyString())).thenReturn(new AuthTokens("jwt-token", "refresh-token"));
+
+        login().andExpect(status().isOk());
+        login().andExpect(status().isOk());
+    }
+
+    @Test
+    void testDownstreamOverloadBacksOffLimit() throws Exception {
+        limiter.tryAcquire().release();
+        var limitBefore = limiter.getLimit();
+        when(authService.login(anyString(), anyString())).thenThrow(new ServiceOverloadedException(1));
+
+        login().andExpect(status().isServiceUnavailable());
+
+        assertThat(limiter.getLimit()).isLessThanOrEqualTo(limitBefore);
+        assertThat(limiter.tryAcquire()).isNotNull();
+    }
+
+    @Test
+    void testSaturatedLoginGetsWaitingRoomTicket() throws Exception {
+        enableWaitingRoom();
+        var heldPermit = limiter.tryAcquire();
+
+        String ticket = ticketOf(login().andExpect(status().isAccepted())
+                                        .andExpect(header().string("Retry-After", "1"))
+                                        .andExpect(jsonPath("$.position").value(1))
+                                        .andExpect(jsonPath("$.estimatedWaitSeconds").value(1)));
+
+        assertThat(ticket).hasSize(22);
+        verifyNoInteractions(authService);
+        heldPermit.release();
+    }
+
+    @Test
+    void testLoginsQueueBehindWaitersEvenWithRoom() throws Exception {
+        enableWaitingRoom();
+        var heldPermit = limiter.tryAcquire();
+        login().andExpect(status().isAccepted());
+        heldPermit.release();
+
+        login().andExpect(status().isAccepted())
+               .andExpect(jsonPath("$.position").value(2));
+
+        verifyNoInteractions(authService);
+    }
+
+    @Test
+    void testAdmittedTicketBypassesLimitOnce() throws Exception {
+        when(authService.login(anyString(), anyString())).thenReturn(new AuthTokens("jwt-token", "refresh-token"));
+        enableWaitingRoom();
+        var heldPermit = limiter.tryAcquire();
+        String ticket = ticketOf(login().andExpect(status().isAccepted()));
+
+        login(ticket).andExpect(status().isAccepted())
+                     .andExpect(jsonPath("$.ticket").value(ticket));
+        Thread.sleep(20);
+        waitingRoom.admit();
+
+        login(ticket).andExpect(status().isOk());
+        verify(authService).login("player1", "secret");
+        login(ticket).andExpect(status().isAccepted())
+                     .andExpect(jsonPath("$.ticket").value(not(ticket)));
+        heldPermit.release();
+    }
+
+    private void enableWaitingRoom() {
+        var properties = new WaitingRoomProperties();
+        properties.setEnabled(true);
+        properties.setMaxWaiters(16);
+        build(properties);
+    }
+
+    private static String ticketOf(ResultActions result) throws Exception {
+        String location = result.andReturn().getResponse().getHeader("Location");
+        assertThat(location).startsWith("/auth/login/queue/");
+        String ticket = location.substring("/auth/login/queue/".length());
+        result.andExpect(jsonPath("$.ticket").value(ticket));
+        return ticket;
+    }
+
+    private ResultActions login() throws Exception {
+        return login(null);
+    }
+
+    private ResultActions login(String ticket) throws Exception {
+        var request = post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+                                         .content("{\"username\":\"player1\",\"password\":\"secret\"}");
+        if (ticket != null) {
+            request.header(ConcurrencyLimitFilter.TICKET_HEADER, ticket);
+        }
+        return mockMvc.perform(request);
+    }
+}
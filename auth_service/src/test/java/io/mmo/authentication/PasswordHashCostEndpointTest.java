@@ -0,0 +1,49 @@
+package io.mmo.authentication;
+
+import io.mmo.authentication.business.PasswordHashPolicy;
+import io.mmo.authentication.database.UserCredentialsJdbcRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PasswordHashCostEndpointTest {
+
+    private final PasswordHashPolicy policy = mock(PasswordHashPolicy.class);
+    private final UserCredentialsJdbcRepository jdbcRepository = mock(UserCredentialsJdbcRepository.class);
+    private final PasswordHashCostEndpoint subject = new PasswordHashCostEndpoint(policy, jdbcRepository);
+
+    @Test
+    void testRequestsAreServedTheLastCount() {
+        when(policy.getCost()).thenReturn(12);
+        when(jdbcRepository.countByPasswordCost()).thenReturn(Map.of("10", 3L, "12", 5L));
+
+        assertThat(subject.costs().countedAt()).isNull();
+        subject.count();
+        subject.costs();
+        var costs = subject.costs();
+
+        assertThat(costs.targetCost()).isEqualTo(12);
+        assertThat(costs.usersByCost()).containsExactlyInAnyOrderEntriesOf(Map.of("10", 3L, "12", 5L));
+        assertThat(costs.countedAt()).isNotNull();
+        verify(jdbcRepository, times(1)).countByPasswordCost();
+    }
+
+    @Test
+    void testFailedCountKeepsThePreviousOne() {
+        when(jdbcRepository.countByPasswordCost()).thenReturn(Map.of("12", 5L))
+                                                  .thenThrow(new QueryTimeoutException("statement timeout"));
+        subject.count();
+        var before = subject.costs();
+
+        subject.count();
+
+        assertThat(subject.costs()).isEqualTo(before);
+    }
+}
@@ -0,0 +1,119 @@
+package io.mmo.authentication;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mmo.authentication.business.AuthService;
+import io.mmo.authentication.business.AuthTokens;
+import io.mmo.authentication.business.RateLimitProperties;
+import io.mmo.authentication.business.RequestRateLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RateLimitFilterTest {
+
+    private AuthService authService;
+    private RateLimitProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        authService = mock(AuthService.class);
+        when(authService.login(anyString(), anyString())).thenReturn(new AuthTokens("jwt-token", "refresh-token"));
+        properties = new RateLimitProperties();
+        properties.setClient(new RateLimitProperties.Bucket(1, 3));
+        properties.setUsername(new RateLimitProperties.Bucket(0.1, 2));
+        meterRegistry = new SimpleMeterRegistry();
+        var controller = new AuthController(authService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                                 .setControllerAdvice(controller)
+                                 .addFilters(new RateLimitFilter(new RequestRateLimiter(properties, meterRegistry),
+                                                                 properties.getMaxBodyBytes()))
+                                 .build();
+    }
+
+    @Test
+    void testLoginsOverUsernameLimitAreRejectedBeforeService() throws Exception {
+        login("10.0.0.1", "player1").andExpect(status().isOk()).andExpect(jsonPath("$.jwt").value("jwt-token"));
+        login("10.0.0.1", "player1").andExpect(status().isOk());
+        login("10.0.0.1", "player1")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "10"))
+                .andExpect(jsonPath("$.error").value("Too many requests"));
+        login("10.0.0.2", "player2").andExpect(status().isOk());
+
+        verify(authService, times(2)).login("player1", "secret");
+        assertThat(rejected("username")).isEqualTo(1);
+    }
+
+    @Test
+    void testUsernameLimitDoesNotLockOutOtherClients() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            login("10.0.0.1", "player1");
+        }
+
+        login("10.0.0.2", "player1").andExpect(status().isOk());
+    }
+
+    @Test
+    void testRequestsOverClientLimitAreRejected() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            login("10.0.0.1", "player" + i).andExpect(status().isOk());
+        }
+
+        login("10.0.0.1", "player9").andExpect(status().isTooManyRequests())
+                                    .andExpect(header().string("Retry-After", "1"));
+        mockMvc.perform(post("/auth/register")
+                       .with(request -> {
+                           request.setRemoteAddr("10.0.0.1");
+                           return request;
+                       })
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content("{\"username\":\"player9\",\"password\":\"secret\"}"))
+               .andExpect(status().isTooManyRequests());
+
+        assertThat(rejected("client")).isEqualTo(2);
+    }
+
+    @Test
+    void testDisabledLimiterLetsEverythingThrough() throws Exception {
+        properties.setEnabled(false);
+        var controller = new AuthController(authService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                                 .addFilters(new RateLimitFilter(new RequestRateLimiter(properties, new SimpleMeterRegistry()),
+                                                                 properties.getMaxBodyBytes()))
+                                 .build();
+
+        for (int i = 0; i < 5; i++) {
+            login("10.0.0.1", "player1").andExpect(status().isOk());
+        }
+    }
+
+    private ResultActions login(String clientAddress, String username) throws Exception {
+        return mockMvc.perform(post("/auth/login")
+                                       .with(request -> {
+                                           request.setRemoteAddr(clientAddress);
+                                           return request;
+                                       })
+                                       .contentType(MediaType.APPLICATION_JSON)
+                                       .content("{\"username\":\" " + username + "\",\"password\":\"secret\"}"));
+    }
+
+    private double rejected(String key) {
+        return meterRegistry.get("auth.rate-limit.rejected").tag("key", key).counter().count();
+    }
+}
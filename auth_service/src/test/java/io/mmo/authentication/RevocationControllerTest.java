@@ -0,0 +1,107 @@
+package io.mmo.authentication;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mmo.authentication.business.JwtProperties;
+import io.mmo.authentication.business.RevocationFeed;
+import io.mmo.authentication.business.RevocationProperties;
+import io.mmo.authentication.business.RevocationSnapshot;
+import io.mmo.authentication.database.SessionRevocation;
+import io.mmo.authentication.database.SessionRevocationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RevocationControllerTest {
+
+    private final List<SessionRevocation> table = new ArrayList<>();
+    private RevocationFeed feed;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        var jwtProperties = new JwtProperties();
+        jwtProperties.setExpiration(60_000);
+        var repository = mock(SessionRevocationRepository.class);
+        when(repository.findByIdGreaterThanAndRevokedAtAfterOrderByIdAsc(anyLong(), any(), any()))
+                .thenAnswer(invocation -> {
+                    long after = invocation.getArgument(0);
+                    return table.stream().filter(row -> row.getId() > after).toList();
+                });
+        feed = new RevocationFeed(new RevocationProperties(), jwtProperties, repository, new SimpleMeterRegistry());
+        mockMvc = MockMvcBuilders.standaloneSetup(new RevocationController(feed, new RevocationProperties()))
+                                 .build();
+    }
+
+    @Test
+    void testSnapshotIsServedWithVersionTag() throws Exception {
+        revoke(1, 100);
+        feed.poll();
+        String etag = "\"" + feed.epoch() + ":1\"";
+
+        byte[] body = mockMvc.perform(get("/internal/revocations"))
+                             .andExpect(status().isOk())
+                             .andExpect(header().string("ETag", etag))
+                             .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(RevocationSnapshot.decode(body).isRevoked(100)).isTrue();
+        mockMvc.perform(get("/internal/revocations").header("If-None-Match", etag))
+               .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testStreamResumesFromLastEventId() throws Exception {
+        revoke(1, 100);
+        feed.poll();
+        revoke(2, 200);
+        feed.poll();
+
+        var result = mockMvc.perform(get("/internal/revocations/stream")
+                                             .header("Last-Event-ID", feed.epoch() + ":1"))
+                            .andExpect(request().asyncStarted())
+                            .andReturn();
+        revoke(3, 300);
+        feed.poll();
+
+        await().untilAsserted(() -> assertThat(result.getResponse().getContentAsString())
+                .contains("event:revoked\nid:" + feed.epoch() + ":2\ndata:200\n")
+                .contains("event:revoked\nid:" + feed.epoch() + ":3\ndata:300\n")
+                .doesNotContain("data:100"));
+    }
+
+    @Test
+    void testStreamFromUnknownPositionStartsWithReset() throws Exception {
+        revoke(1, 100);
+        feed.poll();
+
+        var result = mockMvc.perform(get("/internal/revocations/stream").param("since", "1:1"))
+                            .andExpect(request().asyncStarted())
+                            .andReturn();
+
+        assertThat(result.getResponse().getContentAsString())
+                .contains("event:reset\nid:" + feed.epoch() + ":1\n");
+    }
+
+    private void revoke(long id, long sessionId) {
+        table.add(SessionRevocation.builder()
+                                   .id(id)
+                                   .sessionId(sessionId)
+                                   .revokedAt(Instant.now())
+                                   .build());
+    }
+}
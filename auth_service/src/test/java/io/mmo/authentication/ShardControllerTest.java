@@ -0,0 +1,80 @@
+package io.mmo.authentication;
+
+import io.mmo.authentication.business.ShardProperties;
+import io.mmo.authentication.business.ShardRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ShardControllerTest {
+
+    private static final String HEARTBEAT = "{\"load\":120,\"capacity\":500}";
+
+    private ShardRegistry shardRegistry;
+    private ShardProperties properties;
+
+    @BeforeEach
+    void setup() {
+        shardRegistry = mock(ShardRegistry.class);
+        properties = new ShardProperties();
+        properties.setHeartbeatSecret("shard-secret");
+    }
+
+    @Test
+    void testHeartbeatWithSecretIsRecorded() throws Exception {
+        mockMvc().perform(post("/internal/shards/game-0/heartbeat")
+                                  .header("Authorization", "Bearer shard-secret")
+                                  .contentType(MediaType.APPLICATION_JSON)
+                                  .content(HEARTBEAT))
+                 .andExpect(status().isNoContent());
+
+        verify(shardRegistry).heartbeat("game-0", 120, 500);
+    }
+
+    @Test
+    void testHeartbeatWithoutSecretIsRefused() throws Exception {
+        var mockMvc = mockMvc();
+
+        mockMvc.perform(post("/internal/shards/game-0/heartbeat")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(HEARTBEAT))
+               .andExpect(status().isUnauthorized())
+               .andExpect(jsonPath("$.error").value("Invalid heartbeat secret"));
+        mockMvc.perform(post("/internal/shards/game-0/heartbeat")
+                                .header("Authorization", "Bearer other-secret")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(HEARTBEAT))
+               .andExpect(status().isUnauthorized());
+
+        verify(shardRegistry, never()).heartbeat(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testHeartbeatsAreRefusedWhileNoSecretIsConfigured() throws Exception {
+        properties.setHeartbeatSecret("");
+
+        mockMvc().perform(post("/internal/shards/game-0/heartbeat")
+                                  .header("Authorization", "Bearer ")
+                                  .contentType(MediaType.APPLICATION_JSON)
+                                  .content(HEARTBEAT))
+                 .andExpect(status().isUnauthorized());
+
+        verify(shardRegistry, never()).heartbeat(anyString(), anyInt(), anyInt());
+    }
+
+    private MockMvc mockMvc() {
+        return MockMvcBuilders.standaloneSetup(new ShardController(shardRegistry, properties))
+                              .build();
+    }
+}
@@ -0,0 +1,76 @@
+package io.mmo.authentication;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mmo.authentication.business.PasswordHashingExecutor;
+import io.mmo.authentication.business.WaitingRoom;
+import io.mmo.authentication.business.WaitingRoomProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class WaitingRoomControllerTest {
+
+    private WaitingRoom waitingRoom;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        var properties = new WaitingRoomProperties();
+        properties.setEnabled(true);
+        properties.setMaxWaiters(16);
+        var hashingExecutor = mock(PasswordHashingExecutor.class);
+        when(hashingExecutor.capacityPerSecond()).thenReturn(100.0);
+        waitingRoom = new WaitingRoom(properties, hashingExecutor, new SimpleMeterRegistry());
+        mockMvc = MockMvcBuilders.standaloneSetup(new WaitingRoomController(waitingRoom))
+                                 .build();
+    }
+
+    @Test
+    void testWaitingTicketReportsPosition() throws Exception {
+        waitingRoom.enqueue();
+        var ticket = waitingRoom.enqueue();
+
+        mockMvc.perform(asyncDispatch(poll("/auth/login/queue/" + ticket.id())))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.status").value("waiting"))
+               .andExpect(jsonPath("$.position").value(2))
+               .andExpect(jsonPath("$.estimatedWaitSeconds").value(1));
+    }
+
+    @Test
+    void testLongPollAnswersWhenTicketIsAdmitted() throws Exception {
+        var ticket = waitingRoom.enqueue();
+        MvcResult pending = poll("/auth/login/queue/" + ticket.id() + "?wait=10");
+
+        Thread.sleep(20);
+        waitingRoom.admit();
+
+        mockMvc.perform(asyncDispatch(pending))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.status").value("admitted"))
+               .andExpect(jsonPath("$.position").doesNotExist());
+    }
+
+    @Test
+    void testUnknownTicketIsNotFound() throws Exception {
+        mockMvc.perform(asyncDispatch(poll("/auth/login/queue/AAAAAAAAAAAAAAAAAAAAAA")))
+               .andExpect(status().isNotFound())
+               .andExpect(jsonPath("$.error").value("Unknown or expired queue ticket"));
+    }
+
+    private MvcResult poll(String path) throws Exception {
+        return mockMvc.perform(get(path))
+                      .andExpect(request().asyncStarted())
+                      .andReturn();
+    }
+}
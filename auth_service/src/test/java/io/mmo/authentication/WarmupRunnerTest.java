@@ -0,0 +1,98 @@
+package io.mmo.authentication;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.mmo.authentication.business.ImportProperties;
+import io.mmo.authentication.business.JwtService;
+import io.mmo.authentication.database.UserCredentialsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class WarmupRunnerTest {
+
+    private WarmupProperties properties;
+    private ImportProperties importProperties;
+    private JwtService jwtService;
+    private PasswordEncoder passwordEncoder;
+    private DataSource dataSource;
+    private Connection connection;
+    private UserCredentialsRepository userRepository;
+
+    @BeforeEach
+    void setup() throws Exception {
+        properties = new WarmupProperties();
+        properties.setRounds(20);
+        importProperties = new ImportProperties();
+        jwtService = mock(JwtService.class);
+        when(jwtService.generateToken(anyString(), anyLong(), isNull())).thenReturn("jwt-token");
+        passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.encode(anyString())).thenReturn("hashed");
+        connection = mock(Connection.class);
+        var pool = mock(HikariDataSource.class);
+        when(pool.getMaximumPoolSize()).thenReturn(3);
+        dataSource = mock(DataSource.class);
+        when(dataSource.isWrapperFor(HikariDataSource.class)).thenReturn(true);
+        when(dataSource.unwrap(HikariDataSource.class)).thenReturn(pool);
+        when(dataSource.getConnection()).thenReturn(connection);
+        userRepository = mock(UserCredentialsRepository.class);
+    }
+
+    @Test
+    void testWarmsUpEveryLoginStageAndFillsPool() throws Exception {
+        subject().run(null);
+
+        verify(dataSource, times(3)).getConnection();
+        verify(connection, times(3)).close();
+        verify(userRepository).findPasswordHashByUsername("warmup-player");
+        verify(passwordEncoder).matches("warmup-password", "hashed");
+        verify(jwtService, times(20)).generateToken("warmup-player", 0, null);
+    }
+
+    @Test
+    void testStopsWhenBudgetIsSpent() throws Exception {
+        properties.setRounds(Integer.MAX_VALUE);
+        properties.setBudget(Duration.ZERO);
+
+        subject().run(null);
+
+        verify(dataSource, atLeastOnce()).getConnection();
+        verifyNoInteractions(jwtService);
+    }
+
+    @Test
+    void testSkippedWhenDisabledOrImporting() throws Exception {
+        properties.setEnabled(false);
+        subject().run(null);
+
+        properties.setEnabled(true);
+        importProperties.setFile(Path.of("players.csv"));
+        subject().run(null);
+
+        verifyNoInteractions(dataSource, jwtService, passwordEncoder);
+    }
+
+    private WarmupRunner subject() {
+        return new WarmupRunner(properties,
+                                importProperties,
+                                jwtService,
+                                passwordEncoder,
+                                new AuthJsonCodec(new JsonCodecProperties()),
+                                dataSource,
+                                userRepository);
+    }
+}
@@ -0,0 +1,68 @@
+package io.mmo.authentication.benchmarks;
+
+import io.mmo.authentication.AuthController;
+import io.mmo.authentication.AuthJsonCodec;
+import io.mmo.authentication.JsonCodecProperties;
+import io.mmo.authentication.business.AuthService;
+import io.mmo.authentication.business.AuthTokens;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Request binding, dispatch and response serialization of {@link AuthController} through MockMvc,
+ * with the service stubbed out so only the web layer is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthControllerBenchmark {
+
+    private static final String BODY = "{\"username\":\"player1\",\"password\":\"secret\"}";
+
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setup() {
+        AuthService authService = mock(AuthService.class);
+        when(authService.login(anyString(), anyString())).thenReturn(new AuthTokens("jwt-token", "refresh-token"));
+        AuthController authController = new AuthController(authService);
+        mockMvc = MockMvcBuilders.standaloneSetup(authController)
+                                 .setControllerAdvice(authController)
+                                 .setMessageConverters(new AuthJsonCodec(new JsonCodecProperties()))
+                                 .build();
+    }
+
+    @Benchmark
+    public MvcResult login() throws Exception {
+        return mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON).content(BODY))
+                      .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult register() throws Exception {
+        return mockMvc.perform(post("/auth/register").contentType(MediaType.APPLICATION_JSON).content(BODY))
+                      .andReturn();
+    }
+}
@@ -0,0 +1,86 @@
+package io.mmo.authentication.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mmo.authentication.business.AuthEventLog;
+import io.mmo.authentication.business.AuthEventLogProperties;
+import io.mmo.authentication.database.AuthEvent;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sustained throughput of the auth event log: four threads publish as fast as they can while the writer thread
+ * appends to memory-mapped segments in a temporary directory. Every {@code accepted} event is written before the
+ * iteration ends, so its rate is the rate the writer sustains; {@code dropped} is the rate of events lost to a full
+ * buffer. The primary score counts both, the rate at which request threads get through {@code publish}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class AuthEventLogBenchmark {
+
+    private static final int USERS = 100_000;
+
+    private Path directory;
+    private AuthEventLog eventLog;
+    private String[] usernames;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcomes {
+        public long accepted;
+        public long dropped;
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("auth-events");
+        var properties = new AuthEventLogProperties();
+        properties.setDirectory(directory);
+        eventLog = new AuthEventLog(properties, new SimpleMeterRegistry());
+        usernames = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            usernames[i] = "player" + i;
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void teardown() throws IOException {
+        eventLog.shutdown();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public boolean publish(Outcomes outcomes) {
+        boolean accepted = eventLog.publish(AuthEvent.Type.LOGIN_SUCCEEDED,
+                                            usernames[ThreadLocalRandom.current().nextInt(USERS)]);
+        if (accepted) {
+            outcomes.accepted++;
+        } else {
+            outcomes.dropped++;
+        }
+        return accepted;
+    }
+}
@@ -0,0 +1,134 @@
+package io.mmo.authentication.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mmo.authentication.business.AuthEventLog;
+import io.mmo.authentication.business.AuthEventLogProperties;
+import io.mmo.authentication.business.AuthMetrics;
+import io.mmo.authentication.business.AuthService;
+import io.mmo.authentication.business.AuthTokens;
+import io.mmo.authentication.business.CredentialCacheProperties;
+import io.mmo.authentication.business.CredentialRowCache;
+import io.mmo.authentication.business.CredentialRowCacheProperties;
+import io.mmo.authentication.business.HashingProperties;
+import io.mmo.authentication.business.JwtProperties;
+import io.mmo.authentication.business.JwtService;
+import io.mmo.authentication.business.LoginCoalescer;
+import io.mmo.authentication.business.PasswordHashPolicy;
+import io.mmo.authentication.business.PasswordHashingExecutor;
+import io.mmo.authentication.business.PasswordRehasher;
+import io.mmo.authentication.business.RefreshTokenProperties;
+import io.mmo.authentication.business.RefreshTokenService;
+import io.mmo.authentication.business.RegistrationBatchProperties;
+import io.mmo.authentication.business.RegistrationBatcher;
+import io.mmo.authentication.business.ShardProperties;
+import io.mmo.authentication.business.ShardRegistry;
+import io.mmo.authentication.business.UsernameFilter;
+import io.mmo.authentication.business.UsernameFilterProperties;
+import io.mmo.authentication.business.VerifiedCredentialCache;
+import io.mmo.authentication.database.ReadReplicaPool;
+import io.mmo.authentication.database.ReadReplicaProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end cost of {@link AuthService#login} and {@link AuthService#register} with all in-process collaborators
+ * wired as in production and the repositories replaced by in-memory maps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class AuthServiceBenchmark {
+
+    private static final String PASSWORD = "secret";
+
+    @Param({"4", "10"})
+    public int cost;
+
+    private AuthService authService;
+    private PasswordHashingExecutor hashingExecutor;
+    private final AtomicLong registrations = new AtomicLong();
+
+    @Setup
+    public void setup() {
+        var meterRegistry = new SimpleMeterRegistry();
+        var jwtProperties = new JwtProperties();
+        jwtProperties.setSecret("benchmark-secret-key-0123456789abcdef");
+        jwtProperties.setExpiration(5000);
+
+        Map<String, String> users = new ConcurrentHashMap<>();
+        var registrationBatchProperties = new RegistrationBatchProperties();
+        registrationBatchProperties.setEnabled(false);
+
+        var hashingProperties = new HashingProperties();
+        hashingProperties.setBcryptStrength(cost);
+        var passwordEncoder = new BCryptPasswordEncoder(cost);
+        var userCredentialsJdbc = InMemoryRepositories.userCredentialsJdbc(users);
+        var rowCacheProperties = new CredentialRowCacheProperties();
+        rowCacheProperties.setEnabled(false);
+        var rowCache = new CredentialRowCache(rowCacheProperties,
+                                              InMemoryRepositories.userCredentials(users),
+                                              new ReadReplicaPool(new ReadReplicaProperties(),
+                                                                  new DataSourceProperties(),
+                                                                  meterRegistry),
+                                              null,
+                                              meterRegistry);
+        hashingExecutor = new PasswordHashingExecutor(hashingProperties, meterRegistry);
+        authService = new AuthService(new JwtService(jwtProperties),
+                                      passwordEncoder,
+                                      hashingExecutor,
+                                      new LoginCoalescer(meterRegistry),
+                                      new VerifiedCredentialCache(new CredentialCacheProperties(), meterRegistry),
+                                      new UsernameFilter(new UsernameFilterProperties(), userCredentialsJdbc, null, meterRegistry),
+                                      new PasswordRehasher(new PasswordHashPolicy(hashingProperties, meterRegistry),
+                                                           passwordEncoder,
+                                                           hashingExecutor,
+                                                           userCredentialsJdbc,
+                                                           rowCache,
+                                                           hashingProperties,
+                                                           meterRegistry),
+                                      rowCache,
+                                      new RegistrationBatcher(registrationBatchProperties, userCredentialsJdbc, meterRegistry),
+                                      new RefreshTokenService(InMemoryRepositories.refreshTokens(),
+                                                              InMemoryRepositories.sessionRevocations(),
+                                                              new RefreshTokenProperties()),
+                                      new ShardRegistry(InMemoryRepositories.gameShards(), new ShardProperties(), meterRegistry),
+                                      new AuthEventLog(new AuthEventLogProperties(), meterRegistry),
+                                      new AuthMetrics(meterRegistry));
+        authService.register("player1", PASSWORD);
+    }
+
+    @TearDown
+    public void teardown() {
+        hashingExecutor.shutdown();
+    }
+
+    @Benchmark
+    public AuthTokens login() {
+        return authService.login("player1", PASSWORD);
+    }
+
+    @Benchmark
+    public void register() {
+        authService.register("player-" + registrations.incrementAndGet(), PASSWORD);
+    }
+}
@@ -0,0 +1,92 @@
+package io.mmo.authentication.benchmarks;
+
+import io.mmo.authentication.database.GameShardRepository;
+import io.mmo.authentication.database.RefreshToken;
+import io.mmo.authentication.database.RefreshTokenRepository;
+import io.mmo.authentication.database.SessionRevocationRepository;
+import io.mmo.authentication.database.UserCredentials;
+import io.mmo.authentication.database.UserCredentialsJdbcRepository;
+import io.mmo.authentication.database.UserCredentialsRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Map-backed stand-ins for the Spring Data repositories, so benchmarks measure the service code rather than a
+ * database. Only the methods used on the login and register paths are implemented; the user
+ * credential stand-ins share the map passed in.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    static UserCredentialsRepository userCredentials(Map<String, String> users) {
+        return (UserCredentialsRepository) Proxy.newProxyInstance(
+                UserCredentialsRepository.class.getClassLoader(),
+                new Class<?>[]{UserCredentialsRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findPasswordHashByUsername" -> Optional.ofNullable(users.get((String) args[0]));
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static UserCredentialsJdbcRepository userCredentialsJdbc(Map<String, String> users) {
+        return new UserCredentialsJdbcRepository(new JdbcTemplate()) {
+            @Override
+            public boolean insertIfAbsent(String username, String passwordHash) {
+                return users.putIfAbsent(username, passwordHash) == null;
+            }
+
+            @Override
+            public boolean[] insertAllIfAbsent(List<UserCredentials> newUsers) {
+                boolean[] inserted = new boolean[newUsers.size()];
+                for (int i = 0; i < inserted.length; i++) {
+                    inserted[i] = insertIfAbsent(newUsers.get(i).getUsername(), newUsers.get(i).getPasswordHash());
+                }
+                return inserted;
+            }
+        };
+    }
+
+    static RefreshTokenRepository refreshTokens() {
+        Map<String, RefreshToken> tokens = new ConcurrentHashMap<>();
+        var ids = new AtomicLong();
+        return (RefreshTokenRepository) Proxy.newProxyInstance(
+                RefreshTokenRepository.class.getClassLoader(),
+                new Class<?>[]{RefreshTokenRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByTokenHash" -> Optional.ofNullable(tokens.get((String) args[0]));
+                    case "save" -> {
+                        var token = (RefreshToken) args[0];
+                        token.setId(ids.incrementAndGet());
+                        tokens.put(token.getTokenHash(), token);
+                        yield token;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static GameShardRepository gameShards() {
+        return (GameShardRepository) Proxy.newProxyInstance(
+                GameShardRepository.class.getClassLoader(),
+                new Class<?>[]{GameShardRepository.class},
+                (proxy, method, args) -> {
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static SessionRevocationRepository sessionRevocations() {
+        return (SessionRevocationRepository) Proxy.newProxyInstance(
+                SessionRevocationRepository.class.getClassLoader(),
+                new Class<?>[]{SessionRevocationRepository.class},
+                (proxy, method, args) -> {
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
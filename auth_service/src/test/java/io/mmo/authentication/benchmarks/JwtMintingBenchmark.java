@@ -0,0 +1,68 @@
+package io.mmo.authentication.benchmarks;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.mmo.authentication.business.Hs256TokenMinter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the jjwt builder chain with {@link Hs256TokenMinter} for the token shape issued at login.
+ * Run with {@code -prof gc} to see bytes allocated per token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtMintingBenchmark {
+
+    private static final byte[] SECRET = "benchmark-secret-key-0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+    private static final long EXPIRATION_MS = 5000;
+    private static final long SESSION_ID = 123_456_789L;
+    private static final String SHARD = "game-app-3";
+
+    private Key key;
+    private Hs256TokenMinter minter;
+    private String username;
+
+    @Setup
+    public void setup() {
+        key = Keys.hmacShaKeyFor(SECRET);
+        minter = new Hs256TokenMinter(SECRET);
+        username = "player123456";
+    }
+
+    @Benchmark
+    public String jjwtBuilder() {
+        Date now = new Date();
+        return Jwts.builder()
+                   .setSubject(username)
+                   .claim("sid", SESSION_ID)
+                   .claim("shard", SHARD)
+                   .setIssuedAt(now)
+                   .setExpiration(new Date(now.getTime() + EXPIRATION_MS))
+                   .signWith(key)
+                   .compact();
+    }
+
+    @Benchmark
+    public String leanMinter() {
+        long now = System.currentTimeMillis();
+        return minter.mint(username, SESSION_ID, SHARD, now / 1000, (now + EXPIRATION_MS) / 1000);
+    }
+}
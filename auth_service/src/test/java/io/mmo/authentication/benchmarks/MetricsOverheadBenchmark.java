@@ -0,0 +1,64 @@
+package io.mmo.authentication.benchmarks;
+
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import io.mmo.authentication.business.AuthMetrics;
+import io.mmo.authentication.business.AuthMetrics.Operation;
+import io.mmo.authentication.business.AuthMetrics.Phase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost that {@link AuthMetrics} adds to each auth phase when backed by the Prometheus registry with percentile
+ * histograms enabled. The wrapped work is trivial so the difference to {@code baseline} is the instrumentation
+ * itself; a login has four timed phases and one outcome counter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    private AuthMetrics metrics;
+    private String username;
+
+    @Setup
+    public void setup() {
+        metrics = new AuthMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+        username = "player123456";
+    }
+
+    @Benchmark
+    public int baseline() {
+        return work();
+    }
+
+    @Benchmark
+    public int timedPhase() {
+        return metrics.time(Operation.LOGIN, Phase.SIGN, this::work);
+    }
+
+    @Benchmark
+    public int instrumentedLogin() {
+        return metrics.record(Operation.LOGIN, () -> metrics.time(Operation.LOGIN, Phase.LOOKUP, this::work)
+                + metrics.time(Operation.LOGIN, Phase.VERIFY, this::work)
+                + metrics.time(Operation.LOGIN, Phase.SIGN, this::work)
+                + metrics.time(Operation.LOGIN, Phase.REFRESH_TOKEN, this::work));
+    }
+
+    private int work() {
+        return username.hashCode();
+    }
+}
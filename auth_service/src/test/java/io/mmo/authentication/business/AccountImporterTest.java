@@ -0,0 +1,155 @@
+package io.mmo.authentication.business;
+
+import io.mmo.authentication.JsonCodecProperties;
+import io.mmo.authentication.database.UserCredentials;
+import io.mmo.authentication.database.UserCredentialsBulkLoader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AccountImporterTest {
+
+    private static final String HASH = new BCryptPasswordEncoder(4).encode("secret");
+
+    @TempDir
+    Path directory;
+
+    private ImportProperties properties;
+    private UserCredentialsBulkLoader bulkLoader;
+    private BCryptPasswordEncoder passwordEncoder;
+    private final Map<String, String> table = new HashMap<>();
+    private final AtomicInteger chunksLoaded = new AtomicInteger();
+
+    @BeforeEach
+    void setup() {
+        properties = new ImportProperties();
+        properties.setChunkSize(2);
+        properties.setHashThreads(2);
+        passwordEncoder = new BCryptPasswordEncoder(4);
+        bulkLoader = mock(UserCredentialsBulkLoader.class);
+        when(bulkLoader.loadAllIfAbsent(anyList())).thenAnswer(invocation -> load(invocation.getArgument(0)));
+    }
+
+    @Test
+    void testImportHashesPlaintextAndReportsDuplicates() throws IOException {
+        table.put("existing", HASH);
+        Path file = Files.writeString(directory.resolve("players.csv"), """
+                username,password
+                player1,secret
+                existing,secret
+                player2,secret
+                player1,other
+                ,secret
+                """);
+
+        ImportReport report = subject().importFile(file);
+
+        assertThat(report.read()).isEqualTo(5);
+        assertThat(report.inserted()).isEqualTo(2);
+        assertThat(report.duplicates()).isEqualTo(2);
+        assertThat(report.invalid()).isEqualTo(1);
+        assertThat(passwordEncoder.matches("secret", table.get("player1"))).isTrue();
+        assertThat(Files.readAllLines(directory.resolve("players.csv.rejected.csv"))).containsExactly(
+                "line,username,reason",
+                "3,\"existing\",\"duplicate username\"",
+                "5,\"player1\",\"duplicate username\"",
+                "6,\"\",\"missing username\"");
+        assertThat(directory.resolve("players.csv.checkpoint")).doesNotExist();
+    }
+
+    @Test
+    void testOverlongUsernamesAndPasswordsAreRejectedWithoutAbortingTheImport() throws IOException {
+        Path file = Files.writeString(directory.resolve("players.csv"), """
+                username,password
+                  player1  ,  secret \s
+                %s,secret
+                player2,%s
+                player3,secret
+                """.formatted("u".repeat(256), "é".repeat(37)));
+
+        ImportReport report = subject().importFile(file);
+
+        assertThat(report.inserted()).isEqualTo(2);
+        assertThat(report.invalid()).isEqualTo(2);
+        assertThat(passwordEncoder.matches("secret", table.get("player1"))).isTrue();
+        assertThat(table).containsOnlyKeys("player1", "player3");
+        assertThat(Files.readAllLines(directory.resolve("players.csv.rejected.csv"))).containsExactly(
+                "line,username,reason",
+                "3,\"%s\",\"username longer than 255 characters\"".formatted("u".repeat(256)),
+                "4,\"player2\",\"password longer than 72 bytes\"");
+        assertThat(directory.resolve("players.csv.checkpoint")).doesNotExist();
+    }
+
+    @Test
+    void testPreHashedValuesAreValidatedAndKept() throws IOException {
+        Path file = Files.writeString(directory.resolve("players.ndjson"), """
+                {"username":"player1","passwordHash":"%s"}
+                {"username":"player2","passwordHash":"plaintext"}
+                """.formatted(HASH));
+
+        ImportReport report = subject().importFile(file);
+
+        assertThat(report.inserted()).isEqualTo(1);
+        assertThat(report.invalid()).isEqualTo(1);
+        assertThat(table.get("player1")).isEqualTo(HASH);
+    }
+
+    @Test
+    void testInterruptedImportResumesFromCheckpoint() throws IOException {
+        Path file = Files.writeString(directory.resolve("players.csv"), """
+                username,password_hash
+                player1,%1$s
+                player2,%1$s
+                player3,%1$s
+                player4,%1$s
+                player5,%1$s
+                """.formatted(HASH));
+        doAnswer(invocation -> {
+            if (chunksLoaded.get() == 1) {
+                throw new IllegalStateException("connection lost");
+            }
+            return load(invocation.getArgument(0));
+        }).when(bulkLoader).loadAllIfAbsent(anyList());
+
+        assertThatThrownBy(() -> subject().importFile(file)).isInstanceOf(IllegalStateException.class);
+        assertThat(table).containsOnlyKeys("player1", "player2");
+        assertThat(Files.readString(directory.resolve("players.csv.checkpoint"))).isEqualTo("3");
+
+        doAnswer(invocation -> load(invocation.getArgument(0))).when(bulkLoader).loadAllIfAbsent(anyList());
+        ImportReport report = subject().importFile(file);
+
+        assertThat(report.resumed()).isEqualTo(2);
+        assertThat(report.inserted()).isEqualTo(3);
+        assertThat(report.duplicates()).isZero();
+        assertThat(table).hasSize(5);
+    }
+
+    private AccountImporter subject() {
+        return new AccountImporter(properties, new JsonCodecProperties(), passwordEncoder, bulkLoader);
+    }
+
+    private boolean[] load(List<UserCredentials> users) {
+        chunksLoaded.incrementAndGet();
+        boolean[] inserted = new boolean[users.size()];
+        for (int i = 0; i < inserted.length; i++) {
+            inserted[i] = table.putIfAbsent(users.get(i).getUsername(), users.get(i).getPasswordHash()) == null;
+        }
+        return inserted;
+    }
+}
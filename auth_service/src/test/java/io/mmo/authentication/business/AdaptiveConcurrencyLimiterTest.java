@@ -0,0 +1,104 @@
+package io.mmo.authentication.business;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private ConcurrencyLimitProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private AdaptiveConcurrencyLimiter subject;
+
+    @BeforeEach
+    void setup() {
+        properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(10);
+        meterRegistry = new SimpleMeterRegistry();
+        subject = new AdaptiveConcurrencyLimiter(properties, meterRegistry, now::get);
+    }
+
+    @Test
+    void testRejectsAboveLimit() {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = acquire(10);
+
+        assertThat(permits).doesNotContainNull();
+        assertThat(subject.tryAcquire()).isNull();
+        assertThat(requests("rejected")).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.concurrency-limit.in-flight").gauge().value()).isEqualTo(10);
+    }
+
+    @Test
+    void testLimitGrowsWhileLatencyIsSteady() {
+        for (int round = 0; round < 20; round++) {
+            completeAll(acquire(subject.getLimit()), 100);
+        }
+
+        assertThat(subject.getLimit()).isGreaterThan(30);
+        assertThat(meterRegistry.get("auth.concurrency-limit.limit").gauge().value()).isEqualTo(subject.getLimit());
+    }
+
+    @Test
+    void testLimitShrinksWhenLatencyRises() {
+        for (int round = 0; round < 50; round++) {
+            completeAll(acquire(10), 100);
+        }
+        int steadyLimit = subject.getLimit();
+
+        for (int round = 0; round < 20; round++) {
+            completeAll(acquire(subject.getLimit()), 1000);
+        }
+
+        assertThat(subject.getLimit()).isLessThan(steadyLimit / 2);
+    }
+
+    @Test
+    void testLimitDoesNotGrowWhileMostlyIdle() {
+        for (int round = 0; round < 100; round++) {
+            completeAll(acquire(2), 100);
+        }
+
+        assertThat(subject.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void testDroppedRequestsBackOff() {
+        acquire(1).get(0).drop();
+
+        assertThat(subject.getLimit()).isEqualTo(9);
+        assertThat(subject.tryAcquire()).isNotNull();
+    }
+
+    @Test
+    void testDisabledLimiterAdmitsEverything() {
+        properties.setEnabled(false);
+        subject = new AdaptiveConcurrencyLimiter(properties, new SimpleMeterRegistry(), now::get);
+
+        assertThat(acquire(1000)).doesNotContainNull();
+    }
+
+    private List<AdaptiveConcurrencyLimiter.Permit> acquire(int count) {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            permits.add(subject.tryAcquire());
+        }
+        return permits;
+    }
+
+    private void completeAll(List<AdaptiveConcurrencyLimiter.Permit> permits, long latencyMs) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(latencyMs));
+        permits.forEach(AdaptiveConcurrencyLimiter.Permit::release);
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("auth.concurrency-limit.requests").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,171 @@
+package io.mmo.authentication.business;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mmo.authentication.database.AuthEvent;
+import io.mmo.authentication.database.AuthEventReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.awaitility.Awaitility.await;
+
+class AuthEventLogTest {
+
+    @TempDir
+    private Path directory;
+    private AuthEventLogProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private AuthEventLog subject;
+
+    @BeforeEach
+    void setup() {
+        properties = new AuthEventLogProperties();
+        properties.setDirectory(directory);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void teardown() {
+        if (subject != null) {
+            subject.shutdown();
+        }
+    }
+
+    @Test
+    void testWriterAppendsPublishedEventsInOrder() throws IOException {
+        subject = new AuthEventLog(properties, meterRegistry);
+        long before = System.currentTimeMillis();
+
+        subject.publish(AuthEvent.Type.REGISTERED, "player1");
+        subject.publish(AuthEvent.Type.LOGIN_FAILED, "player1");
+        subject.publish(AuthEvent.Type.LOGIN_SUCCEEDED, "spieler-ß");
+        subject.shutdown();
+
+        List<AuthEvent> events = readAll();
+        assertThat(events).extracting(AuthEvent::type, AuthEvent::username)
+                          .containsExactly(tuple(AuthEvent.Type.REGISTERED, "player1"),
+                                           tuple(AuthEvent.Type.LOGIN_FAILED, "player1"),
+                                           tuple(AuthEvent.Type.LOGIN_SUCCEEDED, "spieler-ß"));
+        assertThat(events).allSatisfy(event -> assertThat(event.timestampMillis())
+                .isBetween(before, System.currentTimeMillis()));
+        assertThat(events("written")).isEqualTo(3);
+    }
+
+    @Test
+    void testReaderFollowsTheSegmentBeingWritten() throws IOException {
+        subject = new AuthEventLog(properties, meterRegistry);
+        try (var reader = new AuthEventReader(directory)) {
+            subject.publish(AuthEvent.Type.LOGIN_SUCCEEDED, "player1");
+            await().until(() -> events("written") == 1);
+            assertThat(reader.poll().username()).isEqualTo("player1");
+            assertThat(reader.poll()).isNull();
+
+            subject.publish(AuthEvent.Type.LOGIN_SUCCEEDED, "player2");
+            await().until(() -> events("written") == 2);
+            assertThat(reader.poll().username()).isEqualTo("player2");
+        }
+    }
+
+    @Test
+    void testFullBufferDropsEventsAndLogsTheGap() throws IOException {
+        properties.setBufferCapacity(4);
+        subject = new AuthEventLog(properties, meterRegistry, false);
+
+        for (int i = 0; i < 10; i++) {
+            subject.publish(AuthEvent.Type.LOGIN_FAILED, "player" + i);
+        }
+        subject.writePending();
+        subject.publish(AuthEvent.Type.LOGIN_FAILED, "player10");
+        subject.shutdown();
+
+        List<AuthEvent> events = readAll();
+        assertThat(events).extracting(AuthEvent::type)
+                          .containsExactly(AuthEvent.Type.LOGIN_FAILED, AuthEvent.Type.LOGIN_FAILED,
+                                           AuthEvent.Type.LOGIN_FAILED, AuthEvent.Type.LOGIN_FAILED,
+                                           AuthEvent.Type.EVENTS_DROPPED, AuthEvent.Type.LOGIN_FAILED);
+        assertThat(events.get(4).dropped()).isEqualTo(6);
+        assertThat(events.getLast().username()).isEqualTo("player10");
+        assertThat(events("dropped")).isEqualTo(6);
+    }
+
+    @Test
+    void testSegmentsRotateAndOnlyTheNewestAreRetained() throws IOException {
+        properties.setSegmentSize(DataSize.ofKilobytes(128));
+        properties.setRetainedSegments(2);
+        subject = new AuthEventLog(properties, meterRegistry, false);
+        String username = "p".repeat(1000);
+
+        for (int i = 0; i < 400; i++) {
+            subject.publish(AuthEvent.Type.LOGIN_SUCCEEDED, username + i);
+            subject.writePending();
+        }
+        subject.shutdown();
+
+        assertThat(segmentCount()).isEqualTo(2);
+        List<AuthEvent> events = readAll();
+        assertThat(events.getLast().username()).isEqualTo(username + 399);
+        assertThat(events).hasSizeLessThan(400);
+        for (int i = 1; i < events.size(); i++) {
+            assertThat(index(events.get(i))).isEqualTo(index(events.get(i - 1)) + 1);
+        }
+    }
+
+    @Test
+    void testRestartStartsNewSegment() throws IOException {
+        subject = new AuthEventLog(properties, meterRegistry, false);
+        subject.publish(AuthEvent.Type.REGISTERED, "player1");
+        subject.shutdown();
+
+        subject = new AuthEventLog(properties, new SimpleMeterRegistry(), false);
+        subject.publish(AuthEvent.Type.LOGIN_SUCCEEDED, "player1");
+        subject.shutdown();
+
+        assertThat(segmentCount()).isEqualTo(2);
+        assertThat(readAll()).extracting(AuthEvent::type)
+                             .containsExactly(AuthEvent.Type.REGISTERED, AuthEvent.Type.LOGIN_SUCCEEDED);
+    }
+
+    @Test
+    void testDisabledWithoutDirectory() {
+        properties.setDirectory(null);
+        subject = new AuthEventLog(properties, meterRegistry);
+
+        assertThat(subject.publish(AuthEvent.Type.LOGIN_SUCCEEDED, "player1")).isFalse();
+        assertThat(directory).isEmptyDirectory();
+    }
+
+    private List<AuthEvent> readAll() throws IOException {
+        List<AuthEvent> events = new ArrayList<>();
+        try (var reader = new AuthEventReader(directory)) {
+            for (AuthEvent event = reader.poll(); event != null; event = reader.poll()) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private static int index(AuthEvent event) {
+        return Integer.parseInt(event.username().substring(1000));
+    }
+
+    private double events(String result) {
+        return meterRegistry.get("auth.event-log.events").tag("result", result).functionCounter().count();
+    }
+}
@@ -0,0 +1,89 @@
+package io.mmo.authentication.business;
+
+import io.mmo.authentication.database.AuthEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthEventRingTest {
+
+    @Test
+    void testCapacityIsRoundedUpToPowerOfTwo() {
+        assertThat(new AuthEventRing(1000).capacity()).isEqualTo(1024);
+        assertThat(new AuthEventRing(1024).capacity()).isEqualTo(1024);
+    }
+
+    @Test
+    void testFullRingDropsAndCountsNewEvents() {
+        var subject = new AuthEventRing(4);
+        for (int i = 0; i < 6; i++) {
+            assertThat(subject.offer(event("player" + i))).isEqualTo(i < 4);
+        }
+        assertThat(subject.dropped()).isEqualTo(2);
+
+        List<String> drained = new ArrayList<>();
+        assertThat(subject.drain(event -> drained.add(event.username()), 10)).isEqualTo(4);
+        assertThat(drained).containsExactly("player0", "player1", "player2", "player3");
+        assertThat(subject.offer(event("player6"))).isTrue();
+        assertThat(subject.size()).isOne();
+    }
+
+    @Test
+    void testConcurrentProducersLoseNothingAndKeepTheirOrder() throws InterruptedException {
+        var subject = new AuthEventRing(4096);
+        int producers = 4;
+        int eventsPerProducer = 50_000;
+        var start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            String producer = "producer" + p;
+            threads.add(Thread.ofPlatform().start(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < eventsPerProducer; i++) {
+                    while (!subject.offer(new AuthEvent(AuthEvent.Type.LOGIN_SUCCEEDED, i, producer, 0))) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+
+        Map<String, Long> lastSeen = new HashMap<>();
+        List<String> outOfOrder = new ArrayList<>();
+        start.countDown();
+        long received = 0;
+        while (received < (long) producers * eventsPerProducer) {
+            received += subject.drain(event -> {
+                long previous = lastSeen.getOrDefault(event.username(), -1L);
+                if (event.timestampMillis() != previous + 1) {
+                    outOfOrder.add(event.username() + "@" + event.timestampMillis());
+                }
+                lastSeen.put(event.username(), event.timestampMillis());
+            }, 64);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(outOfOrder).isEmpty();
+        assertThat(lastSeen).hasSize(producers).allSatisfy((producer, last) -> assertThat(last).isEqualTo(eventsPerProducer - 1));
+        assertThat(subject.size()).isZero();
+    }
+
+    private static AuthEvent event(String username) {
+        return AuthEvent.of(AuthEvent.Type.LOGIN_FAILED, username);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,22 +1,35 @@
 package io.mmo.authentication.business;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.mmo.authentication.business.exceptions.InvalidCredentialsException;
 import io.mmo.authentication.business.exceptions.InvalidInputException;
+import io.mmo.authentication.business.exceptions.InvalidTokenException;
 import io.mmo.authentication.business.exceptions.UserAlreadyExistsException;
-import io.mmo.authentication.database.UserCredentials;
+import io.mmo.authentication.database.AuthEvent;
+import io.mmo.authentication.database.CredentialChangeChannel;
+import io.mmo.authentication.database.ReadReplicaPool;
+import io.mmo.authentication.database.ReadReplicaProperties;
+import io.mmo.authentication.database.UserCredentialsJdbcRepository;
 import io.mmo.authentication.database.UserCredentialsRepository;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
-import static org.mockito.Mockito.any;
-import static org.mockito.Mockito.argThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -26,53 +39,157 @@ class AuthServiceTest {
     private AuthService subject;
     private JwtService jwtService;
     private PasswordEncoder passwordEncoder;
+    private PasswordHashingExecutor hashingExecutor;
+    private CredentialCacheProperties credentialCacheProperties;
+    private CredentialRowCacheProperties rowCacheProperties;
+    private UsernameFilterProperties usernameFilterProperties;
+    private UserCredentialsJdbcRepository jdbcRepository;
+    private UsernameFilter usernameFilter;
+    private HashingProperties hashingProperties;
     private UserCredentialsRepository userRepository;
+    private RegistrationBatcher registrationBatcher;
+    private RefreshTokenService refreshTokenService;
+    private ShardRegistry shardRegistry;
+    private AuthEventLog eventLog;
+    private SimpleMeterRegistry meterRegistry;
 
     @BeforeEach
     void setup() {
         userRepository = mock(UserCredentialsRepository.class);
+        registrationBatcher = mock(RegistrationBatcher.class);
         jwtService = mock(JwtService.class);
         passwordEncoder = mock(PasswordEncoder.class);
-        subject = new AuthService(jwtService, passwordEncoder, userRepository);
+        refreshTokenService = mock(RefreshTokenService.class);
+        when(refreshTokenService.issue(anyString())).thenReturn(new RefreshTokenService.IssuedToken("refresh-token", 7));
+        shardRegistry = mock(ShardRegistry.class);
+        eventLog = mock(AuthEventLog.class);
+        hashingProperties = new HashingProperties();
+        hashingExecutor = new PasswordHashingExecutor(hashingProperties, new SimpleMeterRegistry());
+        credentialCacheProperties = new CredentialCacheProperties();
+        rowCacheProperties = new CredentialRowCacheProperties();
+        rowCacheProperties.setEnabled(false);
+        usernameFilterProperties = new UsernameFilterProperties();
+        jdbcRepository = mock(UserCredentialsJdbcRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        subject = createSubject();
+    }
+
+    private AuthService createSubject() {
+        usernameFilter = new UsernameFilter(usernameFilterProperties,
+                                            jdbcRepository,
+                                            mock(CredentialChangeChannel.class),
+                                            new SimpleMeterRegistry());
+        var rowCache = new CredentialRowCache(rowCacheProperties,
+                                              userRepository,
+                                              new ReadReplicaPool(new ReadReplicaProperties(),
+                                                                  new DataSourceProperties(),
+                                                                  new SimpleMeterRegistry()),
+                                              mock(CredentialChangeChannel.class),
+                                              new SimpleMeterRegistry());
+        return new AuthService(jwtService,
+                               passwordEncoder,
+                               hashingExecutor,
+                               new LoginCoalescer(new SimpleMeterRegistry()),
+                               new VerifiedCredentialCache(credentialCacheProperties, new SimpleMeterRegistry()),
+                               usernameFilter,
+                               new PasswordRehasher(new PasswordHashPolicy(hashingProperties, new SimpleMeterRegistry()),
+                                                    passwordEncoder,
+                                                    hashingExecutor,
+                                                    jdbcRepository,
+                                                    rowCache,
+                                                    hashingProperties,
+                                                    new SimpleMeterRegistry()),
+                               rowCache,
+                               registrationBatcher,
+                               refreshTokenService,
+                               shardRegistry,
+                               eventLog,
+                               new AuthMetrics(meterRegistry));
+    }
+
+    @AfterEach
+    void teardown() {
+        hashingExecutor.shutdown();
     }
 
     @Test
     void testLoginSuccess() {
         String username = "player1";
         String password = "secret";
-        UserCredentials user = new UserCredentials();
-        user.setUsername(username);
-        user.setPasswordHash("hashed");
 
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
+        when(userRepository.findPasswordHashByUsername(username)).thenReturn(Optional.of("hashed"));
         when(passwordEncoder.matches(password, "hashed")).thenReturn(true);
-        when(jwtService.generateToken(username)).thenReturn("jwt-token");
+        when(refreshTokenService.issue(username)).thenReturn(new RefreshTokenService.IssuedToken("refresh-token", 7));
+        when(jwtService.generateToken(username, 7, null)).thenReturn("jwt-token");
 
-        String token = subject.login(username, password);
+        AuthTokens tokens = subject.login(username, password);
 
-        assertThat(token).isEqualTo("jwt-token");
-        verify(userRepository).findByUsername(username);
+        assertThat(tokens.accessToken()).isEqualTo("jwt-token");
+        assertThat(tokens.refreshToken()).isEqualTo("refresh-token");
+        verify(userRepository).findPasswordHashByUsername(username);
         verify(passwordEncoder).matches(password, "hashed");
-        verify(jwtService).generateToken(username);
+        verify(jwtService).generateToken(username, 7, null);
+        verify(refreshTokenService).issue(username);
+        verify(eventLog).publish(AuthEvent.Type.LOGIN_SUCCEEDED, username);
+    }
+
+    @Test
+    void testLoginEmbedsAssignedShard() {
+        when(userRepository.findPasswordHashByUsername("player1")).thenReturn(Optional.of("hashed"));
+        when(passwordEncoder.matches("secret", "hashed")).thenReturn(true);
+        when(shardRegistry.assign("player1")).thenReturn("game-app-2");
+        when(jwtService.generateToken("player1", 7, "game-app-2")).thenReturn("jwt-token");
+
+        AuthTokens tokens = subject.login("player1", "secret");
+
+        assertThat(tokens.accessToken()).isEqualTo("jwt-token");
+    }
+
+    @Test
+    void testLoginRepeatedWithCredentialCacheSkipsHashing() {
+        credentialCacheProperties.setEnabled(true);
+        subject = createSubject();
+        String username = "player1";
+        String password = "secret";
+
+        when(userRepository.findPasswordHashByUsername(username)).thenReturn(Optional.of("hashed"));
+        when(passwordEncoder.matches(password, "hashed")).thenReturn(true);
+        when(jwtService.generateToken(username, 7, null)).thenReturn("jwt-token");
+
+        subject.login(username, password);
+        subject.login(username, password);
+
+        verify(passwordEncoder, times(1)).matches(password, "hashed");
+        verify(jwtService, times(2)).generateToken(username, 7, null);
+    }
+
+    @Test
+    void testLoginRehashesPasswordWithOutdatedCost() {
+        when(userRepository.findPasswordHashByUsername("player1")).thenReturn(Optional.of("$2a$10$outdated"));
+        when(passwordEncoder.matches("secret", "$2a$10$outdated")).thenReturn(true);
+        when(passwordEncoder.encode("secret")).thenReturn("$2a$12$current");
+        when(jdbcRepository.replacePasswordHash("player1", "$2a$10$outdated", "$2a$12$current")).thenReturn(true);
+
+        subject.login("player1", "secret");
+
+        verify(jdbcRepository, timeout(5000)).replacePasswordHash("player1", "$2a$10$outdated", "$2a$12$current");
     }
 
     @Test
     void testLoginInvalidCredentials() {
         String username = "player2";
         String password = "wrong";
-        UserCredentials user = new UserCredentials();
-        user.setUsername(username);
-        user.setPasswordHash("hashed");
 
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
+        when(userRepository.findPasswordHashByUsername(username)).thenReturn(Optional.of("hashed"));
         when(passwordEncoder.matches(password, "hashed")).thenReturn(false);
 
         assertThatThrownBy(() -> subject.login(username, password))
                 .isInstanceOf(InvalidCredentialsException.class);
 
-        verify(userRepository).findByUsername(username);
+        verify(userRepository).findPasswordHashByUsername(username);
         verify(passwordEncoder).matches(password, "hashed");
         verifyNoInteractions(jwtService);
+        verify(eventLog).publish(AuthEvent.Type.LOGIN_FAILED, username);
     }
 
     @Test
@@ -80,16 +197,103 @@ class AuthServiceTest {
         String username = "nonexistent";
         String password = "any";
 
-        when(userRepository.findByUsername(username)).thenReturn(Optional.empty());
+        when(userRepository.findPasswordHashByUsername(username)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> subject.login(username, password))
                 .isInstanceOf(InvalidCredentialsException.class);
 
-        verify(userRepository).findByUsername(username);
-        verifyNoInteractions(passwordEncoder);
+        verify(userRepository).findPasswordHashByUsername(username);
+        verify(passwordEncoder).matches(eq(password), any());
         verifyNoInteractions(jwtService);
     }
 
+    @Test
+    void testLoginUnknownUsernameSkipsLookupWithUsernameFilter() {
+        usernameFilterProperties.setEnabled(true);
+        usernameFilterProperties.setExpectedUsers(1000);
+        subject = createSubject();
+        doAnswer(invocation -> {
+            Consumer<String> consumer = invocation.getArgument(0);
+            consumer.accept("player1");
+            return null;
+        }).when(jdbcRepository).forEachUsername(any());
+        usernameFilter.rebuild();
+
+        when(userRepository.findPasswordHashByUsername("player1")).thenReturn(Optional.of("hashed"));
+        when(passwordEncoder.matches("secret", "hashed")).thenReturn(true);
+
+        assertThatThrownBy(() -> subject.login("nonexistent", "secret"))
+                .isInstanceOf(InvalidCredentialsException.class);
+        subject.login("player1", "secret");
+
+        verify(userRepository, never()).findPasswordHashByUsername("nonexistent");
+        verify(passwordEncoder, times(2)).matches(anyString(), any());
+        assertThat(phaseCount("login", "verify")).isEqualTo(2);
+    }
+
+    @Test
+    void testRegisterAddsUsernameToFilter() {
+        usernameFilterProperties.setEnabled(true);
+        usernameFilterProperties.setExpectedUsers(1000);
+        subject = createSubject();
+        usernameFilter.rebuild();
+        when(passwordEncoder.encode("secret")).thenReturn("hashed-password");
+        when(registrationBatcher.insertIfAbsent("player1", "hashed-password")).thenReturn(true);
+
+        assertThat(usernameFilter.mightContain("player1")).isFalse();
+        subject.register("player1", "secret");
+
+        assertThat(usernameFilter.mightContain("player1")).isTrue();
+    }
+
+    @Test
+    void testRegisteredUserLogsInFromRowCacheWithoutLookup() {
+        rowCacheProperties.setEnabled(true);
+        subject = createSubject();
+        when(passwordEncoder.encode("secret")).thenReturn("hashed-password");
+        when(registrationBatcher.insertIfAbsent("player1", "hashed-password")).thenReturn(true);
+        when(passwordEncoder.matches("secret", "hashed-password")).thenReturn(true);
+
+        subject.register("player1", "secret");
+        subject.login("player1", "secret");
+        subject.login("player1", "secret");
+
+        verify(userRepository, never()).findPasswordHashByUsername(anyString());
+        verify(passwordEncoder, times(2)).matches("secret", "hashed-password");
+    }
+
+    @Test
+    void testLoginRecordsPhaseTimersAndOutcomes() {
+
+        when(userRepository.findPasswordHashByUsername("player1")).thenReturn(Optional.of("hashed"));
+        when(passwordEncoder.matches("secret", "hashed")).thenReturn(true);
+        when(passwordEncoder.matches("wrong", "hashed")).thenReturn(false);
+
+        subject.login("player1", "secret");
+        assertThatThrownBy(() -> subject.login("player1", "wrong"))
+                .isInstanceOf(InvalidCredentialsException.class);
+        assertThatThrownBy(() -> subject.login("", "secret"))
+                .isInstanceOf(InvalidInputException.class);
+
+        assertThat(requests("login", "success")).isEqualTo(1);
+        assertThat(requests("login", "invalid-credentials")).isEqualTo(1);
+        assertThat(requests("login", "invalid-input")).isEqualTo(1);
+        assertThat(phaseCount("login", "lookup")).isEqualTo(2);
+        assertThat(phaseCount("login", "verify")).isEqualTo(2);
+        assertThat(phaseCount("login", "sign")).isEqualTo(1);
+        assertThat(phaseCount("login", "refresh-token")).isEqualTo(1);
+    }
+
+    @Test
+    void testLoginInternalErrorIsCounted() {
+        when(userRepository.findPasswordHashByUsername("player1")).thenThrow(new IllegalStateException("database down"));
+
+        assertThatThrownBy(() -> subject.login("player1", "secret"))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(requests("login", "internal-error")).isEqualTo(1);
+    }
+
     @Test
     void testLoginBlankUsernameOrPassword() {
         assertThatThrownBy(() -> subject.login("", "password"))
@@ -111,17 +315,14 @@ class AuthServiceTest {
         String username = "player1";
         String password = "secret";
 
-        when(userRepository.existsByUsername(username)).thenReturn(false);
         when(passwordEncoder.encode(password)).thenReturn("hashed-password");
+        when(registrationBatcher.insertIfAbsent(username, "hashed-password")).thenReturn(true);
 
         subject.register(username, password);
 
-        verify(userRepository).existsByUsername(username);
         verify(passwordEncoder).encode(password);
-        verify(userRepository).save(argThat(user ->
-                user.getUsername().equals(username) &&
-                        user.getPasswordHash().equals("hashed-password")
-        ));
+        verify(registrationBatcher).insertIfAbsent(username, "hashed-password");
+        verify(eventLog).publish(AuthEvent.Type.REGISTERED, username);
     }
 
     @Test
@@ -129,14 +330,14 @@ class AuthServiceTest {
         String username = "player1";
         String password = "secret";
 
-        when(userRepository.existsByUsername(username)).thenReturn(true);
+        when(passwordEncoder.encode(password)).thenReturn("hashed-password");
+        when(registrationBatcher.insertIfAbsent(username, "hashed-password")).thenReturn(false);
 
         assertThatThrownBy(() -> subject.register(username, password))
                 .isInstanceOf(UserAlreadyExistsException.class);
 
-        verify(userRepository).existsByUsername(username);
-        verifyNoInteractions(passwordEncoder);
-        verify(userRepository, never()).save(any());
+        verify(registrationBatcher).insertIfAbsent(username, "hashed-password");
+        assertThat(requests("register", "user-exists")).isEqualTo(1);
     }
 
     @Test
@@ -150,7 +351,55 @@ class AuthServiceTest {
         assertThatThrownBy(() -> subject.register(" ", " "))
                 .isInstanceOf(InvalidInputException.class);
 
-        verifyNoInteractions(userRepository);
+        verifyNoInteractions(registrationBatcher);
+        verifyNoInteractions(passwordEncoder);
+    }
+
+    @Test
+    void testRefreshSuccess() {
+        when(refreshTokenService.rotate("refresh-token"))
+                .thenReturn(new RefreshTokenService.RotatedToken("player1", "next-refresh-token", 7));
+        when(jwtService.generateToken("player1", 7, null)).thenReturn("jwt-token");
+
+        AuthTokens tokens = subject.refresh("refresh-token");
+
+        assertThat(tokens.accessToken()).isEqualTo("jwt-token");
+        assertThat(tokens.refreshToken()).isEqualTo("next-refresh-token");
+        verifyNoInteractions(registrationBatcher);
         verifyNoInteractions(passwordEncoder);
     }
+
+    @Test
+    void testRefreshInvalidToken() {
+        when(refreshTokenService.rotate("stale")).thenThrow(new InvalidTokenException());
+
+        assertThatThrownBy(() -> subject.refresh("stale"))
+                .isInstanceOf(InvalidTokenException.class);
+
+        verifyNoInteractions(jwtService);
+    }
+
+    @Test
+    void testRefreshBlankToken() {
+        assertThatThrownBy(() -> subject.refresh(" "))
+                .isInstanceOf(InvalidInputException.class);
+
+        verifyNoInteractions(refreshTokenService);
+    }
+
+    private double requests(String operation, String outcome) {
+        return meterRegistry.get("auth.requests")
+                            .tag("operation", operation)
+                            .tag("outcome", outcome)
+                            .counter()
+                            .count();
+    }
+
+    private long phaseCount(String operation, String phase) {
+        return meterRegistry.get("auth.phase")
+                            .tag("operation", operation)
+                            .tag("phase", phase)
+                            .timer()
+                            .count();
+    }
 }
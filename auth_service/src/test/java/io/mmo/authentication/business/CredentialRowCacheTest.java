@@ -0,0 +1,198 @@
+package io.mmo.authentication.business;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mmo.authentication.database.CredentialChangeChannel;
+import io.mmo.authentication.database.ReadReplicaPool;
+import io.mmo.authentication.database.ReadReplicaProperties;
+import io.mmo.authentication.database.UserCredentialsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CredentialRowCacheTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private CredentialRowCacheProperties properties;
+    private UserCredentialsRepository repository;
+    private CredentialChangeChannel changeChannel;
+    private SimpleMeterRegistry meterRegistry;
+    private CredentialRowCache subject;
+
+    @BeforeEach
+    void setup() {
+        properties = new CredentialRowCacheProperties();
+        repository = mock(UserCredentialsRepository.class);
+        changeChannel = mock(CredentialChangeChannel.class);
+        subject = createCache(changeChannel);
+    }
+
+    private CredentialRowCache createCache(CredentialChangeChannel channel) {
+        meterRegistry = new SimpleMeterRegistry();
+        return new CredentialRowCache(properties,
+                                      repository,
+                                      new ReadReplicaPool(new ReadReplicaProperties(),
+                                                          new DataSourceProperties(),
+                                                          meterRegistry),
+                                      channel,
+                                      meterRegistry,
+                                      now::get);
+    }
+
+    @Test
+    void testRepeatedLookupsHitTheCache() {
+        when(repository.findPasswordHashByUsername("player1")).thenReturn(Optional.of("hashed"));
+
+        assertThat(subject.findPasswordHash("player1")).contains("hashed");
+        assertThat(subject.findPasswordHash("player1")).contains("hashed");
+        assertThat(subject.findPasswordHash("player1")).contains("hashed");
+
+        verify(repository, times(1)).findPasswordHashByUsername("player1");
+        assertThat(requests("hit")).isEqualTo(2);
+        assertThat(requests("miss")).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.credential-row-cache.hit-ratio").gauge().value())
+                .isCloseTo(2 / 3.0, within(1e-9));
+    }
+
+    @Test
+    void testUnknownUsersAreNotCached() {
+        when(repository.findPasswordHashByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertThat(subject.findPasswordHash("ghost")).isEmpty();
+        assertThat(subject.findPasswordHash("ghost")).isEmpty();
+
+        verify(repository, times(2)).findPasswordHashByUsername("ghost");
+    }
+
+    @Test
+    void testWrittenThroughUsersNeedNoLookup() {
+        subject.put("player1", "hashed");
+
+        assertThat(subject.findPasswordHash("player1")).contains("hashed");
+        verify(repository, never()).findPasswordHashByUsername("player1");
+    }
+
+    @Test
+    void testEntriesAreReloadedAfterTtl() {
+        when(repository.findPasswordHashByUsername("player1")).thenReturn(Optional.of("old"))
+                                                               .thenReturn(Optional.of("new"));
+        subject.findPasswordHash("player1");
+
+        now.addAndGet(properties.getTtl().toNanos());
+
+        assertThat(subject.findPasswordHash("player1")).contains("new");
+    }
+
+    @Test
+    void testServesStaleEntryWhileDatabaseIsDown() {
+        when(repository.findPasswordHashByUsername("player1"))
+                .thenReturn(Optional.of("hashed"))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+        subject.findPasswordHash("player1");
+        now.addAndGet(properties.getTtl().toNanos());
+
+        assertThat(subject.findPasswordHash("player1")).contains("hashed");
+        assertThat(subject.findPasswordHash("player1")).contains("hashed");
+
+        verify(repository, times(2)).findPasswordHashByUsername("player1");
+        assertThat(requests("stale")).isEqualTo(2);
+    }
+
+    @Test
+    void testRetriesDatabaseAfterDegradedInterval() {
+        when(repository.findPasswordHashByUsername("player1"))
+                .thenReturn(Optional.of("hashed"))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"))
+                .thenReturn(Optional.of("rehashed"));
+        subject.findPasswordHash("player1");
+        now.addAndGet(properties.getTtl().toNanos());
+        subject.findPasswordHash("player1");
+
+        now.addAndGet(properties.getDegradedRetryInterval().toNanos());
+
+        assertThat(subject.findPasswordHash("player1")).contains("rehashed");
+    }
+
+    @Test
+    void testFailsWithoutStaleEntryOrWhenStaleServingIsOff() {
+        when(repository.findPasswordHashByUsername("player1"))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        assertThatThrownBy(() -> subject.findPasswordHash("player1"))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        properties.setServeStale(false);
+        subject = createCache(changeChannel);
+        subject.put("player1", "hashed");
+        now.addAndGet(properties.getTtl().toNanos() - 1);
+        assertThat(subject.findPasswordHash("player1")).contains("hashed");
+        now.addAndGet(1);
+        assertThatThrownBy(() -> subject.findPasswordHash("player1"))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+    }
+
+    @Test
+    void testReplaceEvictsUserOnOtherReplicas() {
+        var dataSource = new DriverManagerDataSource("jdbc:h2:mem:credential-changes");
+        var sharedChannel = new CredentialChangeChannel(dataSource, new JdbcTemplate(dataSource));
+        var replica1 = createCache(sharedChannel);
+        var replica2 = createCache(sharedChannel);
+        when(repository.findPasswordHashByUsername("player1")).thenReturn(Optional.of("old"))
+                                                               .thenReturn(Optional.of("new"));
+        replica2.findPasswordHash("player1");
+
+        replica1.replace("player1", "new");
+
+        assertThat(replica1.findPasswordHash("player1")).contains("new");
+        assertThat(replica2.findPasswordHash("player1")).contains("new");
+        verify(repository, times(2)).findPasswordHashByUsername("player1");
+        sharedChannel.shutdown();
+    }
+
+    @Test
+    void testMissedChangesClearTheCache() {
+        subject.put("player1", "hashed");
+        when(repository.findPasswordHashByUsername("player1")).thenReturn(Optional.of("hashed"));
+
+        subject.missedChanges();
+        subject.findPasswordHash("player1");
+
+        verify(repository).findPasswordHashByUsername("player1");
+    }
+
+    @Test
+    void testMemoryIsBoundedByEstimatedEntrySize() {
+        properties.setMaxMemory(DataSize.ofKilobytes(64));
+        subject = createCache(changeChannel);
+        String hash = "$2a$12$" + "x".repeat(53);
+
+        for (int i = 0; i < 10_000; i++) {
+            subject.put("player" + i, hash);
+        }
+
+        double memory = meterRegistry.get("auth.credential-row-cache.memory").gauge().value();
+        double perEntry = meterRegistry.get("auth.credential-row-cache.memory.per-entry").gauge().value();
+        assertThat(memory).isLessThanOrEqualTo(64 * 1024);
+        assertThat(perEntry).isCloseTo(CredentialRowCache.estimatedBytes("player1000", hash), within(8.0));
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("auth.credential-row-cache.requests").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,73 @@
+package io.mmo.authentication.business;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GcraRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private GcraRateLimiter subject;
+
+    @BeforeEach
+    void setup() {
+        subject = new GcraRateLimiter(2, 3, 100, Duration.ofMinutes(1), now::get);
+    }
+
+    @Test
+    void testAllowsBurstThenRejects() {
+        assertThat(subject.tryAcquire("client")).isZero();
+        assertThat(subject.tryAcquire("client")).isZero();
+        assertThat(subject.tryAcquire("client")).isZero();
+
+        assertThat(subject.tryAcquire("client")).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    @Test
+    void testRefillsAtRate() {
+        for (int i = 0; i < 3; i++) {
+            subject.tryAcquire("client");
+        }
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertThat(subject.tryAcquire("client")).isZero();
+        assertThat(subject.tryAcquire("client")).isPositive();
+    }
+
+    @Test
+    void testRejectedRequestsDoNotConsumeTokens() {
+        for (int i = 0; i < 10; i++) {
+            subject.tryAcquire("client");
+        }
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertThat(subject.tryAcquire("client")).isZero();
+    }
+
+    @Test
+    void testKeysAreIndependent() {
+        for (int i = 0; i < 3; i++) {
+            subject.tryAcquire("client1");
+        }
+
+        assertThat(subject.tryAcquire("client1")).isPositive();
+        assertThat(subject.tryAcquire("client2")).isZero();
+    }
+
+    @Test
+    void testIdleKeysAreEvicted() {
+        for (int i = 0; i < 3; i++) {
+            subject.tryAcquire("client" + i);
+        }
+
+        now.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        subject.tryAcquire("client3");
+
+        assertThat(subject.trackedKeys()).isEqualTo(1);
+    }
+}
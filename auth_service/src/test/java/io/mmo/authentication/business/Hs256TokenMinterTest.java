@@ -0,0 +1,66 @@
+package io.mmo.authentication.business;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Hs256TokenMinterTest {
+
+    private static final byte[] SECRET = "verylongsecretkeyforjwt1234567890".getBytes(StandardCharsets.UTF_8);
+    private static final long ISSUED_AT = 1_760_000_000L;
+    private static final long EXPIRES_AT = ISSUED_AT + 5;
+    private static final long SESSION_ID = 1L << 40;
+    private static final String SHARD = "game-app-3";
+
+    private final Hs256TokenMinter subject = new Hs256TokenMinter(SECRET);
+
+    @ParameterizedTest
+    @ValueSource(strings = {"player1", "a", "ab", "abc", "quote\"and\\backslash", "tab\tnew\nline\r\b\f\u0001\u001f", "jérôme", "玩家", "emoji😀", "lone\uD83Dsurrogate"})
+    void testMatchesJjwtBuilderOutput(String subjectClaim) {
+        assertThat(subject.mint(subjectClaim, SESSION_ID, null, ISSUED_AT, EXPIRES_AT)).isEqualTo(jjwt(subjectClaim, null));
+        assertThat(subject.mint(subjectClaim, SESSION_ID, SHARD, ISSUED_AT, EXPIRES_AT)).isEqualTo(jjwt(subjectClaim, SHARD));
+    }
+
+    @Test
+    void testMatchesJjwtBuilderOutputOnVirtualThreads() throws Exception {
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            String token = executor.submit(() -> subject.mint("player1", SESSION_ID, SHARD, ISSUED_AT, EXPIRES_AT)).get();
+            assertThat(token).isEqualTo(jjwt("player1", SHARD));
+        }
+    }
+
+    @Test
+    void testLongSubjectGrowsBuffers() {
+        String longSubject = "p".repeat(1000);
+        assertThat(subject.mint(longSubject, SESSION_ID, SHARD, ISSUED_AT, EXPIRES_AT)).isEqualTo(jjwt(longSubject, SHARD));
+        assertThat(subject.mint("player1", SESSION_ID, SHARD, ISSUED_AT, EXPIRES_AT)).isEqualTo(jjwt("player1", SHARD));
+    }
+
+    @Test
+    void testRejectsShortSecret() {
+        assertThatThrownBy(() -> new Hs256TokenMinter("short".getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String jjwt(String subjectClaim, String shard) {
+        var builder = Jwts.builder()
+                          .setSubject(subjectClaim)
+                          .claim("sid", SESSION_ID);
+        if (shard != null) {
+            builder.claim("shard", shard);
+        }
+        return builder.setIssuedAt(new Date(ISSUED_AT * 1000))
+                      .setExpiration(new Date(EXPIRES_AT * 1000))
+                      .signWith(Keys.hmacShaKeyFor(SECRET))
+                      .compact();
+    }
+}
@@ -0,0 +1,92 @@
+package io.mmo.authentication.business;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImportRecordReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testCsvWithQuotedFields() throws IOException {
+        Path file = write("players.csv", """
+                id,username,password
+                1,player1,secret
+                2,"player,2","pa""ss"
+
+                3,player3,
+                """);
+
+        List<ImportRecord> records = readAll(file);
+
+        assertThat(records).hasSize(3);
+        assertThat(records.get(0)).isEqualTo(new ImportRecord(2, "player1", "secret", null, null));
+        assertThat(records.get(1)).isEqualTo(new ImportRecord(3, "player,2", "pa\"ss", null, null));
+        assertThat(records.get(2).valid()).isFalse();
+        assertThat(records.get(2).line()).isEqualTo(5);
+    }
+
+    @Test
+    void testCsvWithPasswordHashes() throws IOException {
+        Path file = write("players.csv", """
+                username,password_hash
+                player1,$2a$10$abc
+                "player2
+                """);
+
+        List<ImportRecord> records = readAll(file);
+
+        assertThat(records.get(0).passwordHash()).isEqualTo("$2a$10$abc");
+        assertThat(records.get(0).password()).isNull();
+        assertThat(records.get(1).error()).isEqualTo("unterminated quoted field");
+    }
+
+    @Test
+    void testCsvHeaderMustNameOneSecretColumn() throws IOException {
+        Path file = write("players.csv", "username,password,password_hash\n");
+
+        assertThatThrownBy(() -> new ImportRecordReader(file, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testNdjson() throws IOException {
+        Path file = write("players.ndjson", """
+                {"username":"player1","password":"secret"}
+                {"username":"player2","passwordHash":"$2a$10$abc"}
+                not json
+                {"password":"secret"}
+                """);
+
+        List<ImportRecord> records = readAll(file);
+
+        assertThat(records.get(0)).isEqualTo(new ImportRecord(1, "player1", "secret", null, null));
+        assertThat(records.get(1)).isEqualTo(new ImportRecord(2, "player2", null, "$2a$10$abc", null));
+        assertThat(records.get(2).error()).isEqualTo("malformed JSON");
+        assertThat(records.get(3).error()).isEqualTo("missing username");
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(directory.resolve(name), content);
+    }
+
+    private static List<ImportRecord> readAll(Path file) throws IOException {
+        List<ImportRecord> records = new ArrayList<>();
+        try (var reader = new ImportRecordReader(file, null)) {
+            for (var record = reader.next(); record != null; record = reader.next()) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
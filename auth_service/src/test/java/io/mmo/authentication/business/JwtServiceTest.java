@@ -29,7 +29,7 @@ class JwtServiceTest {
     @Test
     void testGenerateTokenNotNull() {
         String username = "player1";
-        String token = subject.generateToken(username);
+        String token = subject.generateToken(username, 7, null);
         assertThat(token).isNotNull();
         assertThat(token).isNotEmpty();
     }
@@ -37,19 +37,32 @@ class JwtServiceTest {
     @Test
     void testGeneratedTokenContainsUsername() {
         String username = "player2";
-        String token = subject.generateToken(username);
+        String token = subject.generateToken(username, 7, null);
         Claims claims = Jwts.parserBuilder()
                             .setSigningKey(key)
                             .build()
                             .parseClaimsJws(token)
                             .getBody();
         assertThat(claims.getSubject()).isEqualTo(username);
+        assertThat(claims.get("sid", Long.class)).isEqualTo(7);
+        assertThat(claims).doesNotContainKey("shard");
+    }
+
+    @Test
+    void testGeneratedTokenContainsShard() {
+        String token = subject.generateToken("player4", 7, "game-app-1");
+        Claims claims = Jwts.parserBuilder()
+                            .setSigningKey(key)
+                            .build()
+                            .parseClaimsJws(token)
+                            .getBody();
+        assertThat(claims.get("shard", String.class)).isEqualTo("game-app-1");
     }
 
     @Test
     void testGeneratedTokenHasExpiration() {
         String username = "player3";
-        String token = subject.generateToken(username);
+        String token = subject.generateToken(username, 7, null);
         Claims claims = Jwts.parserBuilder()
                             .setSigningKey(key)
                             .build()
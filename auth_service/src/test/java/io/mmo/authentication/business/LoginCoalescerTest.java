@@ -0,0 +1,89 @@
+package io.mmo.authentication.business;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class LoginCoalescerTest {
+
+    private LoginCoalescer subject;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        subject = new LoginCoalescer(meterRegistry);
+    }
+
+    @Test
+    void testConcurrentIdenticalAttemptsShareOneVerification() {
+        AtomicInteger verifications = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        var leader = CompletableFuture.supplyAsync(() -> subject.verify("player1", "secret", () -> {
+            verifications.incrementAndGet();
+            await().until(() -> release.getCount() == 0);
+            return true;
+        }));
+        await().until(() -> verifications.get() == 1);
+
+        List<CompletableFuture<Boolean>> followers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            followers.add(CompletableFuture.supplyAsync(() -> subject.verify("player1", "secret", () -> {
+                verifications.incrementAndGet();
+                return false;
+            })));
+        }
+        await().until(() -> coalescedCount() == 3);
+        release.countDown();
+
+        assertThat(leader.join()).isTrue();
+        assertThat(followers).allSatisfy(follower -> assertThat(follower.join()).isTrue());
+        assertThat(verifications).hasValue(1);
+    }
+
+    @Test
+    void testSequentialAttemptsAreVerifiedIndependently() {
+        assertThat(subject.verify("player1", "secret", () -> true)).isTrue();
+        assertThat(subject.verify("player1", "secret", () -> false)).isFalse();
+        assertThat(coalescedCount()).isZero();
+    }
+
+    @Test
+    void testDifferentPasswordsAreNotCoalesced() {
+        CountDownLatch release = new CountDownLatch(1);
+        var first = CompletableFuture.supplyAsync(() -> subject.verify("player1", "secret", () -> {
+            await().until(() -> release.getCount() == 0);
+            return true;
+        }));
+
+        assertThat(subject.verify("player1", "wrong", () -> false)).isFalse();
+        release.countDown();
+
+        assertThat(first.join()).isTrue();
+        assertThat(coalescedCount()).isZero();
+    }
+
+    @Test
+    void testVerificationFailureIsPropagated() {
+        assertThatThrownBy(() -> subject.verify("player1", "secret", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(subject.verify("player1", "secret", () -> true)).isTrue();
+    }
+
+    private double coalescedCount() {
+        return meterRegistry.get("auth.login.coalesced").counter().count();
+    }
+}
@@ -0,0 +1,81 @@
+package io.mmo.authentication.business;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordHashPolicyTest {
+
+    @Test
+    void testUsesConfiguredStrengthWithoutLatencyTarget() {
+        var properties = new HashingProperties();
+        properties.setBcryptStrength(11);
+
+        var subject = new PasswordHashPolicy(properties, new SimpleMeterRegistry());
+
+        assertThat(subject.getCost()).isEqualTo(11);
+    }
+
+    @Test
+    void testCalibrationStaysWithinBounds() {
+        var properties = new HashingProperties();
+        properties.setMinStrength(4);
+        properties.setMaxStrength(9);
+
+        properties.setLatencyTarget(Duration.ofNanos(1));
+        assertThat(new PasswordHashPolicy(properties, new SimpleMeterRegistry()).getCost()).isEqualTo(4);
+
+        properties.setLatencyTarget(Duration.ofMinutes(1));
+        assertThat(new PasswordHashPolicy(properties, new SimpleMeterRegistry()).getCost()).isEqualTo(9);
+    }
+
+    @Test
+    void testCalibratedCostMeetsLatencyTarget() {
+        int cost = PasswordHashPolicy.calibrate(Duration.ofMillis(20), 4, 16);
+
+        var encoder = new BCryptPasswordEncoder(cost);
+        encoder.encode("warmup");
+        long start = System.nanoTime();
+        encoder.encode("secret");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(100));
+    }
+
+    @Test
+    void testNeedsRehashOnlyBelowCost() {
+        var properties = new HashingProperties();
+        properties.setBcryptStrength(12);
+        var subject = new PasswordHashPolicy(properties, new SimpleMeterRegistry());
+
+        assertThat(subject.needsRehash("$2a$10$abcdefghijklmnopqrstuv")).isTrue();
+        assertThat(subject.needsRehash("$2a$11$abcdefghijklmnopqrstuv")).isTrue();
+        assertThat(subject.needsRehash("$2a$14$abcdefghijklmnopqrstuv")).isFalse();
+        assertThat(subject.needsRehash("$2a$12$abcdefghijklmnopqrstuv")).isFalse();
+        assertThat(subject.needsRehash("not-a-bcrypt-hash")).isFalse();
+    }
+
+    @Test
+    void testCalibratedCostToleratesHashesOneStepBelow() {
+        var properties = new HashingProperties();
+        properties.setMinStrength(6);
+        properties.setMaxStrength(6);
+        properties.setLatencyTarget(Duration.ofMinutes(1));
+        var subject = new PasswordHashPolicy(properties, new SimpleMeterRegistry());
+
+        assertThat(subject.needsRehash("$2a$04$abcdefghijklmnopqrstuv")).isTrue();
+        assertThat(subject.needsRehash("$2a$05$abcdefghijklmnopqrstuv")).isFalse();
+        assertThat(subject.needsRehash("$2a$07$abcdefghijklmnopqrstuv")).isFalse();
+    }
+
+    @Test
+    void testCostOf() {
+        assertThat(PasswordHashPolicy.costOf("$2b$08$abc")).isEqualTo(8);
+        assertThat(PasswordHashPolicy.costOf("$2a$12$abc")).isEqualTo(12);
+        assertThat(PasswordHashPolicy.costOf("plain")).isEqualTo(-1);
+        assertThat(PasswordHashPolicy.costOf("$2a$1x$abc")).isEqualTo(-1);
+    }
+}
@@ -0,0 +1,132 @@
+package io.mmo.authentication.business;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mmo.authentication.business.PasswordHashingExecutor.Lane;
+import io.mmo.authentication.business.exceptions.ServiceOverloadedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class PasswordHashingExecutorTest {
+
+    private PasswordHashingExecutor subject;
+    private SimpleMeterRegistry meterRegistry;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setup() {
+        HashingProperties properties = new HashingProperties();
+        properties.setThreads(1);
+        properties.setQueueCapacity(2);
+        properties.setRetryAfterSeconds(3);
+        meterRegistry = new SimpleMeterRegistry();
+        subject = new PasswordHashingExecutor(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void teardown() {
+        release.countDown();
+        subject.shutdown();
+    }
+
+    @Test
+    void testExecuteReturnsResult() {
+        assertThat(subject.execute(Lane.LOGIN, () -> "hashed")).isEqualTo("hashed");
+    }
+
+    @Test
+    void testExecutePropagatesRuntimeException() {
+        assertThatThrownBy(() -> subject.execute(Lane.REGISTER, () -> {
+            throw new IllegalArgumentException("boom");
+        })).isInstanceOf(IllegalArgumentException.class)
+           .hasMessage("boom");
+    }
+
+    @Test
+    void testLoginLaneRunsBeforeQueuedRegistrations() {
+        List<Lane> completionOrder = new CopyOnWriteArrayList<>();
+        blockWorker();
+
+        var register = CompletableFuture.runAsync(() -> subject.execute(Lane.REGISTER, () -> completionOrder.add(Lane.REGISTER)));
+        awaitQueueDepth("register", 1);
+        var login = CompletableFuture.runAsync(() -> subject.execute(Lane.LOGIN, () -> completionOrder.add(Lane.LOGIN)));
+        awaitQueueDepth("login", 1);
+
+        release.countDown();
+        CompletableFuture.allOf(register, login).join();
+
+        assertThat(completionOrder).containsExactly(Lane.LOGIN, Lane.REGISTER);
+    }
+
+    @Test
+    void testRejectsWhenQueueIsFull() {
+        blockWorker();
+        CompletableFuture.runAsync(() -> subject.execute(Lane.LOGIN, () -> true));
+        CompletableFuture.runAsync(() -> subject.execute(Lane.LOGIN, () -> true));
+        awaitQueueDepth("login", 2);
+
+        assertThatThrownBy(() -> subject.execute(Lane.REGISTER, () -> true))
+                .isInstanceOf(ServiceOverloadedException.class)
+                .satisfies(ex -> assertThat(((ServiceOverloadedException) ex).getRetryAfterSeconds()).isEqualTo(3));
+
+        assertThat(meterRegistry.get("auth.hashing.rejected").tag("lane", "register").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testSubmittedRehashRunsAfterQueuedLogins() {
+        blockWorker();
+        List<Lane> completionOrder = new CopyOnWriteArrayList<>();
+
+        var rehash = subject.submit(Lane.REHASH, () -> completionOrder.add(Lane.REHASH));
+        awaitQueueDepth("rehash", 1);
+        var login = CompletableFuture.runAsync(() -> subject.execute(Lane.LOGIN, () -> completionOrder.add(Lane.LOGIN)));
+        awaitQueueDepth("login", 1);
+        release.countDown();
+
+        assertThat(rehash.join()).isTrue();
+        login.join();
+        assertThat(completionOrder).containsExactly(Lane.LOGIN, Lane.REHASH);
+    }
+
+    @Test
+    void testCapacityFollowsMeasuredHashTime() {
+        assertThat(subject.capacityPerSecond()).isZero();
+
+        subject.execute(Lane.LOGIN, () -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        });
+
+        assertThat(subject.capacityPerSecond()).isBetween(1.0, 20.0);
+        assertThat(meterRegistry.get("auth.hashing.capacity").gauge().value()).isEqualTo(subject.capacityPerSecond());
+    }
+
+    private void blockWorker() {
+        CompletableFuture.runAsync(() -> subject.execute(Lane.LOGIN, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        }));
+        await().until(() -> meterRegistry.get("auth.hashing.active").gauge().value() == 1);
+    }
+
+    private void awaitQueueDepth(String lane, int depth) {
+        await().until(() -> meterRegistry.get("auth.hashing.queue.depth").tag("lane", lane).gauge().value() == depth);
+    }
+}
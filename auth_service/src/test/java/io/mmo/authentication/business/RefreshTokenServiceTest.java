@@ -0,0 +1,193 @@
+package io.mmo.authentication.business;
+
+import io.mmo.authentication.business.exceptions.InvalidTokenException;
+import io.mmo.authentication.database.RefreshToken;
+import io.mmo.authentication.database.RefreshTokenRepository;
+import io.mmo.authentication.database.SessionRevocation;
+import io.mmo.authentication.database.SessionRevocationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenServiceTest {
+
+    private RefreshTokenService subject;
+    private RefreshTokenRepository repository;
+    private SessionRevocationRepository revocations;
+
+    @BeforeEach
+    void setup() {
+        repository = mock(RefreshTokenRepository.class);
+        revocations = mock(SessionRevocationRepository.class);
+        when(repository.save(any())).thenAnswer(invocation -> {
+            RefreshToken token = invocation.getArgument(0);
+            token.setId(100L);
+            return token;
+        });
+        subject = new RefreshTokenService(repository, revocations, new RefreshTokenProperties());
+    }
+
+    @Test
+    void testIssueStoresDigestOnly() {
+        var issued = subject.issue("player1");
+
+        var saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(repository).save(saved.capture());
+        assertThat(issued.refreshToken()).isNotBlank();
+        assertThat(saved.getValue().getUsername()).isEqualTo("player1");
+        assertThat(saved.getValue().getTokenHash()).isNotEqualTo(issued.refreshToken());
+        assertThat(saved.getValue().getExpiresAt()).isAfter(Instant.now());
+        assertThat(saved.getValue().getFamilyExpiresAt()).isAfter(saved.getValue().getExpiresAt());
+    }
+
+    @Test
+    void testIssueStartsSessionNamedAfterFirstToken() {
+        var issued = subject.issue("player1");
+
+        assertThat(issued.sessionId()).isEqualTo(100L);
+    }
+
+    @Test
+    void testRotateIssuesNewTokenInSameFamily() {
+        RefreshToken stored = storedToken();
+        when(repository.findByTokenHash(anyString())).thenReturn(Optional.of(stored));
+        when(repository.markUsed(eq(stored.getId()), any())).thenReturn(1);
+
+        var rotated = subject.rotate("refresh-token");
+
+        var saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(repository).save(saved.capture());
+        assertThat(rotated.username()).isEqualTo("player1");
+        assertThat(rotated.refreshToken()).isNotEqualTo("refresh-token");
+        assertThat(saved.getValue().getFamilyId()).isEqualTo(stored.getFamilyId());
+        assertThat(rotated.sessionId()).isEqualTo(stored.getId());
+    }
+
+    @Test
+    void testRotateKeepsOnlyTheConsumedTokenForReuseDetection() {
+        RefreshToken stored = storedToken();
+        when(repository.findByTokenHash(anyString())).thenReturn(Optional.of(stored));
+        when(repository.markUsed(eq(stored.getId()), any())).thenReturn(1);
+
+        subject.rotate("refresh-token");
+
+        verify(repository).deleteUsedInFamilyExcept(stored.getFamilyId(), stored.getId());
+    }
+
+    @Test
+    void testRotateNeverExtendsTheSession() {
+        RefreshToken stored = storedToken();
+        Instant familyExpiresAt = Instant.now().plusSeconds(30);
+        stored.setFamilyExpiresAt(familyExpiresAt);
+        when(repository.findByTokenHash(anyString())).thenReturn(Optional.of(stored));
+        when(repository.markUsed(eq(stored.getId()), any())).thenReturn(1);
+
+        subject.rotate("refresh-token");
+
+        var saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(repository).save(saved.capture());
+        assertThat(saved.getValue().getExpiresAt()).isEqualTo(familyExpiresAt);
+        assertThat(saved.getValue().getFamilyExpiresAt()).isEqualTo(familyExpiresAt);
+    }
+
+    @Test
+    void testRotateReusedTokenRevokesFamily() {
+        RefreshToken stored = storedToken();
+        when(repository.findByTokenHash(anyString())).thenReturn(Optional.of(stored));
+        when(repository.markUsed(eq(stored.getId()), any())).thenReturn(0);
+        when(repository.revokeFamily(stored.getFamilyId())).thenReturn(2);
+
+        assertThatThrownBy(() -> subject.rotate("refresh-token"))
+                .isInstanceOf(InvalidTokenException.class);
+
+        verify(repository).revokeFamily(stored.getFamilyId());
+        verify(repository, never()).save(any());
+        assertRevokedSession(stored.getId());
+    }
+
+    @Test
+    void testRotateExpiredTokenFails() {
+        RefreshToken stored = storedToken();
+        stored.setExpiresAt(Instant.now().minusSeconds(1));
+        when(repository.findByTokenHash(anyString())).thenReturn(Optional.of(stored));
+
+        assertThatThrownBy(() -> subject.rotate("refresh-token"))
+                .isInstanceOf(InvalidTokenException.class);
+
+        verify(repository, never()).markUsed(any(), any());
+    }
+
+    @Test
+    void testRotateUnknownTokenFails() {
+        when(repository.findByTokenHash(anyString())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> subject.rotate("unknown"))
+                .isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void testRevokeRevokesFamily() {
+        RefreshToken stored = storedToken();
+        when(repository.findByTokenHash(anyString())).thenReturn(Optional.of(stored));
+
+        when(repository.revokeFamily(stored.getFamilyId())).thenReturn(1);
+
+        subject.revoke("refresh-token");
+
+        verify(repository).revokeFamily(stored.getFamilyId());
+        assertRevokedSession(stored.getId());
+    }
+
+    @Test
+    void testRevokeOfRotatedTokenRevokesItsSession() {
+        RefreshToken stored = storedToken();
+        stored.setSessionId(7L);
+        when(repository.findByTokenHash(anyString())).thenReturn(Optional.of(stored));
+        when(repository.revokeFamily(stored.getFamilyId())).thenReturn(1);
+
+        subject.revoke("refresh-token");
+
+        assertRevokedSession(7L);
+    }
+
+    @Test
+    void testRevokeOfRevokedFamilyRecordsNothing() {
+        RefreshToken stored = storedToken();
+        when(repository.findByTokenHash(anyString())).thenReturn(Optional.of(stored));
+        when(repository.revokeFamily(stored.getFamilyId())).thenReturn(0);
+
+        subject.revoke("refresh-token");
+
+        verify(revocations, never()).save(any());
+    }
+
+    private void assertRevokedSession(long sessionId) {
+        var saved = ArgumentCaptor.forClass(SessionRevocation.class);
+        verify(revocations).save(saved.capture());
+        assertThat(saved.getValue().getSessionId()).isEqualTo(sessionId);
+    }
+
+    private static RefreshToken storedToken() {
+        return RefreshToken.builder()
+                           .id(42L)
+                           .tokenHash("digest")
+                           .username("player1")
+                           .familyId(UUID.randomUUID())
+                           .expiresAt(Instant.now().plusSeconds(60))
+                           .build();
+    }
+}
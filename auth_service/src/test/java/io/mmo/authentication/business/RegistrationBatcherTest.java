@@ -0,0 +1,114 @@
+package io.mmo.authentication.business;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mmo.authentication.database.UserCredentials;
+import io.mmo.authentication.database.UserCredentialsJdbcRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RegistrationBatcherTest {
+
+    private RegistrationBatchProperties properties;
+    private UserCredentialsJdbcRepository jdbcRepository;
+    private RegistrationBatcher subject;
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        properties = new RegistrationBatchProperties();
+        properties.setBatchSize(4);
+        properties.setFlushDeadline(Duration.ofMillis(200));
+        jdbcRepository = mock(UserCredentialsJdbcRepository.class);
+        when(jdbcRepository.insertAllIfAbsent(anyList())).thenAnswer(invocation -> {
+            List<UserCredentials> users = invocation.getArgument(0);
+            batches.add(users.stream().map(UserCredentials::getUsername).toList());
+            boolean[] inserted = new boolean[users.size()];
+            for (int i = 0; i < inserted.length; i++) {
+                inserted[i] = !users.get(i).getUsername().startsWith("taken");
+            }
+            return inserted;
+        });
+    }
+
+    @AfterEach
+    void teardown() {
+        if (subject != null) {
+            subject.shutdown();
+        }
+    }
+
+    @Test
+    void testConcurrentRegistrationsShareOneBatch() {
+        subject = new RegistrationBatcher(properties, jdbcRepository, new SimpleMeterRegistry());
+
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (String username : List.of("player1", "taken1", "player2", "taken2")) {
+            results.add(CompletableFuture.supplyAsync(() -> subject.insertIfAbsent(username, "hashed")));
+        }
+
+        assertThat(results.get(0).join()).isTrue();
+        assertThat(results.get(1).join()).isFalse();
+        assertThat(results.get(2).join()).isTrue();
+        assertThat(results.get(3).join()).isFalse();
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).containsExactlyInAnyOrder("player1", "taken1", "player2", "taken2");
+    }
+
+    @Test
+    void testLoneRegistrationIsFlushedAtDeadline() {
+        properties.setFlushDeadline(Duration.ofMillis(10));
+        subject = new RegistrationBatcher(properties, jdbcRepository, new SimpleMeterRegistry());
+
+        assertThat(subject.insertIfAbsent("player1", "hashed")).isTrue();
+        assertThat(batches).containsExactly(List.of("player1"));
+    }
+
+    @Test
+    void testBatchFailureIsPropagatedToEveryCaller() {
+        when(jdbcRepository.insertAllIfAbsent(anyList())).thenThrow(new IllegalStateException("database down"));
+        subject = new RegistrationBatcher(properties, jdbcRepository, new SimpleMeterRegistry());
+
+        var first = CompletableFuture.supplyAsync(() -> subject.insertIfAbsent("player1", "hashed"));
+        var second = CompletableFuture.supplyAsync(() -> subject.insertIfAbsent("player2", "hashed"));
+
+        assertThatThrownBy(first::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(second::join).hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testErrorFailsTheBatchAndWriterKeepsGoing() {
+        when(jdbcRepository.insertAllIfAbsent(anyList())).thenThrow(new OutOfMemoryError("Java heap space"))
+                                                          .thenReturn(new boolean[]{true});
+        properties.setFlushDeadline(Duration.ofMillis(10));
+        subject = new RegistrationBatcher(properties, jdbcRepository, new SimpleMeterRegistry());
+
+        assertThatThrownBy(() -> subject.insertIfAbsent("player1", "hashed")).isInstanceOf(OutOfMemoryError.class);
+        assertThat(subject.insertIfAbsent("player2", "hashed")).isTrue();
+    }
+
+    @Test
+    void testDisabledBatchingInsertsDirectly() {
+        properties.setEnabled(false);
+        when(jdbcRepository.insertIfAbsent("player1", "hashed")).thenReturn(true);
+        subject = new RegistrationBatcher(properties, jdbcRepository, new SimpleMeterRegistry());
+
+        assertThat(subject.insertIfAbsent("player1", "hashed")).isTrue();
+        verify(jdbcRepository).insertIfAbsent("player1", "hashed");
+        verify(jdbcRepository, never()).insertAllIfAbsent(anyList());
+    }
+}
@@ -0,0 +1,223 @@
+package io.mmo.authentication.business;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mmo.authentication.database.SessionRevocation;
+import io.mmo.authentication.database.SessionRevocationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RevocationFeedTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final List<SessionRevocation> table = new ArrayList<>();
+    private final List<RevocationFeed.Delta> published = new ArrayList<>();
+    private RevocationProperties properties;
+    private JwtProperties jwtProperties;
+    private SessionRevocationRepository repository;
+    private RevocationFeed subject;
+
+    @BeforeEach
+    void setup() {
+        properties = new RevocationProperties();
+        jwtProperties = new JwtProperties();
+        jwtProperties.setExpiration(60_000);
+        repository = mock(SessionRevocationRepository.class);
+        when(repository.findByIdGreaterThanAndRevokedAtAfterOrderByIdAsc(anyLong(), any(), any()))
+                .thenAnswer(invocation -> {
+                    long after = invocation.getArgument(0);
+                    Instant revokedAfter = invocation.getArgument(1);
+                    return table.stream()
+                                .filter(row -> row.getId() > after && row.getRevokedAt().isAfter(revokedAfter))
+                                .toList();
+                });
+        when(repository.findMaxIdRevokedAtOrBefore(any())).thenAnswer(invocation -> {
+            Instant cutoff = invocation.getArgument(0);
+            return table.stream()
+                        .filter(row -> !row.getRevokedAt().isAfter(cutoff))
+                        .map(SessionRevocation::getId)
+                        .max(Long::compare)
+                        .orElse(null);
+        });
+        when(repository.findAllById(any())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            Set<Long> wanted = Set.copyOf(StreamSupport.stream(ids.spliterator(), false).toList());
+            return table.stream().filter(row -> wanted.contains(row.getId())).toList();
+        });
+        subject = createFeed();
+    }
+
+    private RevocationFeed createFeed() {
+        var feed = new RevocationFeed(properties, jwtProperties, repository, new SimpleMeterRegistry(), now::get);
+        feed.subscribe(published::add);
+        return feed;
+    }
+
+    @Test
+    void testNewRevocationsAreVersionedAndPublished() {
+        revoke(1, 100);
+        revoke(2, 200);
+
+        subject.poll();
+        subject.poll();
+
+        assertThat(subject.version()).isEqualTo(1);
+        assertThat(subject.size()).isEqualTo(2);
+        assertThat(published).hasSize(1);
+        assertThat(published.getFirst().sessionIds()).containsExactly(100, 200);
+    }
+
+    @Test
+    void testSnapshotHoldsRevokedSessions() {
+        revoke(1, 100);
+        subject.poll();
+
+        var snapshot = subject.snapshot();
+        var decoded = RevocationSnapshot.decode(snapshot.bytes());
+
+        assertThat(snapshot.version()).isEqualTo(1);
+        assertThat(decoded.epoch()).isEqualTo(subject.epoch());
+        assertThat(decoded.version()).isEqualTo(1);
+        assertThat(decoded.isRevoked(100)).isTrue();
+        assertThat(decoded.isRevoked(101)).isFalse();
+        assertThat(subject.snapshot()).isSameAs(snapshot);
+    }
+
+    @Test
+    void testDeltaSinceReturnsMissedDeltas() {
+        revoke(1, 100);
+        subject.poll();
+        revoke(2, 200);
+        subject.poll();
+        revoke(3, 300);
+        subject.poll();
+
+        var catchup = subject.deltaSince(subject.epoch(), 1);
+
+        assertThat(catchup.reset()).isFalse();
+        assertThat(catchup.version()).isEqualTo(3);
+        assertThat(catchup.deltas()).extracting(RevocationFeed.Delta::version).containsExactly(2L, 3L);
+        assertThat(subject.deltaSince(subject.epoch(), 3).deltas()).isEmpty();
+        assertThat(subject.deltaSince(subject.epoch(), 0).deltas()).hasSize(3);
+    }
+
+    @Test
+    void testDeltaSinceAsksForResetWhenPositionIsUnknown() {
+        revoke(1, 100);
+        subject.poll();
+
+        assertThat(subject.deltaSince(subject.epoch() + 1, 1).reset()).isTrue();
+        assertThat(subject.deltaSince(subject.epoch(), 2).reset()).isTrue();
+        assertThat(createFeed().deltaSince(subject.epoch(), 1).reset()).isTrue();
+    }
+
+    @Test
+    void testDeltaSinceAsksForResetBeyondRetainedDeltas() {
+        for (int i = 1; i <= RevocationFeed.RETAINED_DELTAS + 1; i++) {
+            revoke(i, i);
+            subject.poll();
+        }
+
+        assertThat(subject.deltaSince(subject.epoch(), 0).reset()).isTrue();
+        assertThat(subject.deltaSince(subject.epoch(), 1).deltas()).hasSize(RevocationFeed.RETAINED_DELTAS);
+    }
+
+    @Test
+    void testRevocationCommittedOutOfIdOrderIsNotMissed() {
+        revoke(1, 100);
+        revoke(3, 300);
+        subject.poll();
+
+        revoke(2, 200);
+        subject.poll();
+
+        assertThat(published).hasSize(2);
+        assertThat(published.get(1).sessionIds()).containsExactly(200);
+        assertThat(RevocationSnapshot.decode(subject.snapshot().bytes()).isRevoked(200)).isTrue();
+    }
+
+    @Test
+    void testMissingIdIsGivenUpAfterGapTimeout() {
+        revoke(1, 100);
+        revoke(3, 300);
+        subject.poll();
+
+        now.addAndGet(properties.getGapTimeout().toNanos());
+        subject.poll();
+        clearInvocations(repository);
+        subject.poll();
+
+        verify(repository, never()).findAllById(any());
+    }
+
+    @Test
+    void testIdsOfDeletedRevocationsAreNotTakenForGaps() {
+        revoke(5000, 100);
+        revoke(5002, 300);
+        subject.poll();
+        clearInvocations(repository);
+
+        subject.poll();
+
+        verify(repository).findAllById(Set.of(5001L));
+    }
+
+    @Test
+    void testReadingStartsAfterTheNewestExpiredRevocation() {
+        table.add(SessionRevocation.builder()
+                                   .id(10L)
+                                   .sessionId(90)
+                                   .revokedAt(Instant.now().minus(Duration.ofHours(1)))
+                                   .build());
+        revoke(12, 100);
+        subject.poll();
+        clearInvocations(repository);
+
+        subject.poll();
+
+        verify(repository).findAllById(Set.of(11L));
+    }
+
+    @Test
+    void testExpiredRevocationsAreDropped() {
+        jwtProperties.setExpiration(0);
+        properties.setRetentionMargin(Duration.ofMillis(200));
+        subject = createFeed();
+        revoke(1, 100);
+        subject.poll();
+        assertThat(subject.size()).isEqualTo(1);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> {
+            subject.poll();
+            return subject.size() == 0;
+        });
+        assertThat(subject.version()).isEqualTo(2);
+        assertThat(published.getLast().sessionIds()).isEmpty();
+    }
+
+    private void revoke(long id, long sessionId) {
+        table.add(SessionRevocation.builder()
+                                   .id(id)
+                                   .sessionId(sessionId)
+                                   .revokedAt(Instant.now())
+                                   .build());
+    }
+}
@@ -0,0 +1,64 @@
+package io.mmo.authentication.business;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RevocationSnapshotTest {
+
+    @Test
+    void testEmptySnapshotRoundTrips() {
+        var snapshot = RevocationSnapshot.decode(RevocationSnapshot.encode(7, 3, new long[0]));
+
+        assertThat(snapshot.epoch()).isEqualTo(7);
+        assertThat(snapshot.version()).isEqualTo(3);
+        assertThat(snapshot.cardinality()).isZero();
+        assertThat(snapshot.isRevoked(1)).isFalse();
+    }
+
+    @Test
+    void testSparseIdsUseArrayContainers() {
+        long[] sessionIds = {1, 2, 65_535, 65_536, 1L << 40, (1L << 40) + 9};
+
+        byte[] bytes = RevocationSnapshot.encode(1, 1, sessionIds);
+        var snapshot = RevocationSnapshot.decode(bytes);
+
+        assertThat(bytes).hasSize(24 + 3 * 13 + sessionIds.length * 2);
+        assertThat(snapshot.cardinality()).isEqualTo(sessionIds.length);
+        for (long sessionId : sessionIds) {
+            assertThat(snapshot.isRevoked(sessionId)).as("session %d", sessionId).isTrue();
+        }
+        assertThat(snapshot.isRevoked(0)).isFalse();
+        assertThat(snapshot.isRevoked(3)).isFalse();
+        assertThat(snapshot.isRevoked((1L << 40) + 8)).isFalse();
+        assertThat(snapshot.isRevoked(1L << 41)).isFalse();
+    }
+
+    @Test
+    void testDenseIdsUseBitmapContainer() {
+        long[] sessionIds = LongStream.range(0, 20_000).map(i -> 100_000 + i * 3).toArray();
+
+        byte[] bytes = RevocationSnapshot.encode(1, 1, sessionIds);
+        var snapshot = RevocationSnapshot.decode(bytes);
+
+        assertThat(bytes.length).isLessThan(sessionIds.length * 2);
+        assertThat(snapshot.cardinality()).isEqualTo(sessionIds.length);
+        assertThat(snapshot.isRevoked(100_000)).isTrue();
+        assertThat(snapshot.isRevoked(100_003)).isTrue();
+        assertThat(snapshot.isRevoked(100_001)).isFalse();
+        assertThat(snapshot.isRevoked(100_000 + 19_999 * 3)).isTrue();
+        assertThat(snapshot.isRevoked(100_000 + 20_000 * 3)).isFalse();
+    }
+
+    @Test
+    void testRejectsOtherData() {
+        byte[] bytes = ByteBuffer.allocate(24).putInt(0x12345678).array();
+
+        assertThatThrownBy(() -> RevocationSnapshot.decode(bytes))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,86 @@
+package io.mmo.authentication.business;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mmo.authentication.database.GameShard;
+import io.mmo.authentication.database.GameShardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ShardRegistryTest {
+
+    private GameShardRepository repository;
+    private ShardProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ShardRegistry subject;
+
+    @BeforeEach
+    void setup() {
+        repository = mock(GameShardRepository.class);
+        properties = new ShardProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        subject = new ShardRegistry(repository, properties, meterRegistry);
+    }
+
+    @Test
+    void testNoLiveServersAssignsNothing() {
+        when(repository.findByLastHeartbeatAfterOrderByIdAsc(any())).thenReturn(List.of());
+
+        subject.refresh();
+
+        assertThat(subject.assign("player1")).isNull();
+        assertThat(meterRegistry.get("auth.shards.assignments").tag("result", "unassigned").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void testAssignsLiveServers() {
+        when(repository.findByLastHeartbeatAfterOrderByIdAsc(any())).thenReturn(List.of(shard("game-0"), shard("game-1")));
+
+        subject.refresh();
+
+        assertThat(subject.assign("player1")).isIn("game-0", "game-1");
+        assertThat(meterRegistry.get("auth.shards.live").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void testDisabledAssignsNothing() {
+        properties.setEnabled(false);
+        when(repository.findByLastHeartbeatAfterOrderByIdAsc(any())).thenReturn(List.of(shard("game-0")));
+
+        subject.refresh();
+
+        assertThat(subject.assign("player1")).isNull();
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void testDatabaseFailureKeepsKnownServers() {
+        when(repository.findByLastHeartbeatAfterOrderByIdAsc(any()))
+                .thenReturn(List.of(shard("game-0")))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        subject.refresh();
+        subject.refresh();
+
+        assertThat(subject.assign("player1")).isEqualTo("game-0");
+    }
+
+    private static GameShard shard(String id) {
+        return GameShard.builder()
+                        .id(id)
+                        .load(0)
+                        .capacity(1000)
+                        .lastHeartbeat(Instant.now())
+                        .build();
+    }
+}
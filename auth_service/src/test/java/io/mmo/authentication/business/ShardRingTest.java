@@ -0,0 +1,110 @@
+package io.mmo.authentication.business;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardRingTest {
+
+    private static final int VIRTUAL_NODES = 128;
+
+    @Test
+    void testEmptyRingAssignsNothing() {
+        var ring = new ShardRing(List.of(), VIRTUAL_NODES, 1.25);
+
+        assertThat(ring.assign("player1")).isNull();
+    }
+
+    @Test
+    void testAssignmentSurvivesRebuild() {
+        var members = members(8, 0, 1_000_000);
+
+        var first = new ShardRing(members, VIRTUAL_NODES, 1.25);
+        var second = new ShardRing(members, VIRTUAL_NODES, 1.25);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(second.assign("player" + i)).isEqualTo(first.assign("player" + i));
+        }
+    }
+
+    @Test
+    void testRemovingServerOnlyMovesItsPlayers() {
+        var before = new ShardRing(members(8, 0, 1_000_000), VIRTUAL_NODES, Double.POSITIVE_INFINITY);
+        var after = new ShardRing(members(8, 0, 1_000_000).subList(0, 7), VIRTUAL_NODES, Double.POSITIVE_INFINITY);
+
+        int moved = 0;
+        for (int i = 0; i < 10_000; i++) {
+            String was = before.assign("player" + i);
+            String is = after.assign("player" + i);
+            if (!was.equals("game-7")) {
+                assertThat(is).isEqualTo(was);
+            } else {
+                moved++;
+            }
+        }
+        assertThat(moved).isBetween(800, 1800);
+    }
+
+    @Test
+    void testLoadStaysWithinBound() {
+        var ring = new ShardRing(members(10, 0, 1_000_000), VIRTUAL_NODES, 1.25);
+
+        Map<String, Integer> loads = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            loads.merge(ring.assign("player" + i), 1, Integer::sum);
+        }
+
+        assertThat(loads).hasSize(10);
+        assertThat(loads.values()).allSatisfy(load -> assertThat(load).isLessThanOrEqualTo(1250));
+    }
+
+    @Test
+    void testReportedLoadSteersNewPlayersAway() {
+        var ring = new ShardRing(List.of(new ShardRing.Member("game-0", 1000, 1_000_000, 1),
+                                         new ShardRing.Member("game-1", 0, 1_000_000, 1)),
+                                 VIRTUAL_NODES, 1.25);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(ring.assign("player" + i)).isEqualTo("game-1");
+        }
+    }
+
+    @Test
+    void testFullServersAreSkipped() {
+        var ring = new ShardRing(List.of(new ShardRing.Member("game-0", 0, 1, 1),
+                                         new ShardRing.Member("game-1", 0, 1, 1)),
+                                 VIRTUAL_NODES, 100);
+
+        assertThat(List.of(ring.assign("player1"), ring.assign("player2")))
+                .containsExactlyInAnyOrder("game-0", "game-1");
+        assertThat(ring.assign("player3")).isNull();
+    }
+
+    @Test
+    void testNewReportReplacesCountedAssignments() {
+        var ring = new ShardRing(List.of(new ShardRing.Member("game-0", 0, 1, 1),
+                                         new ShardRing.Member("game-1", 0, 1, 1)),
+                                 VIRTUAL_NODES, 100);
+        ring.assign("player1");
+        ring.assign("player2");
+
+        var unchanged = ring.withReports(List.of(new ShardRing.Member("game-0", 0, 1, 1),
+                                                 new ShardRing.Member("game-1", 0, 1, 1)));
+        assertThat(unchanged.assign("player3")).isNull();
+
+        var reported = ring.withReports(List.of(new ShardRing.Member("game-0", 0, 1, 2),
+                                                new ShardRing.Member("game-1", 1, 1, 2)));
+        assertThat(reported.assign("player3")).isEqualTo("game-0");
+    }
+
+    private static List<ShardRing.Member> members(int count, int load, int capacity) {
+        return IntStream.range(0, count)
+                        .mapToObj(i -> new ShardRing.Member("game-" + i, load, capacity, 1))
+                        .toList();
+    }
+}
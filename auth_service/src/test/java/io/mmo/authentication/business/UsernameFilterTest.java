@@ -0,0 +1,123 @@
+package io.mmo.authentication.business;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mmo.authentication.database.CredentialChangeChannel;
+import io.mmo.authentication.database.UserCredentialsJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UsernameFilterTest {
+
+    private static final int USERS = 100_000;
+
+    private UsernameFilter subject;
+    private UsernameFilterProperties properties;
+    private UserCredentialsJdbcRepository jdbcRepository;
+    private CredentialChangeChannel changeChannel;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setup() {
+        properties = new UsernameFilterProperties();
+        properties.setEnabled(true);
+        properties.setExpectedUsers(USERS);
+        jdbcRepository = mock(UserCredentialsJdbcRepository.class);
+        changeChannel = mock(CredentialChangeChannel.class);
+        meterRegistry = new SimpleMeterRegistry();
+        subject = new UsernameFilter(properties, jdbcRepository, changeChannel, meterRegistry);
+    }
+
+    @Test
+    void testEverythingMightExistBeforeFirstBuild() {
+        assertThat(subject.mightContain("anyone")).isTrue();
+    }
+
+    @Test
+    void testRebuildHasNoFalseNegativesAndBoundedFalsePositives() {
+        when(jdbcRepository.countUsers()).thenReturn((long) USERS);
+        doAnswer(invocation -> {
+            Consumer<String> consumer = invocation.getArgument(0);
+            IntStream.range(0, USERS).forEach(i -> consumer.accept("player" + i));
+            return null;
+        }).when(jdbcRepository).forEachUsername(any());
+
+        subject.rebuild();
+
+        assertThat(IntStream.range(0, USERS).allMatch(i -> subject.mightContain("player" + i))).isTrue();
+        long falsePositives = IntStream.range(0, USERS).filter(i -> subject.mightContain("ghost" + i)).count();
+        assertThat((double) falsePositives / USERS).isLessThan(0.015);
+        assertThat(meterRegistry.get("auth.username-filter.false-positive-rate").gauge().value()).isBetween(0.0, 0.015);
+        assertThat(meterRegistry.get("auth.username-filter.memory.per-million-users").gauge().value())
+                .isBetween(1.0e6, 1.5e6);
+    }
+
+    @Test
+    void testRebuildSizesForExistingUsersWithHeadroom() {
+        when(jdbcRepository.countUsers()).thenReturn(10L * USERS);
+
+        subject.rebuild();
+
+        assertThat(meterRegistry.get("auth.username-filter.memory").gauge().value())
+                .isGreaterThan(20 * 1.1e6 * USERS / 1e6);
+    }
+
+    @Test
+    void testAddedUsernamesAreFound() {
+        subject.rebuild();
+
+        assertThat(subject.mightContain("player1")).isFalse();
+        subject.add("player1");
+
+        assertThat(subject.mightContain("player1")).isTrue();
+        assertThat(meterRegistry.get("auth.username-filter.requests").tag("result", "definite-miss").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void testRegistrationsReachOtherReplicas() {
+        var dataSource = new DriverManagerDataSource("jdbc:h2:mem:username-filter-registrations");
+        var sharedChannel = new CredentialChangeChannel(dataSource, new JdbcTemplate(dataSource));
+        var replica1 = new UsernameFilter(properties, jdbcRepository, sharedChannel, meterRegistry);
+        var replica2 = new UsernameFilter(properties, jdbcRepository, sharedChannel, meterRegistry);
+        replica1.rebuild();
+        replica2.rebuild();
+
+        replica1.add("player1");
+
+        assertThat(replica2.mightContain("player1")).isTrue();
+        assertThat(replica2.mightContain("player2")).isFalse();
+        sharedChannel.shutdown();
+    }
+
+    @Test
+    void testMissedRegistrationsSuspendFilteringUntilRebuild() {
+        subject.rebuild();
+
+        subject.missedChanges();
+
+        assertThat(subject.mightContain("player1")).isTrue();
+        subject.rebuild();
+        assertThat(subject.mightContain("player1")).isFalse();
+    }
+
+    @Test
+    void testDisabledFilterNeverRejects() {
+        properties.setEnabled(false);
+        subject = new UsernameFilter(properties, jdbcRepository, changeChannel, meterRegistry);
+
+        subject.rebuild();
+
+        assertThat(subject.mightContain("anyone")).isTrue();
+    }
+}
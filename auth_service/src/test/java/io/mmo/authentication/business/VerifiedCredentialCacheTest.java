@@ -0,0 +1,79 @@
+package io.mmo.authentication.business;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedCredentialCacheTest {
+
+    private VerifiedCredentialCache subject;
+    private SimpleMeterRegistry meterRegistry;
+    private CredentialCacheProperties properties;
+
+    @BeforeEach
+    void setup() {
+        properties = new CredentialCacheProperties();
+        properties.setEnabled(true);
+        meterRegistry = new SimpleMeterRegistry();
+        subject = new VerifiedCredentialCache(properties, meterRegistry);
+    }
+
+    @Test
+    void testRememberedCredentialsAreVerified() {
+        subject.remember("player1", "secret", "hash");
+
+        assertThat(subject.isVerified("player1", "secret", "hash")).isTrue();
+        assertThat(requests("hit")).isEqualTo(1);
+    }
+
+    @Test
+    void testCredentialsRememberedOnVirtualThreadsAreVerified() throws InterruptedException {
+        Thread.ofVirtual().start(() -> subject.remember("player1", "secret", "hash")).join();
+        var verified = new AtomicBoolean();
+
+        Thread.ofVirtual().start(() -> verified.set(subject.isVerified("player1", "secret", "hash"))).join();
+
+        assertThat(verified).isTrue();
+        assertThat(subject.isVerified("player1", "secret", "hash")).isTrue();
+    }
+
+    @Test
+    void testWrongPasswordIsNotVerified() {
+        subject.remember("player1", "secret", "hash");
+
+        assertThat(subject.isVerified("player1", "wrong", "hash")).isFalse();
+        assertThat(requests("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void testChangedPasswordHashInvalidatesEntry() {
+        subject.remember("player1", "secret", "old-hash");
+
+        assertThat(subject.isVerified("player1", "secret", "new-hash")).isFalse();
+    }
+
+    @Test
+    void testInvalidatedEntryIsNotVerified() {
+        subject.remember("player1", "secret", "hash");
+        subject.invalidate("player1");
+
+        assertThat(subject.isVerified("player1", "secret", "hash")).isFalse();
+    }
+
+    @Test
+    void testDisabledCacheNeverVerifies() {
+        properties.setEnabled(false);
+        subject = new VerifiedCredentialCache(properties, new SimpleMeterRegistry());
+        subject.remember("player1", "secret", "hash");
+
+        assertThat(subject.isVerified("player1", "secret", "hash")).isFalse();
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("auth.credential-cache.requests").tag("result", result).counter().count();
+    }
+}
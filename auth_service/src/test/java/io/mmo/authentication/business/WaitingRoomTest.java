@@ -0,0 +1,221 @@
+package io.mmo.authentication.business;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mmo.authentication.business.WaitingRoom.State;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WaitingRoomTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private PasswordHashingExecutor hashingExecutor;
+    private SimpleMeterRegistry meterRegistry;
+    private WaitingRoom subject;
+
+    @BeforeEach
+    void setup() {
+        var properties = new WaitingRoomProperties();
+        properties.setEnabled(true);
+        properties.setMaxWaiters(4);
+        properties.setCapacityShare(1);
+        hashingExecutor = mock(PasswordHashingExecutor.class);
+        when(hashingExecutor.capacityPerSecond()).thenReturn(20.0);
+        meterRegistry = new SimpleMeterRegistry();
+        subject = new WaitingRoom(properties, hashingExecutor, meterRegistry, now::get);
+    }
+
+    @Test
+    void testTicketsAreAdmittedInOrderAtMeasuredHashingRate() {
+        var first = subject.enqueue();
+        var second = subject.enqueue();
+        var third = subject.enqueue();
+        assertThat(third.status().position()).isEqualTo(3);
+
+        advance(Duration.ofMillis(100));
+        subject.admit();
+
+        assertThat(subject.status(first.id()).state()).isEqualTo(State.ADMITTED);
+        assertThat(subject.status(second.id()).state()).isEqualTo(State.ADMITTED);
+        var waiting = subject.status(third.id());
+        assertThat(waiting.state()).isEqualTo(State.WAITING);
+        assertThat(waiting.position()).isEqualTo(1);
+        assertThat(waiting.estimatedWaitSeconds()).isEqualTo(1);
+        assertThat(subject.hasWaiters()).isTrue();
+    }
+
+    @Test
+    void testQueuedHashingWorkHoldsAdmissionsBack() {
+        var ticket = subject.enqueue();
+        when(hashingExecutor.queued()).thenReturn(5);
+
+        advance(Duration.ofMillis(100));
+        subject.admit();
+
+        assertThat(subject.status(ticket.id()).state()).isEqualTo(State.WAITING);
+    }
+
+    @Test
+    void testAbandonedTicketsAreSkippedWithoutUsingAdmissions() {
+        var abandoned = subject.enqueue();
+        subject.enqueue();
+        var polled = subject.enqueue();
+        advance(Duration.ofSeconds(25));
+        subject.status(polled.id());
+        advance(Duration.ofSeconds(10));
+
+        subject.admit();
+
+        assertThat(subject.status(abandoned.id()).state()).isEqualTo(State.UNKNOWN);
+        assertThat(subject.status(polled.id()).state()).isEqualTo(State.ADMITTED);
+        assertThat(subject.hasWaiters()).isFalse();
+        assertThat(tickets("abandoned")).isEqualTo(2);
+        assertThat(tickets("admitted")).isEqualTo(1);
+    }
+
+    @Test
+    void testAdmittedTicketLetsOneLoginThrough() {
+        var ticket = subject.enqueue();
+        advance(Duration.ofMillis(100));
+        subject.admit();
+
+        assertThat(subject.redeem(ticket.id()).state()).isEqualTo(State.ADMITTED);
+        assertThat(subject.redeem(ticket.id()).state()).isEqualTo(State.UNKNOWN);
+    }
+
+    @Test
+    void testAdmittedTicketExpiresWhenNotUsed() {
+        var ticket = subject.enqueue();
+        advance(Duration.ofMillis(100));
+        subject.admit();
+
+        advance(Duration.ofSeconds(31));
+
+        assertThat(subject.redeem(ticket.id()).state()).isEqualTo(State.UNKNOWN);
+    }
+
+    @Test
+    void testWaitingTicketIsNotRedeemed() {
+        var ticket = subject.enqueue();
+
+        assertThat(subject.redeem(ticket.id()).state()).isEqualTo(State.WAITING);
+        assertThat(subject.status(ticket.id()).state()).isEqualTo(State.WAITING);
+    }
+
+    @Test
+    void testLineIsBoundedAndTicketsCannotBeForged() {
+        var ticket = subject.enqueue();
+        for (int i = 1; i < 4; i++) {
+            assertThat(subject.enqueue()).isNotNull();
+        }
+
+        assertThat(subject.enqueue()).isNull();
+        assertThat(tickets("rejected")).isEqualTo(1);
+
+        byte[] forged = Base64.getUrlDecoder().decode(ticket.id());
+        forged[15] ^= 1;
+        assertThat(subject.status(Base64.getUrlEncoder().withoutPadding().encodeToString(forged)).state())
+                .isEqualTo(State.UNKNOWN);
+        assertThat(subject.status("not-a-ticket").state()).isEqualTo(State.UNKNOWN);
+    }
+
+    @Test
+    void testAwaitAdmissionCompletesWhenTicketIsAdmitted() {
+        var ticket = subject.enqueue();
+        var admission = subject.awaitAdmission(ticket.id(), Duration.ofSeconds(10));
+        assertThat(admission).isNotDone();
+
+        advance(Duration.ofMillis(100));
+        subject.admit();
+
+        assertThat(admission).isCompletedWithValueMatching(status -> status.state() == State.ADMITTED);
+    }
+
+    @Test
+    void testAwaitAdmissionAnswersStatusAfterWait() {
+        subject.enqueue();
+        var ticket = subject.enqueue();
+
+        var status = subject.awaitAdmission(ticket.id(), Duration.ofMillis(50)).join();
+
+        assertThat(status.state()).isEqualTo(State.WAITING);
+        assertThat(status.position()).isEqualTo(2);
+    }
+
+    @Test
+    void testDisabledRoomIssuesNoTickets() {
+        var subject = new WaitingRoom(new WaitingRoomProperties(), hashingExecutor, new SimpleMeterRegistry(), now::get);
+
+        assertThat(subject.isEnabled()).isFalse();
+        assertThat(subject.enqueue()).isNull();
+        assertThat(subject.status("AAAAAAAAAAAAAAAAAAAAAA").state()).isEqualTo(State.UNKNOWN);
+    }
+
+    @Test
+    void testAdmissionKeepsGoingWhileScheduledTaskBlocks() throws InterruptedException {
+        try (var context = new AnnotationConfigApplicationContext(BlockedSchedulerConfig.class)) {
+            assertThat(BlockedSchedulerConfig.blocking.await(5, TimeUnit.SECONDS)).isTrue();
+            var room = context.getBean(WaitingRoom.class);
+
+            var ticket = room.enqueue();
+
+            assertThat(room.awaitAdmission(ticket.id(), Duration.ofSeconds(5)))
+                    .succeedsWithin(Duration.ofSeconds(10))
+                    .extracting(WaitingRoom.Status::state)
+                    .isEqualTo(State.ADMITTED);
+        } finally {
+            BlockedSchedulerConfig.release.countDown();
+        }
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    private double tickets(String result) {
+        return meterRegistry.get("auth.waiting-room.tickets").tag("result", result).counter().count();
+    }
+
+    /**
+     * A waiting room next to a scheduled task that holds Spring's single default scheduler thread, as a slow
+     * database does to the filter rebuild and the replica health checks.
+     */
+    @Configuration
+    @EnableScheduling
+    static class BlockedSchedulerConfig {
+
+        static final CountDownLatch blocking = new CountDownLatch(1);
+        static final CountDownLatch release = new CountDownLatch(1);
+
+        @Bean
+        WaitingRoom waitingRoom() {
+            var properties = new WaitingRoomProperties();
+            properties.setEnabled(true);
+            properties.setMaxWaiters(4);
+            properties.setAdmissionInterval(Duration.ofMillis(10));
+            var hashingExecutor = mock(PasswordHashingExecutor.class);
+            when(hashingExecutor.capacityPerSecond()).thenReturn(100.0);
+            return new WaitingRoom(properties, hashingExecutor, new SimpleMeterRegistry());
+        }
+
+        @Scheduled(fixedDelay = 10)
+        void blockScheduler() throws InterruptedException {
+            blocking.countDown();
+            release.await();
+        }
+    }
+}
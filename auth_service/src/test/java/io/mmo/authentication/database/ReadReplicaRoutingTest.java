@@ -0,0 +1,188 @@
+package io.mmo.authentication.database;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mmo.authentication.DataSourceConfig;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes the repository of an in-memory H2 primary to a second H2 database served over TCP, which stands in for a
+ * Postgres replica that can be stopped and started again. Nothing replicates between the two; each test writes the
+ * rows it expects to read on either side.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "auth.read-replicas.connection-timeout=250ms"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({DataSourceConfig.class, ReadReplicaPool.class, UserCredentialsJdbcRepository.class})
+class ReadReplicaRoutingTest {
+
+    private static final int REPLICA_PORT = freePort();
+    private static final String REPLICA_URL = "jdbc:h2:tcp://localhost:" + REPLICA_PORT
+            + "/mem:replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static Server replicaServer = startReplica();
+
+    @Autowired
+    private UserCredentialsRepository repository;
+
+    @Autowired
+    private ReadReplicaPool replicaPool;
+
+    @Autowired
+    private UserCredentialsJdbcRepository jdbcRepository;
+
+    @Autowired
+    private JdbcTemplate primary;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @DynamicPropertySource
+    static void replicaProperties(DynamicPropertyRegistry registry) {
+        registry.add("auth.read-replicas.urls", () -> REPLICA_URL);
+    }
+
+    @BeforeEach
+    void setup() {
+        replica.execute("create table if not exists user_credentials "
+                        + "(id bigint primary key, username varchar(255) not null unique, "
+                        + "password_hash varchar(255) not null)");
+    }
+
+    @AfterEach
+    void cleanup() {
+        repository.deleteAll();
+        replica.execute("delete from user_credentials");
+    }
+
+    @AfterAll
+    static void stopReplica() {
+        replicaServer.stop();
+    }
+
+    @Test
+    void testLookupsReadFromReplica() {
+        replica.update("insert into user_credentials values (1, 'player1', 'from-replica')");
+
+        assertThat(repository.findPasswordHashByUsername("player1")).contains("from-replica");
+        assertThat(repository.existsByUsername("player1")).isTrue();
+        assertThat(reads("replica")).isPositive();
+    }
+
+    @Test
+    void testWritesGoToPrimary() {
+        repository.save(UserCredentials.builder().username("player1").passwordHash("hashed").build());
+
+        assertThat(primary.queryForObject("select count(*) from user_credentials", Integer.class)).isOne();
+        assertThat(replica.queryForObject("select count(*) from user_credentials", Integer.class)).isZero();
+    }
+
+    @Test
+    void testUserMissingOnReplicaIsReadFromPrimary() {
+        repository.save(UserCredentials.builder().username("player1").passwordHash("hashed").build());
+
+        assertThat(repository.findPasswordHashByUsername("player1")).isEmpty();
+        assertThat(replicaPool.readOrPrimary(() -> repository.findPasswordHashByUsername("player1")))
+                .contains("hashed");
+        assertThat(replicaPool.readOrPrimary(() -> repository.findPasswordHashByUsername("ghost"))).isEmpty();
+    }
+
+    @Test
+    void testUsernameScanReadsPrimaryPastLaggingReplica() {
+        replica.update("insert into user_credentials values (1, 'player1', 'hashed')");
+        var player1 = UserCredentials.builder().username("player1").passwordHash("hashed").build();
+        var player2 = UserCredentials.builder().username("player2").passwordHash("hashed").build();
+        jdbcRepository.insertAllIfAbsent(List.of(player1, player2));
+        List<String> usernames = new ArrayList<>();
+
+        jdbcRepository.forEachUsername(usernames::add);
+
+        assertThat(usernames).containsExactlyInAnyOrder("player1", "player2");
+    }
+
+    @Test
+    void testReadsFailOverToPrimaryWhileReplicaIsDown() throws SQLException {
+        repository.save(UserCredentials.builder().username("player1").passwordHash("from-primary").build());
+        replica.update("insert into user_credentials values (1, 'player1', 'from-replica')");
+
+        replicaServer.stop();
+        replicaPool.checkHealth();
+
+        assertThat(healthyReplicas()).isZero();
+        assertThat(repository.findPasswordHashByUsername("player1")).contains("from-primary");
+
+        replicaServer = Server.createTcpServer("-tcpPort", String.valueOf(REPLICA_PORT), "-ifNotExists").start();
+        replicaPool.checkHealth();
+
+        assertThat(healthyReplicas()).isOne();
+        assertThat(repository.findPasswordHashByUsername("player1")).contains("from-replica");
+    }
+
+    private double reads(String target) {
+        return meterRegistry.get("auth.datasource.reads").tag("target", target).counter().count();
+    }
+
+    private double healthyReplicas() {
+        return meterRegistry.get("auth.datasource.replicas.healthy").gauge().value();
+    }
+
+    private static int freePort() {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Server startReplica() {
+        try {
+            return Server.createTcpServer("-tcpPort", String.valueOf(REPLICA_PORT), "-ifNotExists").start();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @TestConfiguration
+    @EnableConfigurationProperties(ReadReplicaProperties.class)
+    static class Config {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
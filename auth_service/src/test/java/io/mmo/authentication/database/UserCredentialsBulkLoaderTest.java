@@ -0,0 +1,45 @@
+package io.mmo.authentication.database;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:credentials-bulk;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({UserCredentialsBulkLoader.class, UserCredentialsJdbcRepository.class})
+class UserCredentialsBulkLoaderTest {
+
+    @Autowired
+    private UserCredentialsBulkLoader subject;
+
+    @Autowired
+    private UserCredentialsRepository repository;
+
+    @Test
+    void testLoadFallsBackToJdbcBatchOutsidePostgres() {
+        boolean[] inserted = subject.loadAllIfAbsent(List.of(user("player1"), user("player2"), user("player1")));
+
+        assertThat(inserted).containsExactly(true, true, false);
+        assertThat(repository.count()).isEqualTo(2);
+    }
+
+    private static UserCredentials user(String username) {
+        return UserCredentials.builder()
+                              .username(username)
+                              .passwordHash("hashed")
+                              .build();
+    }
+}
@@ -0,0 +1,135 @@
+package io.mmo.authentication.database;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:credentials-batch;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(UserCredentialsJdbcRepository.class)
+class UserCredentialsJdbcRepositoryTest {
+
+    @Autowired
+    private UserCredentialsJdbcRepository subject;
+
+    @Autowired
+    private UserCredentialsRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testInsertIfAbsentReportsConflict() {
+        assertThat(subject.insertIfAbsent("player1", "hashed")).isTrue();
+        assertThat(subject.insertIfAbsent("player1", "other")).isFalse();
+
+        assertThat(repository.findPasswordHashByUsername("player1")).contains("hashed");
+    }
+
+    @Test
+    void testInsertAllIfAbsentReportsConflictsPerRow() {
+        subject.insertIfAbsent("existing", "hashed");
+
+        boolean[] inserted = subject.insertAllIfAbsent(List.of(user("player1"), user("existing"), user("player2"), user("player1")));
+
+        assertThat(inserted).containsExactly(true, false, true, false);
+        assertThat(repository.findPasswordHashByUsername("player2")).contains("hashed");
+    }
+
+    @Test
+    void testBatchIdsDoNotCollideWithHibernateIds() {
+        repository.saveAndFlush(user("entity1"));
+        subject.insertAllIfAbsent(List.of(user("batch1"), user("batch2")));
+        repository.saveAndFlush(user("entity2"));
+        subject.insertAllIfAbsent(List.of(user("batch3")));
+        subject.insertIfAbsent("single1", "hashed");
+
+        assertThat(repository.findAll()).extracting(UserCredentials::getId)
+                                        .hasSize(6)
+                                        .doesNotHaveDuplicates();
+    }
+
+    @Test
+    void testIdCollisionFailsInsteadOfReportingTakenUsername() {
+        var fresh = freshRepository();
+        fresh.insertIfAbsent("player1", "hashed");
+        long nextId = repository.findAll().getFirst().getId() + 1;
+        jdbcTemplate.update("insert into user_credentials (id, username, password_hash) values (?, 'legacy', 'hashed')", nextId);
+
+        assertThatThrownBy(() -> fresh.insertIfAbsent("player2", "hashed")).isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void testSequenceIsMovedPastExistingIds() {
+        jdbcTemplate.update("insert into user_credentials (id, username, password_hash) values (100000, 'legacy', 'hashed')");
+
+        var fresh = freshRepository();
+        fresh.insertIfAbsent("player1", "hashed");
+        fresh.insertAllIfAbsent(List.of(user("player2")));
+
+        assertThat(repository.findAll()).extracting(UserCredentials::getId)
+                                        .hasSize(3)
+                                        .allMatch(id -> id >= 100000);
+    }
+
+    @Test
+    void testForEachUsernameStreamsAllUsers() {
+        subject.insertAllIfAbsent(List.of(user("player1"), user("player2"), user("player3")));
+        List<String> usernames = new ArrayList<>();
+
+        subject.forEachUsername(usernames::add);
+
+        assertThat(usernames).containsExactlyInAnyOrder("player1", "player2", "player3");
+        assertThat(subject.countUsers()).isEqualTo(3);
+    }
+
+    @Test
+    void testReplacePasswordHashOnlyIfUnchanged() {
+        subject.insertIfAbsent("player1", "$2a$10$old");
+
+        assertThat(subject.replacePasswordHash("player1", "$2a$10$stale", "$2a$12$new")).isFalse();
+        assertThat(subject.replacePasswordHash("player1", "$2a$10$old", "$2a$12$new")).isTrue();
+        assertThat(repository.findPasswordHashByUsername("player1")).contains("$2a$12$new");
+    }
+
+    @Test
+    void testCountByPasswordCost() {
+        subject.insertIfAbsent("player1", "$2a$10$one");
+        subject.insertIfAbsent("player2", "$2a$12$two");
+        subject.insertIfAbsent("player3", "$2a$12$three");
+
+        assertThat(subject.countByPasswordCost()).containsExactly(Map.entry("10", 1L), Map.entry("12", 2L));
+    }
+
+    /**
+     * A repository as created at startup, without IDs left over from the earlier tests.
+     */
+    private UserCredentialsJdbcRepository freshRepository() {
+        return new UserCredentialsJdbcRepository(jdbcTemplate);
+    }
+
+    private static UserCredentials user(String username) {
+        return UserCredentials.builder()
+                              .username(username)
+                              .passwordHash("hashed")
+                              .build();
+    }
+}
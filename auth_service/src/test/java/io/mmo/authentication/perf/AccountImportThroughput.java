@@ -0,0 +1,82 @@
+package io.mmo.authentication.perf;
+
+import io.mmo.authentication.business.AccountImporter;
+import io.mmo.authentication.business.ImportReport;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Generates an account export and imports it with {@link AccountImporter}, reporting records per second.
+ * Runs against the embedded H2 stand-in by default (JDBC batch loading); pass Spring datasource properties to
+ * import into a local Postgres through {@code COPY} instead. Arguments are {@code key=value} pairs; keys other than
+ * {@code accounts}, {@code duplicates} and {@code plaintext} are passed to the application.
+ *
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.mmo.authentication.perf.AccountImportThroughput \
+ *     -Dexec.args="accounts=200000 plaintext=false \
+ *         spring.datasource.url=jdbc:postgresql://localhost:5432/auth spring.datasource.username=auth \
+ *         spring.datasource.password=auth spring.datasource.driver-class-name=org.postgresql.Driver \
+ *         spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect"
+ * </pre>
+ */
+public final class AccountImportThroughput {
+
+    private AccountImportThroughput() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("auth.hashing.bcrypt-strength", "4");
+        int accounts = 100_000;
+        double duplicates = 0.01;
+        boolean plaintext = false;
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            switch (pair[0]) {
+                case "accounts" -> accounts = Integer.parseInt(pair[1]);
+                case "duplicates" -> duplicates = Double.parseDouble(pair[1]);
+                case "plaintext" -> plaintext = Boolean.parseBoolean(pair[1]);
+                default -> overrides.put(pair[0], pair[1]);
+            }
+        }
+
+        Path directory = Files.createTempDirectory("account-import");
+        Path file = directory.resolve("players.csv");
+        writeExport(file, accounts, duplicates, plaintext);
+
+        try (var server = EmbeddedAuthServer.start(overrides)) {
+            ImportReport report = server.bean(AccountImporter.class).importFile(file);
+            System.out.printf("%n%d accounts (%s), %.1f%% duplicates, %d cores%n",
+                              accounts,
+                              plaintext ? "plaintext, bcrypt cost " + overrides.get("auth.hashing.bcrypt-strength") : "pre-hashed",
+                              duplicates * 100,
+                              Runtime.getRuntime().availableProcessors());
+            System.out.printf("inserted %d, duplicates %d, invalid %d in %.1f s: %.0f records/s%n",
+                              report.inserted(),
+                              report.duplicates(),
+                              report.invalid(),
+                              report.elapsed().toMillis() / 1000.0,
+                              report.recordsPerSecond());
+        }
+        System.exit(0);
+    }
+
+    private static void writeExport(Path file, int accounts, double duplicates, boolean plaintext) throws IOException {
+        String hash = new BCryptPasswordEncoder(4).encode("secret");
+        int duplicateEvery = duplicates > 0 ? (int) Math.round(1 / duplicates) : Integer.MAX_VALUE;
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write(plaintext ? "username,password\n" : "username,password_hash\n");
+            for (int i = 0; i < accounts; i++) {
+                int player = i % duplicateEvery == duplicateEvery - 1 ? i - 1 : i;
+                writer.write("player" + player + "," + (plaintext ? "secret" : hash) + "\n");
+            }
+        }
+    }
+}
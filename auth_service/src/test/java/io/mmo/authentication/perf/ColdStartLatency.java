@@ -0,0 +1,98 @@
+package io.mmo.authentication.perf;
+
+import io.mmo.authentication.database.UserCredentials;
+import io.mmo.authentication.database.UserCredentialsJdbcRepository;
+import org.HdrHistogram.Histogram;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Latency of the first minute of logins against a freshly started service, once without and once with the startup
+ * warmup. Load starts the moment the application reports ready, as it would when Kubernetes adds a new pod to the
+ * service, and is reported in consecutive windows so the cold-start spike is visible.
+ * Arguments are {@code key=value} pairs; see {@link #DEFAULTS}. Any other key is passed to the application.
+ *
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.mmo.authentication.perf.ColdStartLatency \
+ *     -Dexec.args="strength=10 rate=3 windows=6 windowSeconds=10"
+ * </pre>
+ */
+public final class ColdStartLatency {
+
+    private static final String PASSWORD = "secret";
+    private static final Map<String, String> DEFAULTS = Map.ofEntries(
+            Map.entry("strength", "10"),
+            Map.entry("players", "1000"),
+            Map.entry("rate", "3"),
+            Map.entry("windows", "6"),
+            Map.entry("windowSeconds", "10"),
+            Map.entry("timeoutSeconds", "30"));
+
+    private ColdStartLatency() {
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> config = new HashMap<>(DEFAULTS);
+        Map<String, Object> overrides = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if (DEFAULTS.containsKey(pair[0])) {
+                config.put(pair[0], pair[1]);
+            } else {
+                overrides.put(pair[0], pair[1]);
+            }
+        }
+        long players = Long.parseLong(config.get("players"));
+        int windows = Integer.parseInt(config.get("windows"));
+        Duration window = Duration.ofSeconds(Long.parseLong(config.get("windowSeconds")));
+        String passwordHash = new BCryptPasswordEncoder(Integer.parseInt(config.get("strength"))).encode(PASSWORD);
+
+        System.out.printf("%ncold start: bcrypt cost %s, %d cores, %s logins/s for %d windows of %d s%n",
+                          config.get("strength"), Runtime.getRuntime().availableProcessors(), config.get("rate"),
+                          windows, window.toSeconds());
+        for (boolean warmup : new boolean[]{false, true}) {
+            Map<String, Object> properties = new HashMap<>(overrides);
+            properties.put("auth.hashing.bcrypt-strength", config.get("strength"));
+            properties.put("auth.warmup.enabled", warmup);
+            long start = System.nanoTime();
+            try (var server = EmbeddedAuthServer.start(properties)) {
+                long readyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                // seeding goes through plain JDBC so it warms none of the login path
+                server.bean(UserCredentialsJdbcRepository.class).insertAllIfAbsent(
+                        LongStream.range(0, players)
+                                  .mapToObj(i -> UserCredentials.builder()
+                                                                .username("player" + i)
+                                                                .passwordHash(passwordHash)
+                                                                .build())
+                                  .toList());
+
+                var client = new HttpAuthClient(server.baseUri(), Duration.ofSeconds(Long.parseLong(config.get("timeoutSeconds"))));
+                var load = new OpenModelLoad(Integer.MAX_VALUE);
+                Histogram firstMinute = new Histogram(TimeUnit.MINUTES.toNanos(5), 3);
+                System.out.printf("%nwarmup %s, ready after %d ms%n", warmup ? "on" : "off", readyMs);
+                System.out.printf("%-10s %10s %10s %10s  %s%n", "window", "p50 ms", "p99 ms", "max ms", "status codes");
+                for (int w = 0; w < windows; w++) {
+                    long offset = w * window.toSeconds() * (long) Double.parseDouble(config.get("rate"));
+                    var result = load.run("window", Double.parseDouble(config.get("rate")), window,
+                                          i -> client.loginAsync("player" + ((offset + i) % players), PASSWORD));
+                    firstMinute.add(result.latencies());
+                    System.out.printf("%3d-%3d s %10.1f %10.1f %10.1f  %s%n",
+                                      w * window.toSeconds(), (w + 1) * window.toSeconds(),
+                                      result.percentileMs(50), result.percentileMs(99),
+                                      result.latencies().getMaxValue() / 1e6, result.statusCodes());
+                }
+                System.out.printf("%-10s %10.1f %10.1f %10.1f%n", "all",
+                                  firstMinute.getValueAtPercentile(50) / 1e6,
+                                  firstMinute.getValueAtPercentile(99) / 1e6,
+                                  firstMinute.getMaxValue() / 1e6);
+            }
+        }
+        System.exit(0);
+    }
+}
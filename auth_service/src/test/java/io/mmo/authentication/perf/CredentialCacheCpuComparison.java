@@ -0,0 +1,65 @@
+package io.mmo.authentication.perf;
+
+import com.sun.management.OperatingSystemMXBean;
+import io.mmo.authentication.business.AuthService;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+/**
+ * Measures the CPU spent per login with the verified-credential cache disabled and enabled.
+ * Every simulated player logs in once per round, as clients do each time their short-lived token expires,
+ * and the result is projected onto the login rate of 1000 online players renewing every {@code JWT_EXPIRATION_MS}.
+ *
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.mmo.authentication.perf.CredentialCacheCpuComparison \
+ *     -Dexec.args="[players] [rounds] [bcryptStrength] [tokenLifetimeMs]"
+ * </pre>
+ */
+public final class CredentialCacheCpuComparison {
+
+    private static final String PASSWORD = "secret";
+
+    public static void main(String[] args) {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int strength = args.length > 2 ? Integer.parseInt(args[2]) : 12;
+        long tokenLifetimeMs = args.length > 3 ? Long.parseLong(args[3]) : 5000;
+        double loginsPerSecondPer1000Players = 1000 * 1000.0 / tokenLifetimeMs;
+
+        System.out.printf("%n%d players x %d rounds, bcrypt cost %d, token lifetime %d ms (%.0f logins/s per 1000 players)%n",
+                          players, rounds, strength, tokenLifetimeMs, loginsPerSecondPer1000Players);
+        System.out.printf("%-10s %16s %28s%n", "cache", "CPU ms / login", "cores per 1000 players");
+        for (boolean cacheEnabled : new boolean[]{false, true}) {
+            double cpuMsPerLogin = run(cacheEnabled, players, rounds, strength);
+            System.out.printf("%-10s %16.2f %28.2f%n",
+                              cacheEnabled ? "enabled" : "disabled",
+                              cpuMsPerLogin,
+                              cpuMsPerLogin * loginsPerSecondPer1000Players / 1000);
+        }
+        System.exit(0);
+    }
+
+    private static double run(boolean cacheEnabled, int players, int rounds, int strength) {
+        try (var server = EmbeddedAuthServer.start(Map.of(
+                "auth.credential-cache.enabled", cacheEnabled,
+                "auth.credential-cache.ttl", "1h",
+                "auth.hashing.bcrypt-strength", strength))) {
+            var authService = server.bean(AuthService.class);
+            for (int i = 0; i < players; i++) {
+                authService.register("player" + i, PASSWORD);
+            }
+
+            var os = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+            long cpuBefore = os.getProcessCpuTime();
+            for (int round = 0; round < rounds; round++) {
+                for (int i = 0; i < players; i++) {
+                    authService.login("player" + i, PASSWORD);
+                }
+            }
+            long cpuNanos = os.getProcessCpuTime() - cpuBefore;
+            return cpuNanos / 1e6 / (players * (double) rounds);
+        }
+    }
+}
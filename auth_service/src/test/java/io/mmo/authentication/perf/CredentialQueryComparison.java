@@ -0,0 +1,69 @@
+package io.mmo.authentication.perf;
+
+import io.mmo.authentication.database.UserCredentials;
+import io.mmo.authentication.database.UserCredentialsJdbcRepository;
+import io.mmo.authentication.database.UserCredentialsRepository;
+
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Compares the database work of the credential paths: the entity-based lookup and check-then-save registration
+ * against the hash-only lookup and single-statement insert. Reports statements per operation and mean latency
+ * with a simulated network round trip in front of every statement.
+ *
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.mmo.authentication.perf.CredentialQueryComparison \
+ *     -Dexec.args="[operations] [dbLatencyMs]"
+ * </pre>
+ */
+public final class CredentialQueryComparison {
+
+    public static void main(String[] args) {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        long dbLatencyMs = args.length > 1 ? Long.parseLong(args[1]) : 1;
+
+        try (var server = EmbeddedAuthServer.start(Map.of(
+                "perf.db-latency-ms", dbLatencyMs,
+                "perf.count-statements", "true"))) {
+            var repository = server.bean(UserCredentialsRepository.class);
+            var jdbcRepository = server.bean(UserCredentialsJdbcRepository.class);
+
+            System.out.printf("%n%d operations each, %d ms simulated round trip per statement%n", operations, dbLatencyMs);
+            System.out.printf("%-34s %14s %16s%n", "path", "statements/op", "mean us/op");
+
+            run("register: exists + save", operations, i -> {
+                if (!repository.existsByUsername("entity" + i)) {
+                    repository.save(UserCredentials.builder()
+                                                   .username("entity" + i)
+                                                   .passwordHash("hashed")
+                                                   .build());
+                }
+            });
+            run("register: insert on conflict", operations, i ->
+                    jdbcRepository.insertIfAbsent("projection" + i, "hashed"));
+            run("login: findByUsername entity", operations, i ->
+                    repository.findByUsername("entity" + i).map(UserCredentials::getPasswordHash));
+            run("login: password hash projection", operations, i ->
+                    repository.findPasswordHashByUsername("projection" + i));
+        }
+        System.exit(0);
+    }
+
+    private static void run(String path, int operations, IntConsumer operation) {
+        for (int i = 0; i < Math.min(operations, 200); i++) {
+            operation.accept(operations + i);
+        }
+        long statementsBefore = SimulatedDbLatency.executions();
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            operation.accept(i);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-34s %14.2f %16.1f%n",
+                          path,
+                          (SimulatedDbLatency.executions() - statementsBefore) / (double) operations,
+                          elapsed / 1e3 / operations);
+    }
+}
@@ -0,0 +1,171 @@
+package io.mmo.authentication.perf;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mmo.authentication.business.CredentialRowCache;
+import io.mmo.authentication.business.CredentialRowCacheProperties;
+import io.mmo.authentication.database.CredentialChangeChannel;
+import io.mmo.authentication.database.ReadReplicaPool;
+import io.mmo.authentication.database.ReadReplicaProperties;
+import io.mmo.authentication.database.UserCredentialsRepository;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.util.unit.DataSize;
+
+import javax.sql.DataSource;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Heap per entry of the credential row cache, measured and as estimated by its memory gauge, and its hit ratio on a
+ * skewed login trace against an LRU cache of the same size. The trace draws regular players from a Zipf
+ * distribution and mixes in a share of one-off logins by players who are not seen again. Needs no application
+ * context.
+ *
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.mmo.authentication.perf.CredentialRowCacheFootprint \
+ *     -Dexec.args="[users] [logins] [oneOffShare]"
+ * </pre>
+ */
+public final class CredentialRowCacheFootprint {
+
+    private static final double ZIPF_EXPONENT = 0.9;
+    private static final DataSource DATA_SOURCE = new DriverManagerDataSource("jdbc:h2:mem:footprint");
+    private static final CredentialChangeChannel CHANGE_CHANNEL =
+            new CredentialChangeChannel(DATA_SOURCE, new JdbcTemplate(DATA_SOURCE));
+
+    public static void main(String[] args) {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int logins = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+        double oneOffShare = args.length > 2 ? Double.parseDouble(args[2]) : 0.3;
+
+        measureFootprint(Math.min(users, 500_000));
+        measureHitRatio(users, logins, oneOffShare);
+        System.exit(0);
+    }
+
+    private static void measureFootprint(int entries) {
+        var meterRegistry = new SimpleMeterRegistry();
+        var cache = newCache(DataSize.ofGigabytes(1), new AtomicLong(), meterRegistry);
+
+        long before = usedHeap();
+        for (int i = 0; i < entries; i++) {
+            cache.put("player" + i, passwordHash(i));
+        }
+        long after = usedHeap();
+
+        System.out.printf("%n%d entries, usernames 'player<n>', 60-character BCrypt hashes%n", entries);
+        System.out.printf("measured heap per entry:  %6.0f bytes%n", (double) (after - before) / entries);
+        System.out.printf("estimated heap per entry: %6.0f bytes%n",
+                          meterRegistry.get("auth.credential-row-cache.memory.per-entry").gauge().value());
+        System.out.printf("estimated memory:         %6.1f MiB%n",
+                          meterRegistry.get("auth.credential-row-cache.memory").gauge().value() / (1 << 20));
+    }
+
+    private static void measureHitRatio(int users, int logins, double oneOffShare) {
+        int[] trace = trace(users, logins, oneOffShare);
+        int entryBytes = estimatedEntryBytes();
+
+        System.out.printf("%n%d regular players (Zipf %.1f), %d logins, %.0f%% one-off logins%n",
+                          users, ZIPF_EXPONENT, logins, oneOffShare * 100);
+        System.out.printf("%14s %12s %14s %14s%n", "cache size", "entries", "W-TinyLFU", "LRU");
+        for (double share : new double[]{0.01, 0.05, 0.2}) {
+            int entries = (int) (users * share);
+            var lookups = new AtomicLong();
+            var cache = newCache(DataSize.ofBytes((long) entries * entryBytes), lookups, new SimpleMeterRegistry());
+            for (int user : trace) {
+                cache.findPasswordHash("player" + user);
+            }
+            double cacheHitRatio = 1 - (double) lookups.get() / trace.length;
+
+            var lru = new LinkedHashMap<String, String>(entries, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > entries;
+                }
+            };
+            long lruMisses = 0;
+            for (int user : trace) {
+                String username = "player" + user;
+                if (lru.get(username) == null) {
+                    lruMisses++;
+                    lru.put(username, passwordHash(user));
+                }
+            }
+
+            System.out.printf("%13.0f%% %12d %13.1f%% %13.1f%%%n",
+                              share * 100, entries, cacheHitRatio * 100, (1 - (double) lruMisses / trace.length) * 100);
+        }
+    }
+
+    private static int estimatedEntryBytes() {
+        var meterRegistry = new SimpleMeterRegistry();
+        var cache = newCache(DataSize.ofMegabytes(1), new AtomicLong(), meterRegistry);
+        cache.put("player" + 123_456, passwordHash(0));
+        return (int) meterRegistry.get("auth.credential-row-cache.memory.per-entry").gauge().value();
+    }
+
+    /**
+     * Regular players are numbered from 0 by popularity; one-off players get numbers past the regular ones.
+     */
+    private static int[] trace(int users, int logins, double oneOffShare) {
+        double[] cumulative = new double[users];
+        double sum = 0;
+        for (int i = 0; i < users; i++) {
+            sum += 1 / Math.pow(i + 1, ZIPF_EXPONENT);
+            cumulative[i] = sum;
+        }
+
+        var random = new SplittableRandom(42);
+        int[] trace = new int[logins];
+        int nextOneOff = users;
+        for (int i = 0; i < logins; i++) {
+            if (random.nextDouble() < oneOffShare) {
+                trace[i] = nextOneOff++;
+            } else {
+                int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+                trace[i] = index >= 0 ? index : -index - 1;
+            }
+        }
+        return trace;
+    }
+
+    private static CredentialRowCache newCache(DataSize maxMemory, AtomicLong lookups, SimpleMeterRegistry meterRegistry) {
+        var properties = new CredentialRowCacheProperties();
+        properties.setMaxMemory(maxMemory);
+        var repository = (UserCredentialsRepository) Proxy.newProxyInstance(
+                UserCredentialsRepository.class.getClassLoader(),
+                new Class<?>[]{UserCredentialsRepository.class},
+                (proxy, method, methodArgs) -> {
+                    lookups.incrementAndGet();
+                    String username = (String) methodArgs[0];
+                    return Optional.of(passwordHash(Integer.parseInt(username.substring("player".length()))));
+                });
+        return new CredentialRowCache(properties,
+                                      repository,
+                                      new ReadReplicaPool(new ReadReplicaProperties(),
+                                                          new DataSourceProperties(),
+                                                          meterRegistry),
+                                      CHANGE_CHANNEL,
+                                      meterRegistry);
+    }
+
+    private static String passwordHash(int user) {
+        return "$2a$12$" + String.format("%053d", user);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
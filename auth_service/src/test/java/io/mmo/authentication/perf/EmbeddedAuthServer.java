@@ -0,0 +1,66 @@
+package io.mmo.authentication.perf;
+
+import io.mmo.authentication.Application;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Boots the full auth service on a random port against an in-memory H2 database in PostgreSQL mode,
+ * so performance harnesses can run on a single machine without Postgres or Kubernetes.
+ */
+final class EmbeddedAuthServer implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+
+    private EmbeddedAuthServer(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    static EmbeddedAuthServer start(Map<String, Object> overrides) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.url", "jdbc:h2:mem:auth-" + UUID.randomUUID()
+                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.jpa.database-platform", "org.hibernate.dialect.H2Dialect");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("jwt.secret", "perf-harness-secret-key-0123456789abcdef");
+        properties.put("jwt.expiration", "60000");
+        properties.put("server.port", "0");
+        properties.put("server.address", "127.0.0.1");
+        properties.put("logging.level.root", "WARN");
+        // every simulated client connects from the loopback address
+        properties.put("auth.rate-limit.enabled", "false");
+        properties.putAll(overrides);
+
+        String[] args = properties.entrySet()
+                                  .stream()
+                                  .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                                  .toArray(String[]::new);
+
+        var context = new SpringApplicationBuilder(Application.class, SimulatedDbLatency.class).run(args);
+        return new EmbeddedAuthServer(context);
+    }
+
+    URI baseUri() {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        return URI.create("http://127.0.0.1:" + port);
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
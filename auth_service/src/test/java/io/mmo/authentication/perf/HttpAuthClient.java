@@ -0,0 +1,73 @@
+package io.mmo.authentication.perf;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+/**
+ * Minimal client for the {@code /auth} endpoints used by the performance harnesses.
+ * Responses are reduced to their status code; {@code -1} signals a transport failure or timeout.
+ */
+final class HttpAuthClient {
+
+    private final HttpClient httpClient;
+    private final URI baseUri;
+    private final Duration timeout;
+
+    HttpAuthClient(URI baseUri, Duration timeout) {
+        this.baseUri = baseUri;
+        this.timeout = timeout;
+        this.httpClient = HttpClient.newBuilder()
+                                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                                    .connectTimeout(timeout)
+                                    .build();
+    }
+
+    int register(String username, String password) {
+        return send("/auth/register", username, password);
+    }
+
+    int login(String username, String password) {
+        return send("/auth/login", username, password);
+    }
+
+    CompletableFuture<Integer> registerAsync(String username, String password) {
+        return sendAsync("/auth/register", username, password);
+    }
+
+    CompletableFuture<Integer> loginAsync(String username, String password) {
+        return sendAsync("/auth/login", username, password);
+    }
+
+    private int send(String path, String username, String password) {
+        try {
+            return httpClient.send(request(path, username, password), HttpResponse.BodyHandlers.discarding())
+                             .statusCode();
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private CompletableFuture<Integer> sendAsync(String path, String username, String password) {
+        return httpClient.sendAsync(request(path, username, password), HttpResponse.BodyHandlers.discarding())
+                         .thenApply(HttpResponse::statusCode)
+                         .exceptionally(ex -> -1);
+    }
+
+    private HttpRequest request(String path, String username, String password) {
+        String body = "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}";
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                          .timeout(timeout)
+                          .header("Content-Type", "application/json")
+                          .POST(HttpRequest.BodyPublishers.ofString(body))
+                          .build();
+    }
+}
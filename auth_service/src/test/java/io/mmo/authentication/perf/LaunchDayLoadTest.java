@@ -0,0 +1,132 @@
+package io.mmo.authentication.perf;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simulates launch-day traffic against an embedded auth service and reports throughput, latency percentiles,
+ * status codes and the arrival rate at which the service saturates. Phases run back to back:
+ * <ol>
+ *     <li>registration burst: new players sign up at a high rate,</li>
+ *     <li>reconnect storm: every registered player logs in again at once, as after a game-server restart,</li>
+ *     <li>steady mix: mostly logins with some registrations, stepped up until p99 or the error ratio exceeds
+ *     its limit.</li>
+ * </ol>
+ * Arguments are {@code key=value} pairs; see {@link #DEFAULTS}.
+ *
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.mmo.authentication.perf.LaunchDayLoadTest \
+ *     -Dexec.args="strength=10 registerRate=20 stormRate=50 mixRate=10"
+ * </pre>
+ */
+public final class LaunchDayLoadTest {
+
+    private static final String PASSWORD = "secret";
+    private static final Map<String, String> DEFAULTS = Map.ofEntries(
+            Map.entry("strength", "10"),
+            Map.entry("virtualThreads", "false"),
+            Map.entry("registerRate", "20"),
+            Map.entry("registerSeconds", "10"),
+            Map.entry("stormRate", "40"),
+            Map.entry("mixRate", "10"),
+            Map.entry("mixSeconds", "15"),
+            Map.entry("mixRegisterRatio", "0.05"),
+            Map.entry("stepFactor", "1.5"),
+            Map.entry("maxSteps", "6"),
+            Map.entry("p99LimitMs", "1000"),
+            Map.entry("errorLimit", "0.01"),
+            Map.entry("maxInFlight", "20000"),
+            Map.entry("timeoutSeconds", "30"));
+
+    private LaunchDayLoadTest() {
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> config = new HashMap<>(DEFAULTS);
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            config.put(pair[0], pair[1]);
+        }
+
+        try (var server = EmbeddedAuthServer.start(Map.of(
+                "auth.hashing.bcrypt-strength", config.get("strength"),
+                "spring.threads.virtual.enabled", config.get("virtualThreads")))) {
+            var client = new HttpAuthClient(server.baseUri(), Duration.ofSeconds(Long.parseLong(config.get("timeoutSeconds"))));
+            var load = new OpenModelLoad(Integer.parseInt(config.get("maxInFlight")));
+            List<OpenModelLoad.Result> results = new ArrayList<>();
+            AtomicLong registered = new AtomicLong();
+
+            results.add(load.run("registration burst",
+                                 Double.parseDouble(config.get("registerRate")),
+                                 Duration.ofSeconds(Long.parseLong(config.get("registerSeconds"))),
+                                 i -> client.registerAsync("player" + registered.getAndIncrement(), PASSWORD)));
+
+            long players = registered.get();
+            double stormRate = Double.parseDouble(config.get("stormRate"));
+            results.add(load.run("reconnect storm",
+                                 stormRate,
+                                 Duration.ofNanos((long) (players / stormRate * 1e9)),
+                                 i -> client.loginAsync("player" + (i % players), PASSWORD)));
+
+            double mixRate = Double.parseDouble(config.get("mixRate"));
+            double registerRatio = Double.parseDouble(config.get("mixRegisterRatio"));
+            Duration mixDuration = Duration.ofSeconds(Long.parseLong(config.get("mixSeconds")));
+            double p99LimitMs = Double.parseDouble(config.get("p99LimitMs"));
+            double errorLimit = Double.parseDouble(config.get("errorLimit"));
+            OpenModelLoad.Result saturatedAt = null;
+            for (int step = 0; step < Integer.parseInt(config.get("maxSteps")) && saturatedAt == null; step++) {
+                var result = load.run(String.format("steady mix #%d", step + 1), mixRate, mixDuration, i -> {
+                    var random = ThreadLocalRandom.current();
+                    if (random.nextDouble() < registerRatio) {
+                        return client.registerAsync("player" + registered.getAndIncrement(), PASSWORD);
+                    }
+                    return client.loginAsync("player" + random.nextLong(players), PASSWORD);
+                });
+                results.add(result);
+                if (result.percentileMs(99) > p99LimitMs || result.errorRatio() > errorLimit) {
+                    saturatedAt = result;
+                }
+                mixRate *= Double.parseDouble(config.get("stepFactor"));
+            }
+
+            print(config, results, saturatedAt, p99LimitMs, errorLimit);
+        }
+        System.exit(0);
+    }
+
+    private static void print(Map<String, String> config,
+                              List<OpenModelLoad.Result> results,
+                              OpenModelLoad.Result saturatedAt,
+                              double p99LimitMs,
+                              double errorLimit) {
+        System.out.printf("%nlaunch-day load test: bcrypt cost %s, %s request threads, %d cores%n",
+                          config.get("strength"),
+                          Boolean.parseBoolean(config.get("virtualThreads")) ? "virtual" : "platform",
+                          Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-20s %9s %9s %10s %10s %10s %7s  %s%n",
+                          "phase", "offered/s", "done/s", "p50 ms", "p99 ms", "p999 ms", "dropped", "status codes");
+        for (var result : results) {
+            System.out.printf("%-20s %9.1f %9.1f %10.1f %10.1f %10.1f %7d  %s%n",
+                              result.phase(),
+                              result.offeredRate(),
+                              result.throughput(),
+                              result.percentileMs(50),
+                              result.percentileMs(99),
+                              result.percentileMs(99.9),
+                              result.dropped(),
+                              result.statusCodes());
+        }
+        if (saturatedAt != null) {
+            System.out.printf("saturated at %.1f req/s offered (p99 limit %.0f ms, error limit %.1f%%)%n",
+                              saturatedAt.offeredRate(), p99LimitMs, errorLimit * 100);
+        } else {
+            System.out.println("not saturated within the configured steps");
+        }
+    }
+}
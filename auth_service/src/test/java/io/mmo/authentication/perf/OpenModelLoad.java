@@ -0,0 +1,124 @@
+package io.mmo.authentication.perf;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * Drives requests at a fixed arrival rate regardless of how fast the server answers, as real players do.
+ * Latency is measured from each request's intended start time, so queueing caused by a slow server is not hidden
+ * by the generator backing off (coordinated omission).
+ */
+final class OpenModelLoad {
+
+    private final int maxInFlight;
+
+    OpenModelLoad(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    record Result(String phase,
+                  double offeredRate,
+                  long completed,
+                  Duration elapsed,
+                  Histogram latencies,
+                  Histogram successLatencies,
+                  Map<Integer, Long> statusCodes,
+                  long dropped) {
+
+        double throughput() {
+            return completed / (elapsed.toNanos() / 1e9);
+        }
+
+        long count(int statusCode) {
+            return statusCodes.getOrDefault(statusCode, 0L);
+        }
+
+        double errorRatio() {
+            long ok = statusCodes.entrySet()
+                                 .stream()
+                                 .filter(entry -> entry.getKey() >= 200 && entry.getKey() < 300)
+                                 .mapToLong(Map.Entry::getValue)
+                                 .sum();
+            long total = completed + dropped;
+            return total == 0 ? 0 : 1 - ok / (double) total;
+        }
+
+        double percentileMs(double percentile) {
+            return latencies.getValueAtPercentile(percentile) / 1e6;
+        }
+
+        /**
+         * Latency percentile of 2xx responses only, so fast rejections do not flatter it.
+         */
+        double successPercentileMs(double percentile) {
+            return successLatencies.getValueAtPercentile(percentile) / 1e6;
+        }
+    }
+
+    /**
+     * Issues {@code request.apply(i)} for i = 0, 1, 2, ... at {@code ratePerSecond} for {@code duration},
+     * then waits for outstanding responses.
+     */
+    Result run(String phase, double ratePerSecond, Duration duration, LongFunction<CompletableFuture<Integer>> request) {
+        Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(5), 3);
+        Histogram successLatencies = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(5), 3);
+        Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicLong completed = new AtomicLong();
+        long dropped = 0;
+
+        long intervalNanos = (long) (1e9 / ratePerSecond);
+        long total = (long) (duration.toNanos() / (double) intervalNanos);
+        long start = System.nanoTime();
+        CompletableFuture<?>[] pending = new CompletableFuture<?>[(int) Math.min(total, Integer.MAX_VALUE)];
+
+        for (long i = 0; i < total; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (inFlight.get() >= maxInFlight) {
+                dropped++;
+                pending[(int) i] = CompletableFuture.completedFuture(null);
+                continue;
+            }
+
+            inFlight.incrementAndGet();
+            pending[(int) i] = request.apply(i).whenComplete((status, ex) -> {
+                long latency = Math.max(0, System.nanoTime() - intendedStart);
+                latencies.recordValue(latency);
+                if (ex == null && status >= 200 && status < 300) {
+                    successLatencies.recordValue(latency);
+                }
+                statusCodes.computeIfAbsent(ex == null ? status : -1, code -> new LongAdder()).increment();
+                completed.incrementAndGet();
+                inFlight.decrementAndGet();
+            });
+        }
+        CompletableFuture.allOf(pending).join();
+
+        Map<Integer, Long> codes = new TreeMap<>();
+        statusCodes.forEach((code, count) -> codes.put(code, count.sum()));
+        return new Result(phase,
+                          ratePerSecond,
+                          completed.get(),
+                          Duration.ofNanos(System.nanoTime() - start),
+                          latencies,
+                          successLatencies,
+                          codes,
+                          dropped);
+    }
+}
@@ -0,0 +1,102 @@
+package io.mmo.authentication.perf;
+
+import io.mmo.authentication.business.AdaptiveConcurrencyLimiter;
+import io.mmo.authentication.database.UserCredentials;
+import io.mmo.authentication.database.UserCredentialsJdbcRepository;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+/**
+ * Overloads the login endpoint at a fixed arrival rate well above what the hashing threads can serve, once without
+ * and once with the adaptive concurrency limit, and reports how latency of the logins that succeed holds up. Each
+ * run first offers a warm-up rate below capacity so the limiter can learn the unloaded latency. The hashing queue is
+ * made large in both runs, so without the limiter excess requests queue instead of being shed.
+ * Arguments are {@code key=value} pairs; see {@link #DEFAULTS}. Any other key is passed to the application, e.g.
+ * {@code auth.concurrency-limit.rtt-tolerance=1.2}.
+ *
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.mmo.authentication.perf.OverloadComparison \
+ *     -Dexec.args="strength=10 warmupRate=5 overloadRate=60"
+ * </pre>
+ */
+public final class OverloadComparison {
+
+    private static final String PASSWORD = "secret";
+    private static final Map<String, String> DEFAULTS = Map.ofEntries(
+            Map.entry("strength", "10"),
+            Map.entry("players", "1000"),
+            Map.entry("warmupRate", "5"),
+            Map.entry("warmupSeconds", "10"),
+            Map.entry("overloadRate", "60"),
+            Map.entry("overloadSeconds", "20"),
+            Map.entry("queueCapacity", "10000"),
+            Map.entry("maxInFlight", "20000"),
+            Map.entry("timeoutSeconds", "30"));
+
+    private OverloadComparison() {
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> config = new HashMap<>(DEFAULTS);
+        Map<String, Object> overrides = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if (DEFAULTS.containsKey(pair[0])) {
+                config.put(pair[0], pair[1]);
+            } else {
+                overrides.put(pair[0], pair[1]);
+            }
+        }
+        long players = Long.parseLong(config.get("players"));
+        String passwordHash = new BCryptPasswordEncoder(Integer.parseInt(config.get("strength"))).encode(PASSWORD);
+
+        System.out.printf("%noverload comparison: bcrypt cost %s, %d cores, warm-up %s/s for %ss, overload %s/s for %ss%n",
+                          config.get("strength"), Runtime.getRuntime().availableProcessors(),
+                          config.get("warmupRate"), config.get("warmupSeconds"),
+                          config.get("overloadRate"), config.get("overloadSeconds"));
+        System.out.printf("%-18s %9s %9s %9s %10s %10s %10s  %s%n",
+                          "concurrency limit", "offered/s", "2xx/s", "p50 2xx", "p99 2xx", "p99 all", "limit", "status codes");
+        for (boolean limited : new boolean[]{false, true}) {
+            Map<String, Object> properties = new HashMap<>(overrides);
+            properties.put("auth.hashing.bcrypt-strength", config.get("strength"));
+            properties.put("auth.hashing.queue-capacity", config.get("queueCapacity"));
+            properties.put("auth.concurrency-limit.enabled", limited);
+            try (var server = EmbeddedAuthServer.start(properties)) {
+                server.bean(UserCredentialsJdbcRepository.class).insertAllIfAbsent(
+                        LongStream.range(0, players)
+                                  .mapToObj(i -> UserCredentials.builder()
+                                                                .username("player" + i)
+                                                                .passwordHash(passwordHash)
+                                                                .build())
+                                  .toList());
+
+                var client = new HttpAuthClient(server.baseUri(), Duration.ofSeconds(Long.parseLong(config.get("timeoutSeconds"))));
+                var load = new OpenModelLoad(Integer.parseInt(config.get("maxInFlight")));
+                load.run("warm-up",
+                         Double.parseDouble(config.get("warmupRate")),
+                         Duration.ofSeconds(Long.parseLong(config.get("warmupSeconds"))),
+                         i -> client.loginAsync("player" + (i % players), PASSWORD));
+                var result = load.run("overload",
+                                      Double.parseDouble(config.get("overloadRate")),
+                                      Duration.ofSeconds(Long.parseLong(config.get("overloadSeconds"))),
+                                      i -> client.loginAsync("player" + (i % players), PASSWORD));
+
+                System.out.printf("%-18s %9.1f %9.1f %9.0f %10.0f %10.0f %10s  %s%n",
+                                  limited ? "adaptive" : "none",
+                                  result.offeredRate(),
+                                  result.count(200) / (result.elapsed().toNanos() / 1e9),
+                                  result.successPercentileMs(50),
+                                  result.successPercentileMs(99),
+                                  result.percentileMs(99),
+                                  limited ? String.valueOf(server.bean(AdaptiveConcurrencyLimiter.class).getLimit()) : "-",
+                                  result.statusCodes());
+            }
+        }
+        System.exit(0);
+    }
+}
@@ -0,0 +1,74 @@
+package io.mmo.authentication.perf;
+
+import io.mmo.authentication.business.AuthService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Measures registration throughput during a sign-up wave with one transaction per registration versus the
+ * group-committing {@code RegistrationBatcher}. A cheap BCrypt cost keeps hashing from hiding the database work,
+ * and every statement pays a simulated network round trip.
+ *
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.mmo.authentication.perf.RegistrationThroughputComparison \
+ *     -Dexec.args="[registrations] [concurrency] [dbLatencyMs] [batchSize] [flushDeadlineMs] [poolSize]"
+ * </pre>
+ */
+public final class RegistrationThroughputComparison {
+
+    private static final String PASSWORD = "secret";
+
+    public static void main(String[] args) throws Exception {
+        int registrations = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        long dbLatencyMs = args.length > 2 ? Long.parseLong(args[2]) : 2;
+        int batchSize = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+        long flushDeadlineMs = args.length > 4 ? Long.parseLong(args[4]) : 2;
+        int poolSize = args.length > 5 ? Integer.parseInt(args[5]) : 10;
+
+        System.out.printf("%n%d registrations from %d concurrent callers, %d ms round trip, %d connections, "
+                                  + "batch size %d, flush deadline %d ms%n",
+                          registrations, concurrency, dbLatencyMs, poolSize, batchSize, flushDeadlineMs);
+        System.out.printf("%-24s %16s %18s%n", "path", "registrations/s", "statements/user");
+        for (boolean batched : new boolean[]{false, true}) {
+            try (var server = EmbeddedAuthServer.start(Map.of(
+                    "auth.hashing.bcrypt-strength", 4,
+                    "auth.hashing.queue-capacity", concurrency * 2,
+                    "auth.registration-batch.enabled", batched,
+                    "auth.registration-batch.batch-size", batchSize,
+                    "auth.registration-batch.flush-deadline", flushDeadlineMs + "ms",
+                    "spring.datasource.hikari.maximum-pool-size", poolSize,
+                    "perf.db-latency-ms", dbLatencyMs))) {
+                var authService = server.bean(AuthService.class);
+                long statementsBefore = SimulatedDbLatency.executions();
+                long start = System.nanoTime();
+                register(authService, registrations, concurrency);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("%-24s %16.1f %18.2f%n",
+                                  batched ? "group commit" : "one transaction each",
+                                  registrations / seconds,
+                                  (SimulatedDbLatency.executions() - statementsBefore) / (double) registrations);
+            }
+        }
+        System.exit(0);
+    }
+
+    private static void register(AuthService authService, int registrations, int concurrency) throws Exception {
+        try (ExecutorService callers = Executors.newFixedThreadPool(concurrency)) {
+            List<Future<?>> results = new ArrayList<>(registrations);
+            for (int i = 0; i < registrations; i++) {
+                String username = "player" + i;
+                results.add(callers.submit(() -> authService.register(username, PASSWORD)));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package io.mmo.authentication.perf;
+
+import io.mmo.authentication.business.ShardRing;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Load balance of the game server assignment at several server counts: the most loaded server against the average,
+ * and the share of players sent elsewhere after one server leaves, for plain consistent hashing and for the bounded
+ * load used at login, along with the cost of an assignment. Needs no application context.
+ *
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.mmo.authentication.perf.ShardBalanceSimulation \
+ *     -Dexec.args="[players] [virtualNodes] [balanceFactor]"
+ * </pre>
+ */
+public final class ShardBalanceSimulation {
+
+    public static void main(String[] args) {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int[] virtualNodeCounts = args.length > 1 ? new int[]{Integer.parseInt(args[1])} : new int[]{16, 128};
+        double balanceFactor = args.length > 2 ? Double.parseDouble(args[2]) : 1.25;
+
+        for (int virtualNodes : virtualNodeCounts) {
+            System.out.printf("%n%d players, %d virtual nodes per server%n", players, virtualNodes);
+            System.out.printf("%8s %22s %12s %12s %10s%n", "servers", "assignment", "max/avg", "moved", "ns/assign");
+            for (int servers : new int[]{4, 16, 64, 256}) {
+                simulate(players, servers, virtualNodes, Double.POSITIVE_INFINITY, "consistent hashing");
+                simulate(players, servers, virtualNodes, balanceFactor, "bounded load " + balanceFactor);
+            }
+        }
+    }
+
+    private static void simulate(int players, int servers, int virtualNodes, double balanceFactor, String name) {
+        var ring = new ShardRing(members(servers), virtualNodes, balanceFactor);
+        String[] before = new String[players];
+        Map<String, Integer> loads = new HashMap<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < players; i++) {
+            before[i] = ring.assign("player" + i);
+        }
+        long nanos = System.nanoTime() - start;
+        for (String server : before) {
+            loads.merge(server, 1, Integer::sum);
+        }
+        int maxLoad = loads.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+
+        var smaller = new ShardRing(members(servers).subList(1, servers), virtualNodes, balanceFactor);
+        int moved = 0;
+        for (int i = 0; i < players; i++) {
+            String after = smaller.assign("player" + i);
+            if (!before[i].equals("game-0") && !before[i].equals(after)) {
+                moved++;
+            }
+        }
+
+        System.out.printf("%8d %22s %12.3f %11.2f%% %10.0f%n",
+                          servers,
+                          name,
+                          maxLoad / ((double) players / servers),
+                          100.0 * moved / players,
+                          (double) nanos / players);
+    }
+
+    private static List<ShardRing.Member> members(int servers) {
+        return IntStream.range(0, servers)
+                        .mapToObj(i -> new ShardRing.Member("game-" + i, 0, Integer.MAX_VALUE, 0))
+                        .toList();
+    }
+}
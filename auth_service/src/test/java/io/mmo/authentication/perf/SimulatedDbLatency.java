@@ -0,0 +1,74 @@
+package io.mmo.authentication.perf;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Adds a fixed delay in front of every statement execution and commit, emulating the network round trip to a
+ * remote Postgres that an in-memory H2 database does not have. Enabled with {@code perf.db-latency-ms};
+ * {@code perf.count-statements} counts executions (one per round trip, a JDBC batch counts once) without a delay.
+ */
+class SimulatedDbLatency {
+
+    private static final LongAdder EXECUTIONS = new LongAdder();
+
+    static long executions() {
+        return EXECUTIONS.sum();
+    }
+
+    @Bean
+    static BeanPostProcessor simulatedDbLatencyPostProcessor(Environment environment) {
+        long latencyNanos = environment.getProperty("perf.db-latency-ms", Long.class, 0L) * 1_000_000;
+        boolean countStatements = environment.getProperty("perf.count-statements", Boolean.class, false);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ((latencyNanos > 0 || countStatements) && bean instanceof DataSource dataSource) {
+                    return proxy(DataSource.class, dataSource, latencyNanos);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, long latencyNanos) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("execute") && target instanceof Statement) {
+                EXECUTIONS.increment();
+                LockSupport.parkNanos(latencyNanos);
+            } else if (name.equals("commit") && target instanceof Connection) {
+                LockSupport.parkNanos(latencyNanos);
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Connection connection) {
+                return proxy(Connection.class, connection, latencyNanos);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return proxy(PreparedStatement.class, statement, latencyNanos);
+            }
+            if (result instanceof Statement statement) {
+                return proxy(Statement.class, statement, latencyNanos);
+            }
+            return result;
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
@@ -0,0 +1,50 @@
+package io.mmo.authentication.perf;
+
+import io.mmo.authentication.business.BloomFilter;
+
+/**
+ * Memory per million users and measured false-positive rate of the username filter at several target rates, along
+ * with add and lookup cost. Needs no application context.
+ *
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.mmo.authentication.perf.UsernameFilterFootprint \
+ *     -Dexec.args="[users]"
+ * </pre>
+ */
+public final class UsernameFilterFootprint {
+
+    public static void main(String[] args) {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        System.out.printf("%n%d users, %d absent usernames probed%n", users, users);
+        System.out.printf("%10s %8s %16s %14s %12s %12s%n",
+                          "target fpp", "hashes", "KiB/1M users", "measured fpp", "ns/add", "ns/lookup");
+        for (double target : new double[]{0.05, 0.01, 0.001}) {
+            var filter = new BloomFilter(users, target);
+
+            long start = System.nanoTime();
+            for (int i = 0; i < users; i++) {
+                filter.add("player" + i);
+            }
+            long addNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int falsePositives = 0;
+            for (int i = 0; i < users; i++) {
+                if (filter.mightContain("ghost" + i)) {
+                    falsePositives++;
+                }
+            }
+            long lookupNanos = System.nanoTime() - start;
+
+            System.out.printf("%10.3f %8d %16.0f %14.4f %12.0f %12.0f%n",
+                              target,
+                              filter.hashFunctions(),
+                              filter.sizeInBytes() / 1024.0 * 1_000_000 / users,
+                              (double) falsePositives / users,
+                              (double) addNanos / users,
+                              (double) lookupNanos / users);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package io.mmo.authentication.perf;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares concurrent-login throughput and latency of the platform-thread and virtual-thread request models.
+ * Every statement against the embedded database is delayed to emulate a Postgres round trip, so request threads
+ * spend most of their time blocked on I/O. BCrypt runs at a low cost factor to keep the comparison about
+ * threading rather than hashing CPU.
+ *
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.mmo.authentication.perf.VirtualThreadComparison \
+ *     -Dexec.args="[clients] [seconds] [dbLatencyMs]"
+ * </pre>
+ */
+public final class VirtualThreadComparison {
+
+    private static final int USERS = 100;
+    private static final String PASSWORD = "secret";
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int dbLatencyMs = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        List<String> report = new ArrayList<>();
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            report.add(run(virtualThreads, clients, Duration.ofSeconds(seconds), dbLatencyMs));
+        }
+
+        System.out.printf("%nconcurrent logins: %d clients, %d s, %d ms simulated DB latency%n", clients, seconds, dbLatencyMs);
+        System.out.printf("%-10s %12s %10s %10s %10s %8s%n", "mode", "logins/s", "p50 ms", "p99 ms", "max ms", "errors");
+        report.forEach(System.out::println);
+        System.exit(0);
+    }
+
+    private static String run(boolean virtualThreads, int clients, Duration duration, int dbLatencyMs) throws Exception {
+        try (var server = EmbeddedAuthServer.start(Map.of(
+                "spring.threads.virtual.enabled", virtualThreads,
+                "spring.datasource.hikari.maximum-pool-size", clients,
+                "auth.hashing.bcrypt-strength", 4,
+                "auth.hashing.queue-capacity", clients,
+                "perf.db-latency-ms", dbLatencyMs))) {
+            var client = new HttpAuthClient(server.baseUri(), Duration.ofSeconds(30));
+            for (int i = 0; i < USERS; i++) {
+                client.register("player" + i, PASSWORD);
+            }
+
+            Histogram latencies = new ConcurrentHistogram(TimeUnit.SECONDS.toNanos(60), 3);
+            AtomicLong errors = new AtomicLong();
+            long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+            long end = warmupEnd + duration.toNanos();
+
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 0; c < clients; c++) {
+                    String username = "player" + (c % USERS);
+                    executor.submit(() -> {
+                        long now;
+                        while ((now = System.nanoTime()) < end) {
+                            int status = client.login(username, PASSWORD);
+                            if (now < warmupEnd) {
+                                continue;
+                            }
+                            latencies.recordValue(System.nanoTime() - now);
+                            if (status != 200) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    });
+                }
+            }
+
+            return String.format("%-10s %12.0f %10.1f %10.1f %10.1f %8d",
+                                 virtualThreads ? "virtual" : "platform",
+                                 latencies.getTotalCount() / (double) duration.toSeconds(),
+                                 latencies.getValueAtPercentile(50) / 1e6,
+                                 latencies.getValueAtPercentile(99) / 1e6,
+                                 latencies.getMaxValue() / 1e6,
+                                 errors.get());
+        }
+    }
+}
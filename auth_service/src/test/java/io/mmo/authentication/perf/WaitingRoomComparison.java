@@ -0,0 +1,228 @@
+package io.mmo.authentication.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.mmo.authentication.database.UserCredentials;
+import io.mmo.authentication.database.UserCredentialsJdbcRepository;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.LongStream;
+
+/**
+ * A login rush several times larger than the hashing threads can serve at once, as when a server opens: every player
+ * arrives within {@code arrivalSeconds} and keeps trying until logged in. Without the waiting room players retry
+ * after {@code Retry-After} plus up to a second of jitter whenever they get {@code 503}; with it they take a ticket,
+ * wait for admission with long polls and log in once. For growing rushes the harness reports the requests the service
+ * had to answer per player, the password hashes it ran and how long players waited. Retries make requests grow with
+ * the size of the rush while the waiting room keeps them at a few per player.
+ * Arguments are {@code key=value} pairs; see {@link #DEFAULTS}. Any other key is passed to the application.
+ *
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.mmo.authentication.perf.WaitingRoomComparison \
+ *     -Dexec.args="strength=8 players=500,1000,2000"
+ * </pre>
+ */
+public final class WaitingRoomComparison {
+
+    private static final String PASSWORD = "secret";
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Map<String, String> DEFAULTS = Map.ofEntries(
+            Map.entry("strength", "8"),
+            Map.entry("players", "500,1000,2000"),
+            Map.entry("arrivalSeconds", "2"),
+            Map.entry("waitSeconds", "20"),
+            Map.entry("timeoutSeconds", "600"));
+
+    private WaitingRoomComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> config = new HashMap<>(DEFAULTS);
+        Map<String, Object> overrides = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if (DEFAULTS.containsKey(pair[0])) {
+                config.put(pair[0], pair[1]);
+            } else {
+                overrides.put(pair[0], pair[1]);
+            }
+        }
+        String passwordHash = new BCryptPasswordEncoder(Integer.parseInt(config.get("strength"))).encode(PASSWORD);
+
+        System.out.printf("%nlogin rush: bcrypt cost %s, %d cores, players arrive within %ss%n",
+                          config.get("strength"), Runtime.getRuntime().availableProcessors(), config.get("arrivalSeconds"));
+        System.out.printf("%-13s %8s %9s %9s %10s %8s %10s %10s %10s  %s%n",
+                          "mode", "players", "logged in", "requests", "req/player", "hashes",
+                          "p50 wait", "p99 wait", "elapsed", "status codes");
+        for (String players : config.get("players").split(",")) {
+            for (boolean waitingRoom : new boolean[]{false, true}) {
+                Map<String, Object> properties = new HashMap<>(overrides);
+                properties.put("auth.hashing.bcrypt-strength", config.get("strength"));
+                properties.put("auth.waiting-room.enabled", waitingRoom);
+                try (var server = EmbeddedAuthServer.start(properties)) {
+                    rush(server, config, Integer.parseInt(players), passwordHash, waitingRoom);
+                }
+            }
+        }
+        System.exit(0);
+    }
+
+    private static void rush(EmbeddedAuthServer server,
+                             Map<String, String> config,
+                             int players,
+                             String passwordHash,
+                             boolean waitingRoom) throws InterruptedException {
+        server.bean(UserCredentialsJdbcRepository.class).insertAllIfAbsent(
+                LongStream.range(0, players)
+                          .mapToObj(i -> UserCredentials.builder()
+                                                        .username("player" + i)
+                                                        .passwordHash(passwordHash)
+                                                        .build())
+                          .toList());
+        var meterRegistry = server.bean(MeterRegistry.class);
+        long hashesBefore = hashes(meterRegistry);
+
+        var player = new Player(server.baseUri(),
+                                Long.parseLong(config.get("waitSeconds")),
+                                Duration.ofSeconds(Long.parseLong(config.get("timeoutSeconds"))));
+        long intervalNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(config.get("arrivalSeconds"))) / players;
+        long start = System.nanoTime();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < players; i++) {
+                long arrival = start + i * intervalNanos;
+                LockSupport.parkNanos(arrival - System.nanoTime());
+                String username = "player" + i;
+                executor.execute(() -> player.logIn(username, arrival));
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        Map<Integer, Long> codes = new TreeMap<>();
+        player.statusCodes.forEach((code, count) -> codes.put(code, count.sum()));
+        long requests = codes.values().stream().mapToLong(Long::longValue).sum();
+        System.out.printf("%-13s %8d %9d %9d %10.1f %8d %9.1fs %9.1fs %9.1fs  %s%n",
+                          waitingRoom ? "waiting room" : "retries",
+                          players,
+                          player.waits.getTotalCount(),
+                          requests,
+                          requests / (double) players,
+                          hashes(meterRegistry) - hashesBefore,
+                          player.waits.getValueAtPercentile(50) / 1e9,
+                          player.waits.getValueAtPercentile(99) / 1e9,
+                          elapsedNanos / 1e9,
+                          codes);
+    }
+
+    private static long hashes(MeterRegistry meterRegistry) {
+        return meterRegistry.find("auth.hashing.wait").timers().stream().mapToLong(Timer::count).sum();
+    }
+
+    /**
+     * One player's client: logs in, follows a waiting-room ticket if one is handed out, and otherwise retries on
+     * {@code 503} until logged in, rejected or out of time.
+     */
+    private static final class Player {
+
+        private final HttpClient httpClient = HttpClient.newBuilder()
+                                                        .version(HttpClient.Version.HTTP_1_1)
+                                                        .executor(Executors.newVirtualThreadPerTaskExecutor())
+                                                        .build();
+        private final URI baseUri;
+        private final long waitSeconds;
+        private final Duration timeout;
+        private final Histogram waits = new ConcurrentHistogram(TimeUnit.HOURS.toNanos(1), 3);
+        private final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+
+        Player(URI baseUri, long waitSeconds, Duration timeout) {
+            this.baseUri = baseUri;
+            this.waitSeconds = waitSeconds;
+            this.timeout = timeout;
+        }
+
+        void logIn(String username, long arrival) {
+            long deadline = arrival + timeout.toNanos();
+            String ticket = null;
+            try {
+                while (System.nanoTime() < deadline) {
+                    var response = send(login(username, ticket));
+                    ticket = null;
+                    switch (response.statusCode()) {
+                        case 200 -> {
+                            waits.recordValue(System.nanoTime() - arrival);
+                            return;
+                        }
+                        case 202 -> ticket = awaitAdmission(JSON.readTree(response.body()).get("ticket").asText());
+                        case 503 -> {
+                            long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1);
+                            Thread.sleep(TimeUnit.SECONDS.toMillis(retryAfter)
+                                                 + ThreadLocalRandom.current().nextLong(1000));
+                        }
+                        default -> {
+                            return;
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                statusCodes.computeIfAbsent(-1, code -> new LongAdder()).increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Waits for the ticket to be admitted and returns it, or null to start over if it was lost.
+         */
+        private String awaitAdmission(String ticket) throws IOException, InterruptedException {
+            var poll = HttpRequest.newBuilder(baseUri.resolve("/auth/login/queue/" + ticket + "?wait=" + waitSeconds))
+                                  .timeout(Duration.ofSeconds(waitSeconds + 10))
+                                  .GET()
+                                  .build();
+            while (true) {
+                var response = send(poll);
+                if (response.statusCode() != 200) {
+                    return null;
+                }
+                if ("admitted".equals(JSON.readTree(response.body()).get("status").asText())) {
+                    return ticket;
+                }
+            }
+        }
+
+        private HttpRequest login(String username, String ticket) {
+            String body = "{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD + "\"}";
+            var request = HttpRequest.newBuilder(baseUri.resolve("/auth/login"))
+                                     .timeout(timeout)
+                                     .header("Content-Type", "application/json")
+                                     .POST(HttpRequest.BodyPublishers.ofString(body));
+            if (ticket != null) {
+                request.header("X-Queue-Ticket", ticket);
+            }
+            return request.build();
+        }
+
+        private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+            var response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            statusCodes.computeIfAbsent(response.statusCode(), code -> new LongAdder()).increment();
+            return response;
+        }
+    }
+}
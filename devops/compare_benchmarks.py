@@ -0,0 +1,63 @@
+#!/usr/bin/env python3
+
+import argparse
+import json
+import sys
+
+
+GREEN = "\033[92m"
+RED = "\033[91m"
+RESET = "\033[0m"
+
+HIGHER_IS_BETTER = {"thrpt"}
+
+
+def load_results(path):
+    with open(path) as f:
+        results = json.load(f)
+    scores = {}
+    for result in results:
+        params = ",".join(f"{k}={v}" for k, v in sorted(result.get("params", {}).items()))
+        name = result["benchmark"].rsplit(".", 2)[-2:]
+        key = ".".join(name) + (f" [{params}]" if params else "")
+        metric = result["primaryMetric"]
+        scores[key] = (result["mode"], metric["score"], metric["scoreUnit"])
+    return scores
+
+
+def relative_change(mode, baseline, candidate):
+    change = (candidate - baseline) / baseline * 100
+    return change if mode in HIGHER_IS_BETTER else -change
+
+
+def main():
+    parser = argparse.ArgumentParser(description="Compare two JMH JSON result files (baseline vs. candidate).")
+    parser.add_argument("baseline", help="jmh-result.json of the reference commit")
+    parser.add_argument("candidate", help="jmh-result.json of the commit under test")
+    parser.add_argument("--threshold", type=float, default=10.0,
+                        help="Regression in percent that makes the script exit non-zero (default: 10)")
+    args = parser.parse_args()
+
+    baseline = load_results(args.baseline)
+    candidate = load_results(args.candidate)
+
+    regressions = 0
+    print(f"{'benchmark':60} {'baseline':>14} {'candidate':>14} {'change':>9}")
+    for key in sorted(baseline.keys() & candidate.keys()):
+        mode, base_score, unit = baseline[key]
+        _, cand_score, _ = candidate[key]
+        change = relative_change(mode, base_score, cand_score)
+        color = RED if change < -args.threshold else GREEN if change > args.threshold else ""
+        regressions += change < -args.threshold
+        print(f"{key:60} {base_score:>14.3f} {cand_score:>14.3f} {color}{change:>+8.1f}%{RESET} {unit}")
+
+    for key in sorted(baseline.keys() ^ candidate.keys()):
+        print(f"{key:60} only in {'baseline' if key in baseline else 'candidate'}")
+
+    if regressions:
+        print(f"{RED}{regressions} benchmark(s) regressed by more than {args.threshold}%{RESET}")
+        sys.exit(1)
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,165 @@
+#!/usr/bin/env python3
+
+import argparse
+import os
+import shutil
+import statistics
+import subprocess
+import sys
+import time
+import urllib.error
+import urllib.request
+import zipfile
+from pathlib import Path
+
+
+AUTH_SERVICE_DIR = Path(__file__).resolve().parent.parent / "auth_service"
+AOT_MARKER = "BOOT-INF/classes/io/mmo/authentication/Application__ApplicationContextInitializer.class"
+
+# Placeholders so the context can be refreshed without a database; the same ones the Dockerfile training run uses.
+OFFLINE_ENV = {
+    "JWT_SECRET": "training-run-only-not-a-real-secret-0000",
+    "JWT_EXPIRATION_MS": "1",
+    "AUTH_POSTGRES_SVC": "localhost",
+    "AUTH_POSTGRES_DB": "training",
+    "AUTH_POSTGRES_USER": "training",
+    "AUTH_POSTGRES_PASSWORD": "training",
+}
+OFFLINE_ARGS = [
+    "--spring.jpa.hibernate.ddl-auto=none",
+    "--spring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=false",
+]
+MODE_JVM_OPTIONS = {
+    "jvm": [],
+    "cds": ["-XX:SharedArchiveFile=app.jsa"],
+    "aot": ["-XX:SharedArchiveFile=app.jsa", "-Dspring.aot.enabled=true"],
+}
+
+
+def find_jar():
+    jars = [jar for jar in (AUTH_SERVICE_DIR / "target").glob("auth-service-*.jar") if not jar.name.endswith("-plain.jar")]
+    if not jars:
+        sys.exit("No jar in auth_service/target; build it with: ./mvnw -Paot package -DskipTests")
+    return jars[0]
+
+
+def prepare_jvm_mode(jar, mode, workdir):
+    """Lays the jar out like the runtime image of the given STARTUP_MODE, including the CDS training run."""
+    mode_dir = workdir / mode
+    shutil.rmtree(mode_dir, ignore_errors=True)
+    subprocess.run(["java", "-Djarmode=tools", "-jar", str(jar), "extract", "--destination", str(mode_dir)],
+                   check=True, stdout=subprocess.DEVNULL)
+    next(mode_dir.glob("*.jar")).rename(mode_dir / "app.jar")
+    if mode != "jvm":
+        print(f"Training run for {mode}...")
+        options = [option for option in MODE_JVM_OPTIONS[mode] if not option.startswith("-XX:SharedArchiveFile")]
+        subprocess.run(["java", "-XX:ArchiveClassesAtExit=app.jsa", "-Dspring.context.exit=onRefresh", *options,
+                        "-jar", "app.jar", *OFFLINE_ARGS],
+                       cwd=mode_dir, env={**os.environ, **OFFLINE_ENV}, check=True,
+                       stdout=subprocess.DEVNULL, stderr=subprocess.DEVNULL)
+    return mode_dir, ["java", *MODE_JVM_OPTIONS[mode]], ["-jar", "app.jar"]
+
+
+def measure_refresh(cwd, launcher, program, log):
+    """Time until the application context is refreshed and the process exits, and the peak resident set size."""
+    command = [*launcher, "-Dspring.context.exit=onRefresh", *program, *OFFLINE_ARGS]
+    start = time.monotonic()
+    process = subprocess.Popen(command,
+                               cwd=cwd, env={**os.environ, **OFFLINE_ENV}, stdout=log, stderr=subprocess.STDOUT)
+    _, status, usage = os.wait4(process.pid, 0)
+    elapsed = time.monotonic() - start
+    if os.waitstatus_to_exitcode(status) != 0:
+        sys.exit(f"{' '.join(command)} failed, see {log.name}")
+    return elapsed, usage.ru_maxrss / 1024
+
+
+def measure_ready(cwd, launcher, program, log, port, timeout):
+    """Time until /actuator/health/readiness reports UP, and the resident set size at that moment."""
+    url = f"http://localhost:{port}/actuator/health/readiness"
+    command = [*launcher, *program, f"--server.port={port}"]
+    start = time.monotonic()
+    process = subprocess.Popen(command,
+                               cwd=cwd, stdout=log, stderr=subprocess.STDOUT)
+    try:
+        while time.monotonic() - start < timeout:
+            if process.poll() is not None:
+                sys.exit(f"{' '.join(command)} exited with {process.returncode}, see {log.name}")
+            try:
+                with urllib.request.urlopen(url, timeout=1) as response:
+                    if response.status == 200:
+                        return time.monotonic() - start, resident_set_mib(process.pid)
+            except (urllib.error.URLError, ConnectionError):
+                pass
+            time.sleep(0.02)
+        sys.exit(f"{' '.join(command)} was not ready after {timeout} s, see {log.name}")
+    finally:
+        process.terminate()
+        process.wait()
+
+
+def resident_set_mib(pid):
+    with open(f"/proc/{pid}/status") as f:
+        for line in f:
+            if line.startswith("VmRSS:"):
+                return int(line.split()[1]) / 1024
+    return float("nan")
+
+
+def main():
+    parser = argparse.ArgumentParser(
+        description="Compare startup time and memory of the auth service's startup modes.")
+    parser.add_argument("--jar", type=Path, help="Executable jar, built with -Paot for the aot mode "
+                                                 "(default: the jar in auth_service/target)")
+    parser.add_argument("--native", type=Path, help="Native executable to include as mode 'native'")
+    parser.add_argument("--modes", default="jvm,cds,aot", help="Comma-separated modes (default: jvm,cds,aot)")
+    parser.add_argument("--runs", type=int, default=5, help="Measured starts per mode (default: 5)")
+    parser.add_argument("--until", choices=["refresh", "ready"], default="refresh",
+                        help="'refresh' stops after the application context is refreshed and needs no database; "
+                             "'ready' waits for the readiness probe and needs the AUTH_POSTGRES_* and JWT_* "
+                             "variables of a reachable database (default: refresh)")
+    parser.add_argument("--port", type=int, default=18080, help="Server port for --until ready (default: 18080)")
+    parser.add_argument("--timeout", type=float, default=120, help="Seconds to wait for readiness (default: 120)")
+    args = parser.parse_args()
+
+    modes = [mode.strip() for mode in args.modes.split(",") if mode.strip()]
+    if args.native:
+        modes.append("native")
+    jar = (args.jar or find_jar()).resolve()
+    if "aot" in modes and AOT_MARKER not in zipfile.ZipFile(jar).namelist():
+        sys.exit(f"{jar.name} has no AOT-generated classes; build it with: ./mvnw -Paot package -DskipTests")
+
+    workdir = AUTH_SERVICE_DIR / "target" / "startup-benchmark"
+    workdir.mkdir(parents=True, exist_ok=True)
+    results = {}
+    for mode in modes:
+        if mode == "native":
+            cwd, launcher, program = workdir, [str(args.native.resolve())], []
+        elif mode in MODE_JVM_OPTIONS:
+            cwd, launcher, program = prepare_jvm_mode(jar, mode, workdir)
+        else:
+            sys.exit(f"Unknown mode '{mode}', expected jvm, cds, aot or --native")
+
+        samples = []
+        with open(workdir / f"{mode}.log", "w") as log:
+            for run in range(args.runs + 1):
+                if args.until == "refresh":
+                    sample = measure_refresh(cwd, launcher, program, log)
+                else:
+                    sample = measure_ready(cwd, launcher, program, log, args.port, args.timeout)
+                if run > 0:
+                    samples.append(sample)
+        results[mode] = samples
+        print(f"{mode}: {', '.join(f'{seconds:.2f} s' for seconds, _ in samples)}")
+
+    baseline = statistics.median(seconds for seconds, _ in results[modes[0]])
+    print(f"\nStartup until {args.until}, median of {args.runs} runs after one discarded run")
+    print(f"{'mode':8} {'startup':>10} {'min':>10} {'speedup':>9} {'rss':>10}")
+    for mode, samples in results.items():
+        seconds = statistics.median(sample[0] for sample in samples)
+        rss = statistics.median(sample[1] for sample in samples)
+        print(f"{mode:8} {seconds:>9.2f}s {min(sample[0] for sample in samples):>9.2f}s "
+              f"{baseline / seconds:>8.2f}x {rss:>7.0f} MiB")
+
+
+if __name__ == "__main__":
+    main()